@@ -5,10 +5,10 @@ import mb.common.message.KeyedMessages;
 import mb.common.message.KeyedMessagesBuilder;
 import mb.common.message.Messages;
 import mb.common.message.Severity;
-import mb.common.region.Region;
 import mb.common.util.MapView;
+import mb.jsglr.common.AstFingerprint;
+import mb.jsglr.common.AstFingerprintAttachment;
 import mb.jsglr.common.ResourceKeyAttachment;
-import mb.jsglr.common.TermTracer;
 import mb.nabl2.terms.stratego.StrategoBlob;
 import mb.nabl2.terms.stratego.StrategoTermIndices;
 import mb.nabl2.terms.stratego.TermIndex;
@@ -31,11 +31,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 
 public class ConstraintAnalyzer {
     public static class Result implements Serializable {
@@ -43,35 +41,56 @@ public class ConstraintAnalyzer {
         public final IStrategoTerm parsedAst;
         public final IStrategoTerm analyzedAst;
         public final IStrategoTerm analysis;
+        /** Fingerprint of the structure and regions of {@link #parsedAst}. */
+        public final AstFingerprint parsedAstFingerprint;
+        /** Content hash, computed once, such that results with different content are rejected without walking their terms. */
+        private final int hashCode;
 
         public Result(
             ResourceKey resource,
             IStrategoTerm parsedAst,
+            AstFingerprint parsedAstFingerprint,
             IStrategoTerm analyzedAst,
             IStrategoTerm analysis
         ) {
             this.resource = resource;
             this.parsedAst = parsedAst;
+            this.parsedAstFingerprint = parsedAstFingerprint;
             this.analyzedAst = analyzedAst;
             this.analysis = analysis;
+            int hashCode = resource.hashCode();
+            hashCode = 31 * hashCode + parsedAstFingerprint.hashCode();
+            hashCode = 31 * hashCode + analyzedAst.hashCode();
+            hashCode = 31 * hashCode + analysis.hashCode();
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * Creates a result, computing the fingerprint of {@code parsedAst} when none is attached to it.
+         */
+        public Result(
+            ResourceKey resource,
+            IStrategoTerm parsedAst,
+            IStrategoTerm analyzedAst,
+            IStrategoTerm analysis
+        ) {
+            this(resource, parsedAst, AstFingerprintAttachment.getOrCompute(parsedAst), analyzedAst, analysis);
         }
 
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final Result result = (Result)o;
+            if(hashCode != result.hashCode) return false;
             if(!resource.equals(result.resource)) return false;
-            if(!parsedAst.equals(result.parsedAst)) return false;
+            // The fingerprint decides whether the parsed ASTs and their regions are equal, without walking them.
+            if(!parsedAstFingerprint.equals(result.parsedAstFingerprint)) return false;
             if(!analyzedAst.equals(result.analyzedAst)) return false;
             return analysis.equals(result.analysis);
         }
 
         @Override public int hashCode() {
-            int result = resource.hashCode();
-            result = 31 * result + parsedAst.hashCode();
-            result = 31 * result + analyzedAst.hashCode();
-            result = 31 * result + analysis.hashCode();
-            return result;
+            return hashCode;
         }
 
         @Override public String toString() {
@@ -87,24 +106,26 @@ public class ConstraintAnalyzer {
     public static class ProjectResult implements Serializable {
         public final ResourceKey resource;
         public final IStrategoTerm analysis;
+        /** Content hash, computed once, such that results with different content are rejected without walking their terms. */
+        private final int hashCode;
 
         public ProjectResult(ResourceKey resource, IStrategoTerm analysis) {
             this.resource = resource;
             this.analysis = analysis;
+            this.hashCode = 31 * resource.hashCode() + analysis.hashCode();
         }
 
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final ProjectResult that = (ProjectResult)o;
+            if(hashCode != that.hashCode) return false;
             if(!resource.equals(that.resource)) return false;
             return analysis.equals(that.analysis);
         }
 
         @Override public int hashCode() {
-            int result = resource.hashCode();
-            result = 31 * result + analysis.hashCode();
-            return result;
+            return hashCode;
         }
 
         @Override public String toString() {
@@ -179,11 +200,21 @@ public class ConstraintAnalyzer {
         public final @Nullable ProjectResult projectResult;
         public final ArrayList<Result> results;
         public final KeyedMessages messages;
+        /**
+         * The resources whose result was added, changed, or removed by the analysis that produced this result. This
+         * depends on the previous analysis, and is therefore not part of the equality of results.
+         */
+        public final ArrayList<ResourceKey> changedResources;
 
-        public MultiFileResult(@Nullable ProjectResult projectResult, ArrayList<Result> results, KeyedMessages messages) {
+        public MultiFileResult(@Nullable ProjectResult projectResult, ArrayList<Result> results, KeyedMessages messages, ArrayList<ResourceKey> changedResources) {
             this.projectResult = projectResult;
             this.results = results;
             this.messages = messages;
+            this.changedResources = changedResources;
+        }
+
+        public MultiFileResult(@Nullable ProjectResult projectResult, ArrayList<Result> results, KeyedMessages messages) {
+            this(projectResult, results, messages, new ArrayList<>(results.size()));
         }
 
         public MultiFileResult(ArrayList<Result> results, KeyedMessages messages) {
@@ -225,6 +256,7 @@ public class ConstraintAnalyzer {
                 "projectResult=" + projectResult +
                 ", results=" + results +
                 ", messages=" + messages +
+                ", changedResources=" + changedResources +
                 '}';
         }
     }
@@ -265,7 +297,7 @@ public class ConstraintAnalyzer {
         ResourceService resourceService
     ) throws ConstraintAnalyzerException {
         final MapView<ResourceKey, IStrategoTerm> asts = MapView.of(resource, ast);
-        final MultiFileResult multiFileResult = doAnalyze(root, asts, context, strategoRuntime, resourceService);
+        final MultiFileResult multiFileResult = doAnalyze(root, asts, context, strategoRuntime, resourceService, context.getStamp());
         final @Nullable Result result;
         try {
             result = multiFileResult.results.get(0);
@@ -282,7 +314,7 @@ public class ConstraintAnalyzer {
         StrategoRuntime strategoRuntime,
         ResourceService resourceService
     ) throws ConstraintAnalyzerException {
-        return doAnalyze(root, asts, context, strategoRuntime, resourceService);
+        return doAnalyze(root, asts, context, strategoRuntime, resourceService, context.getStamp());
     }
 
 
@@ -291,7 +323,8 @@ public class ConstraintAnalyzer {
         MapView<ResourceKey, IStrategoTerm> asts,
         ConstraintAnalyzerContext context,
         StrategoRuntime strategoRuntime,
-        ResourceService resourceService
+        ResourceService resourceService,
+        ConstraintAnalyzerContext.Stamp initialStamp
     ) throws ConstraintAnalyzerException {
         final ITermFactory termFactory = strategoRuntime.getTermFactory();
 
@@ -348,18 +381,21 @@ public class ConstraintAnalyzer {
             final IStrategoTerm ast = entry.getValue();
             final IStrategoTerm change;
             final @Nullable Result cachedResult = context.getResult(resource);
+            // The fingerprint is attached by the parser, and is only computed here for ASTs without one, such as ASTs
+            // that were transformed after parsing.
+            final AstFingerprint fingerprint = AstFingerprintAttachment.getOrCompute(ast);
             if(cachedResult != null) {
-                if(!multiFile || cachedResult.parsedAst.hashCode() != ast.hashCode() || !cachedResult.parsedAst.equals(ast) || !regionsEqual(cachedResult.parsedAst, ast)) {
+                if(!isCached(cachedResult, fingerprint)) {
                     change = termFactory.makeAppl("Changed", ast, cachedResult.analysis);
                     context.removeResult(resource); // TODO: is it needed to remove this?
-                    expects.put(resource, new Full(resource, ast));
+                    expects.put(resource, new Full(resource, ast, fingerprint));
                 } else {
                     change = termFactory.makeAppl("Cached", cachedResult.analysis);
                     expects.put(resource, new Update(resource));
                 }
             } else {
                 change = termFactory.makeAppl("Added", ast);
-                expects.put(resource, new Full(resource, ast));
+                expects.put(resource, new Full(resource, ast, fingerprint));
             }
             changeTerms.add(termFactory.makeTuple(termFactory.makeString(resource.toString()), change));
         }
@@ -370,48 +406,13 @@ public class ConstraintAnalyzer {
 
         /// 3. Call analysis, and list results.
 
-        final Map<ResourceKey, IStrategoTerm> resultTerms = new HashMap<>();
-        final IStrategoTerm action;
+        final Map<ResourceKey, IStrategoTerm> resultTerms;
         if(multiFile && root != null) {
-            action = termFactory.makeAppl("AnalyzeMulti", rootChange, termFactory.makeList(changeTerms), progressTerm, cancelTerm);
+            final IStrategoTerm action = termFactory.makeAppl("AnalyzeMulti", rootChange, termFactory.makeList(changeTerms), progressTerm, cancelTerm);
+            resultTerms = invokeAnalysis(strategoRuntime, action, resourceService);
         } else {
-            action = termFactory.makeAppl("AnalyzeSingle", termFactory.makeList(changeTerms), progressTerm, cancelTerm);
-        }
-
-        final IStrategoTerm allResultsTerm;
-        try {
-            allResultsTerm = strategoRuntime.invoke(strategyId, action);
-        } catch(StrategoException e) {
-            throw ConstraintAnalyzerException.strategoInvokeFail(e);
-        }
-
-        final @Nullable List<IStrategoTerm> allResultTerms = match(allResultsTerm, "AnalysisResult", 1);
-        if(allResultTerms == null || allResultTerms.isEmpty()) {
-            throw new RuntimeException("BUG: invalid constraint analysis result, got " + allResultsTerm);
-        }
-
-        final IStrategoTerm resultsTerm = allResultTerms.get(0);
-        if(!TermUtils.isList(resultsTerm)) {
-            throw new RuntimeException("BUG: expected list of results, got: " + resultsTerm);
-        }
-        for(IStrategoTerm entry : resultsTerm) {
-            if(!TermUtils.isTuple(entry, 2)) {
-                throw new RuntimeException("BUG: expected tuple result, got " + entry);
-            }
-            final IStrategoTerm resourceTerm = entry.getSubterm(0);
-            if(!TermUtils.isString(resourceTerm)) {
-                throw new RuntimeException("BUG: expected resource string as first component, got " + resourceTerm);
-            }
-            final String resourceString = TermUtils.toJavaString(resourceTerm);
-            final ResourceKey resource;
-            try {
-                resource = resourceService.getResourceKey(ResourceKeyString.parse(resourceString));
-            } catch(ResourceRuntimeException e) {
-                throw new RuntimeException(
-                    "BUG: could not get resource for resource string '" + resourceString + "' in result term " + entry, e);
-            }
-            final IStrategoTerm resultTerm = entry.getSubterm(1);
-            resultTerms.put(resource, resultTerm);
+            final IStrategoTerm action = termFactory.makeAppl("AnalyzeSingle", termFactory.makeList(changeTerms), progressTerm, cancelTerm);
+            resultTerms = invokeAnalysis(strategoRuntime, action, resourceService);
         }
 
         /// 4. Process analysis results and collect messages.
@@ -466,20 +467,63 @@ public class ConstraintAnalyzer {
             }
         }
 
-        return new MultiFileResult(projectResult, results, messagesBuilder.build());
+        final ArrayList<ResourceKey> changedResources = new ArrayList<>(context.getResultResourcesChangedSince(initialStamp));
+        return new MultiFileResult(projectResult, results, messagesBuilder.build(), changedResources);
+    }
+
+    /**
+     * Invokes the analysis strategy, and lists the result term of each resource.
+     */
+    private Map<ResourceKey, IStrategoTerm> invokeAnalysis(
+        StrategoRuntime strategoRuntime,
+        IStrategoTerm action,
+        ResourceService resourceService
+    ) throws ConstraintAnalyzerException {
+        final Map<ResourceKey, IStrategoTerm> resultTerms = new HashMap<>();
+
+        final IStrategoTerm allResultsTerm;
+        try {
+            allResultsTerm = strategoRuntime.invoke(strategyId, action);
+        } catch(StrategoException e) {
+            throw ConstraintAnalyzerException.strategoInvokeFail(e);
+        }
+
+        final @Nullable List<IStrategoTerm> allResultTerms = match(allResultsTerm, "AnalysisResult", 1);
+        if(allResultTerms == null || allResultTerms.isEmpty()) {
+            throw new RuntimeException("BUG: invalid constraint analysis result, got " + allResultsTerm);
+        }
+
+        final IStrategoTerm resultsTerm = allResultTerms.get(0);
+        if(!TermUtils.isList(resultsTerm)) {
+            throw new RuntimeException("BUG: expected list of results, got: " + resultsTerm);
+        }
+        for(IStrategoTerm entry : resultsTerm) {
+            if(!TermUtils.isTuple(entry, 2)) {
+                throw new RuntimeException("BUG: expected tuple result, got " + entry);
+            }
+            final IStrategoTerm resourceTerm = entry.getSubterm(0);
+            if(!TermUtils.isString(resourceTerm)) {
+                throw new RuntimeException("BUG: expected resource string as first component, got " + resourceTerm);
+            }
+            final String resourceString = TermUtils.toJavaString(resourceTerm);
+            final ResourceKey resource;
+            try {
+                resource = resourceService.getResourceKey(ResourceKeyString.parse(resourceString));
+            } catch(ResourceRuntimeException e) {
+                throw new RuntimeException(
+                    "BUG: could not get resource for resource string '" + resourceString + "' in result term " + entry, e);
+            }
+            final IStrategoTerm resultTerm = entry.getSubterm(1);
+            resultTerms.put(resource, resultTerm);
+        }
+        return resultTerms;
     }
 
-    private boolean regionsEqual(IStrategoTerm ast1, IStrategoTerm ast2) {
-        final @Nullable Region region1 = TermTracer.getRegion(ast1);
-        final @Nullable Region region2 = TermTracer.getRegion(ast2);
-        if(!Objects.equals(region1, region2)) return false;
-        if(ast1.getSubtermCount() != ast2.getSubtermCount()) return false;
-        final Iterator<IStrategoTerm> iterator1 = ast1.iterator();
-        final Iterator<IStrategoTerm> iterator2 = ast2.iterator();
-        while(iterator1.hasNext() && iterator2.hasNext()) {
-            if(!regionsEqual(iterator1.next(), iterator2.next())) return false;
-        }
-        return true;
+    private boolean isCached(Result cachedResult, AstFingerprint fingerprint) {
+        if(!multiFile) return false;
+        // The fingerprint covers the structure and the regions of the AST, so equal fingerprints mean that the AST and
+        // its regions did not change.
+        return cachedResult.parsedAstFingerprint.equals(fingerprint);
     }
 
     abstract class Expect {
@@ -520,10 +564,12 @@ public class ConstraintAnalyzer {
 
     class Full extends Expect {
         final IStrategoTerm parsedAst;
+        final AstFingerprint parsedAstFingerprint;
 
-        Full(ResourceKey resourceKey, IStrategoTerm parsedAst) {
+        Full(ResourceKey resourceKey, IStrategoTerm parsedAst, AstFingerprint parsedAstFingerprint) {
             super(resourceKey);
             this.parsedAst = parsedAst;
+            this.parsedAstFingerprint = parsedAstFingerprint;
         }
 
         @Override
@@ -539,7 +585,7 @@ public class ConstraintAnalyzer {
                 final IStrategoTerm analyzedAst = results.get(0);
                 final IStrategoTerm analysis = results.get(1);
                 addResultMessages(results.get(2), results.get(3), results.get(4), messagesBuilder, resourceService, rootDirectory);
-                context.updateResult(resource, parsedAst, analyzedAst, analysis);
+                context.updateResult(resource, parsedAst, parsedAstFingerprint, analyzedAst, analysis);
             } else if(match(resultTerm, "Failed", 0) != null) {
                 addFailMessage("Analysis failed", messagesBuilder);
                 context.removeResult(resource);
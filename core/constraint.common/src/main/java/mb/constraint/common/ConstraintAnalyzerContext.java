@@ -2,22 +2,79 @@ package mb.constraint.common;
 
 import mb.constraint.common.ConstraintAnalyzer.ProjectResult;
 import mb.constraint.common.ConstraintAnalyzer.Result;
+import mb.jsglr.common.AstFingerprint;
 import mb.resource.ResourceKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class ConstraintAnalyzerContext implements Serializable {
+    /**
+     * Identifies the content of a {@link ConstraintAnalyzerContext} at some point in time.
+     *
+     * Every context has a random identifier, and a version that is incremented whenever the content of the context
+     * changes. Therefore, two equal stamps imply that the content of the contexts is equal, which can be determined
+     * in constant time. Two different stamps do not imply that the content is different, but the version is not
+     * incremented when a result is replaced by an equal result, such that this is rare.
+     *
+     * The stamp of a single (project) result is the version in which that result last changed, and identifies
+     * the content of that result in the same way.
+     */
+    public static final class Stamp implements Serializable {
+        private final long id;
+        private final long version;
+
+        private Stamp(long id, long version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Stamp that = (Stamp)o;
+            return id == that.id && version == that.version;
+        }
+
+        @Override public int hashCode() {
+            return 31 * Long.hashCode(id) + Long.hashCode(version);
+        }
+
+        @Override public String toString() {
+            return "Stamp{" +
+                "id=" + Long.toHexString(id) +
+                ", version=" + version +
+                '}';
+        }
+    }
+
     private final boolean multiFile;
     private final @Nullable ResourceKey root;
 
     private final LinkedHashMap<ResourceKey, Result> results = new LinkedHashMap<>();
     private final LinkedHashMap<ResourceKey, ProjectResult> projectResults = new LinkedHashMap<>();
 
+    private final long id = ThreadLocalRandom.current().nextLong();
+    private long version = 0;
+    /** The version in which the result of each resource last changed, including removed results. */
+    private final HashMap<ResourceKey, Long> resultVersions = new HashMap<>();
+    /** The version in which the project result of each resource last changed, including removed project results. */
+    private final HashMap<ResourceKey, Long> projectResultVersions = new HashMap<>();
+    /** The results, as of the current version, of the resources whose result was modified since. */
+    private final HashMap<ResourceKey, @Nullable Result> modifiedResults = new HashMap<>();
+    /** The project results, as of the current version, of the resources whose project result was modified since. */
+    private final HashMap<ResourceKey, @Nullable ProjectResult> modifiedProjectResults = new HashMap<>();
+
 
     public ConstraintAnalyzerContext(boolean multiFile, @Nullable ResourceKey root) {
         this.multiFile = multiFile;
@@ -25,6 +82,92 @@ public class ConstraintAnalyzerContext implements Serializable {
     }
 
 
+    /**
+     * Gets the stamp of the current content of this context. The stamp does not change when this context changes.
+     */
+    public Stamp getStamp() {
+        updateVersion();
+        return new Stamp(id, version);
+    }
+
+    /**
+     * Gets the stamp of the current result of given resource, which only changes when that result changes.
+     */
+    public Stamp getResultStamp(ResourceKey resource) {
+        updateVersion();
+        return new Stamp(id, resultVersions.getOrDefault(resource, -1L));
+    }
+
+    /**
+     * Gets the stamp of the current project result of given resource, which only changes when that project result
+     * changes.
+     */
+    public Stamp getProjectResultStamp(ResourceKey resource) {
+        updateVersion();
+        return new Stamp(id, projectResultVersions.getOrDefault(resource, -1L));
+    }
+
+    /**
+     * Gets the resources whose result was added, changed, or removed since the content identified by given stamp of
+     * this context.
+     */
+    public Set<ResourceKey> getResultResourcesChangedSince(Stamp stamp) {
+        updateVersion();
+        final HashSet<ResourceKey> changed = new HashSet<>();
+        if(stamp.id != id) {
+            // Not a stamp of this context: everything may have changed.
+            changed.addAll(resultVersions.keySet());
+            return changed;
+        }
+        for(Entry<ResourceKey, Long> entry : resultVersions.entrySet()) {
+            if(entry.getValue() > stamp.version) {
+                changed.add(entry.getKey());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Compares the results that were modified since the current version with their results as of that version, and
+     * increments the version when any of them changed. Since results are only compared once all modifications are
+     * done, a result that is removed and later re-added with equal content is not considered changed.
+     */
+    private void updateVersion() {
+        if(modifiedResults.isEmpty() && modifiedProjectResults.isEmpty()) return;
+        final ArrayList<ResourceKey> changedResults = new ArrayList<>();
+        for(Entry<ResourceKey, @Nullable Result> entry : modifiedResults.entrySet()) {
+            if(!Objects.equals(entry.getValue(), results.get(entry.getKey()))) {
+                changedResults.add(entry.getKey());
+            }
+        }
+        final ArrayList<ResourceKey> changedProjectResults = new ArrayList<>();
+        for(Entry<ResourceKey, @Nullable ProjectResult> entry : modifiedProjectResults.entrySet()) {
+            if(!Objects.equals(entry.getValue(), projectResults.get(entry.getKey()))) {
+                changedProjectResults.add(entry.getKey());
+            }
+        }
+        modifiedResults.clear();
+        modifiedProjectResults.clear();
+        if(changedResults.isEmpty() && changedProjectResults.isEmpty()) return;
+        version += 1;
+        for(ResourceKey resource : changedResults) {
+            resultVersions.put(resource, version);
+        }
+        for(ResourceKey resource : changedProjectResults) {
+            projectResultVersions.put(resource, version);
+        }
+    }
+
+
+    public boolean isMultiFile() {
+        return multiFile;
+    }
+
+    public @Nullable ResourceKey getRoot() {
+        return root;
+    }
+
+
     public @Nullable Result getResult(ResourceKey resource) {
         return results.get(resource);
     }
@@ -40,15 +183,15 @@ public class ConstraintAnalyzerContext implements Serializable {
     }
 
     public Set<Entry<ResourceKey, Result>> getResultEntries() {
-        return results.entrySet();
+        return Collections.unmodifiableSet(results.entrySet());
     }
 
     public Set<ResourceKey> getResultResources() {
-        return results.keySet();
+        return Collections.unmodifiableSet(results.keySet());
     }
 
-    void updateResult(ResourceKey resource, IStrategoTerm parsedAst, IStrategoTerm analyzedAst, IStrategoTerm analysis) {
-        results.put(resource, new Result(resource, parsedAst, analyzedAst, analysis));
+    void updateResult(ResourceKey resource, IStrategoTerm parsedAst, AstFingerprint parsedAstFingerprint, IStrategoTerm analyzedAst, IStrategoTerm analysis) {
+        putResult(resource, new Result(resource, parsedAst, parsedAstFingerprint, analyzedAst, analysis));
     }
 
     void updateResult(ResourceKey resource, IStrategoTerm analysis) {
@@ -56,12 +199,18 @@ public class ConstraintAnalyzerContext implements Serializable {
         if(result == null) {
             throw new RuntimeException("BUG: attempting to update analysis result for '" + resource + "' to '" + analysis + "', but no existing result was found for it");
         } else {
-            results.put(resource, new Result(resource, result.parsedAst, result.analyzedAst, analysis));
+            putResult(resource, new Result(resource, result.parsedAst, result.parsedAstFingerprint, result.analyzedAst, analysis));
         }
     }
 
+    private void putResult(ResourceKey resource, Result result) {
+        final @Nullable Result previous = results.put(resource, result);
+        if(!modifiedResults.containsKey(resource)) modifiedResults.put(resource, previous);
+    }
+
     void removeResult(ResourceKey resource) {
-        results.remove(resource);
+        final @Nullable Result previous = results.remove(resource);
+        if(previous != null && !modifiedResults.containsKey(resource)) modifiedResults.put(resource, previous);
     }
 
 
@@ -70,25 +219,47 @@ public class ConstraintAnalyzerContext implements Serializable {
     }
 
     public Set<Entry<ResourceKey, ProjectResult>> getProjectResultEntries() {
-        return projectResults.entrySet();
+        return Collections.unmodifiableSet(projectResults.entrySet());
     }
 
     public Set<ResourceKey> getProjectResultResources() {
-        return projectResults.keySet();
+        return Collections.unmodifiableSet(projectResults.keySet());
     }
 
     void updateProjectResult(ResourceKey resource, IStrategoTerm analysis) {
-        projectResults.put(resource, new ProjectResult(resource, analysis));
+        final @Nullable ProjectResult previous = projectResults.put(resource, new ProjectResult(resource, analysis));
+        if(!modifiedProjectResults.containsKey(resource)) modifiedProjectResults.put(resource, previous);
     }
 
     void removeProjectResult(ResourceKey resource) {
-        projectResults.remove(resource);
+        final @Nullable ProjectResult previous = projectResults.remove(resource);
+        if(previous != null && !modifiedProjectResults.containsKey(resource)) modifiedProjectResults.put(resource, previous);
+    }
+
+
+    /**
+     * Creates a context with the same configuration as this context, which only contains given result and project
+     * result. The created context is not affected by later changes to this context. Since it only contains these
+     * results, its content is identified by the stamps of these results, such that it can be handed to consumers of
+     * the analysis of a single file without depending on the results of other files.
+     */
+    public ConstraintAnalyzerContext createSingleResultContext(Result result, @Nullable ProjectResult projectResult) {
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext(multiFile, root);
+        context.putResult(result.resource, result);
+        if(projectResult != null) {
+            context.updateProjectResult(projectResult.resource, projectResult.analysis);
+        }
+        return context;
     }
 
 
     public void clear() {
-        results.clear();
-        projectResults.clear();
+        for(ResourceKey resource : new ArrayList<>(results.keySet())) {
+            removeResult(resource);
+        }
+        for(ResourceKey resource : new ArrayList<>(projectResults.keySet())) {
+            removeProjectResult(resource);
+        }
     }
 
 
@@ -96,6 +267,8 @@ public class ConstraintAnalyzerContext implements Serializable {
         if(this == o) return true;
         if(o == null || getClass() != o.getClass()) return false;
         final ConstraintAnalyzerContext that = (ConstraintAnalyzerContext)o;
+        if(id == that.id && version == that.version && modifiedResults.isEmpty() && modifiedProjectResults.isEmpty()
+            && that.modifiedResults.isEmpty() && that.modifiedProjectResults.isEmpty()) return true;
         if(multiFile != that.multiFile) return false;
         if(root != null ? !root.equals(that.root) : that.root != null) return false;
         if(!results.equals(that.results)) return false;
@@ -0,0 +1,122 @@
+package mb.constraint.common;
+
+import mb.constraint.common.ConstraintAnalyzer.ProjectResult;
+import mb.constraint.common.ConstraintAnalyzer.Result;
+import mb.jsglr.common.AstFingerprint;
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Writes a {@link ConstraintAnalyzerContext} to, and reads it from, a versioned binary format, such that the results
+ * of an analysis survive a restart, and unchanged files are cached by the first analysis after the restart.
+ *
+ * The format consists of a magic number, a format version, and the version of the analysis that produced the context,
+ * followed by the compressed Java serialization of the configuration of the context, its project results, and its
+ * results. The fingerprint of the parsed AST of each result is stored as well, such that files are cached by comparing
+ * the fingerprint of their new AST. Contexts written in another format version, or by another version of the analysis,
+ * are not read, since their results may not be valid for the current specification.
+ */
+public class ConstraintAnalyzerContextPersistence {
+    private static final int MAGIC = 0x53434143; // "SCAC"
+    /** The version of the format, which must be incremented whenever the format changes. */
+    public static final int FORMAT_VERSION = 4;
+
+    /**
+     * Writes given context to given output stream. Does not close the output stream.
+     *
+     * @param analysisVersion the version of the analysis that produced the context, such as a hash of its specification.
+     * @throws IOException When writing fails.
+     */
+    public static void write(ConstraintAnalyzerContext context, String analysisVersion, OutputStream outputStream) throws IOException {
+        final DataOutputStream header = new DataOutputStream(outputStream);
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.writeUTF(analysisVersion);
+        header.flush();
+        final DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream, new Deflater(Deflater.BEST_SPEED));
+        final ObjectOutputStream stream = new ObjectOutputStream(new BufferedOutputStream(deflaterStream));
+        stream.writeBoolean(context.isMultiFile());
+        stream.writeObject(context.getRoot());
+        stream.writeInt(context.getProjectResultEntries().size());
+        for(Entry<ResourceKey, ProjectResult> entry : context.getProjectResultEntries()) {
+            stream.writeObject(entry.getKey());
+            stream.writeObject(entry.getValue().analysis);
+        }
+        stream.writeInt(context.getResultEntries().size());
+        for(Entry<ResourceKey, Result> entry : context.getResultEntries()) {
+            final Result result = entry.getValue();
+            stream.writeObject(entry.getKey());
+            stream.writeObject(result.parsedAst);
+            stream.writeLong(result.parsedAstFingerprint.high);
+            stream.writeLong(result.parsedAstFingerprint.low);
+            stream.writeObject(result.analyzedAst);
+            stream.writeObject(result.analysis);
+        }
+        stream.flush();
+        deflaterStream.finish();
+        outputStream.flush();
+    }
+
+    /**
+     * Reads a context from given input stream. Does not close the input stream.
+     *
+     * @param analysisVersion the version of the analysis that the context must be produced by.
+     * @param multiFile       whether the context must be for multi-file analysis.
+     * @param root            the root the context must be for.
+     * @return The context, or {@code null} if the input stream contains a context in another format version, a context
+     * produced by another version of the analysis, or a context for another configuration.
+     * @throws IOException When reading fails, or the input stream does not contain a context.
+     */
+    public static @Nullable ConstraintAnalyzerContext read(InputStream inputStream, String analysisVersion, boolean multiFile, @Nullable ResourceKey root) throws IOException {
+        final DataInputStream header = new DataInputStream(inputStream);
+        if(header.readInt() != MAGIC) {
+            throw new IOException("Input does not contain a constraint analyzer context");
+        }
+        if(header.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        if(!header.readUTF().equals(analysisVersion)) {
+            return null;
+        }
+        final ObjectInputStream stream = new ObjectInputStream(new BufferedInputStream(new InflaterInputStream(inputStream)));
+        try {
+            if(stream.readBoolean() != multiFile) return null;
+            if(!Objects.equals(stream.readObject(), root)) return null;
+            final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext(multiFile, root);
+            final int projectResultCount = stream.readInt();
+            for(int i = 0; i < projectResultCount; ++i) {
+                final ResourceKey resource = (ResourceKey)stream.readObject();
+                final IStrategoTerm analysis = (IStrategoTerm)stream.readObject();
+                context.updateProjectResult(resource, analysis);
+            }
+            final int resultCount = stream.readInt();
+            for(int i = 0; i < resultCount; ++i) {
+                final ResourceKey resource = (ResourceKey)stream.readObject();
+                final IStrategoTerm parsedAst = (IStrategoTerm)stream.readObject();
+                final AstFingerprint parsedAstFingerprint = new AstFingerprint(stream.readLong(), stream.readLong());
+                final IStrategoTerm analyzedAst = (IStrategoTerm)stream.readObject();
+                final IStrategoTerm analysis = (IStrategoTerm)stream.readObject();
+                context.updateResult(resource, parsedAst, parsedAstFingerprint, analyzedAst, analysis);
+            }
+            return context;
+        } catch(ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Reading constraint analyzer context failed", e);
+        }
+    }
+}
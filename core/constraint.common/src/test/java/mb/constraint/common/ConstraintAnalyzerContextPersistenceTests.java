@@ -0,0 +1,109 @@
+package mb.constraint.common;
+
+import mb.jsglr.common.AstFingerprint;
+import mb.resource.ResourceKey;
+import mb.resource.fs.FSPath;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link ConstraintAnalyzerContextPersistence} class.
+ */
+public final class ConstraintAnalyzerContextPersistenceTests {
+
+    private final ITermFactory termFactory = new TermFactory();
+    private final FSPath root = new FSPath(Paths.get("project").toAbsolutePath());
+    private final FSPath file1 = root.appendRelativePath("a.txt");
+    private final FSPath file2 = root.appendRelativePath("b.txt");
+
+    @Test
+    public void shouldReadEqualContext_whenWrittenWithSameVersionAndRoot() throws IOException {
+        // Arrange
+        final ConstraintAnalyzerContext context = createContext(root);
+        final AstFingerprint fingerprint = context.getResult(file1).parsedAstFingerprint;
+
+        // Act
+        final byte[] bytes = write(context, "v1");
+        final @Nullable ConstraintAnalyzerContext readContext = read(bytes, "v1", root);
+
+        // Assert
+        assertNotNull(readContext);
+        assertEquals(context, readContext);
+        assertEquals(fingerprint, readContext.getResult(file1).parsedAstFingerprint);
+        assertEquals(context.getProjectResult(root), readContext.getProjectResult(root));
+    }
+
+    @Test
+    public void shouldReturnNull_whenWrittenByAnotherAnalysisVersion() throws IOException {
+        // Arrange
+        final ConstraintAnalyzerContext context = createContext(root);
+
+        // Act
+        final byte[] bytes = write(context, "v1");
+        final @Nullable ConstraintAnalyzerContext readContext = read(bytes, "v2", root);
+
+        // Assert
+        assertNull(readContext);
+    }
+
+    @Test
+    public void shouldReturnNull_whenWrittenForAnotherRoot() throws IOException {
+        // Arrange
+        final ConstraintAnalyzerContext context = createContext(root);
+        final FSPath otherRoot = new FSPath(Paths.get("other").toAbsolutePath());
+
+        // Act
+        final byte[] bytes = write(context, "v1");
+        final @Nullable ConstraintAnalyzerContext readContext = read(bytes, "v1", otherRoot);
+
+        // Assert
+        assertNull(readContext);
+    }
+
+    @Test
+    public void shouldThrow_whenInputIsNotAContext() {
+        // Arrange
+        final byte[] bytes = new byte[]{1, 2, 3, 4, 5, 6, 7, 8};
+
+        // Act/Assert
+        assertThrows(IOException.class, () -> read(bytes, "v1", root));
+    }
+
+    private ConstraintAnalyzerContext createContext(ResourceKey root) {
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext(true, root);
+        addResult(context, file1, "A");
+        addResult(context, file2, "B");
+        context.updateProjectResult(root, termFactory.makeAppl("Project", termFactory.makeInt(2)));
+        return context;
+    }
+
+    private void addResult(ConstraintAnalyzerContext context, ResourceKey resource, String name) {
+        final IStrategoTerm parsedAst = termFactory.makeAppl("Module", termFactory.makeString(name));
+        final IStrategoTerm analyzedAst = termFactory.makeAppl("Module", termFactory.makeString(name + "'"));
+        final IStrategoTerm analysis = termFactory.makeTuple(termFactory.makeString(name), termFactory.makeInt(1));
+        context.updateResult(resource, parsedAst, AstFingerprint.compute(parsedAst), analyzedAst, analysis);
+    }
+
+    private static byte[] write(ConstraintAnalyzerContext context, String analysisVersion) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ConstraintAnalyzerContextPersistence.write(context, analysisVersion, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static @Nullable ConstraintAnalyzerContext read(byte[] bytes, String analysisVersion, ResourceKey root) throws IOException {
+        return ConstraintAnalyzerContextPersistence.read(new ByteArrayInputStream(bytes), analysisVersion, true, root);
+    }
+}
@@ -9,6 +9,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 public abstract class ConstraintAnalyzeFile implements TaskDef<ConstraintAnalyzeFile.Input, Result<ConstraintAnalyzeFile.Output, ?>> {
     public static final class Input implements Serializable {
@@ -42,31 +43,51 @@ public abstract class ConstraintAnalyzeFile implements TaskDef<ConstraintAnalyze
         }
     }
 
+    /**
+     * Output of the analysis of a file. Compared by the stamps of the result of the file and of the project result,
+     * from which the AST and analysis are taken, such that tasks that depend on the analysis of a file are not
+     * re-executed when only other files change. Therefore, the {@link #context} must only contain results identified by
+     * these stamps, such as a context created with {@link ConstraintAnalyzerContext#createSingleResultContext}, or
+     * the output must be compared by the stamp of the entire context.
+     */
     public static final class Output implements Serializable {
         public final ConstraintAnalyzerContext context;
+        public final ConstraintAnalyzerContext.Stamp resultStamp;
+        public final ConstraintAnalyzerContext.@Nullable Stamp projectResultStamp;
         public final IStrategoTerm ast;
         public final IStrategoTerm analysis;
 
-        public Output(ConstraintAnalyzerContext context, IStrategoTerm ast, IStrategoTerm analysis) {
+        public Output(
+            ConstraintAnalyzerContext context,
+            ConstraintAnalyzerContext.Stamp resultStamp,
+            ConstraintAnalyzerContext.@Nullable Stamp projectResultStamp,
+            IStrategoTerm ast,
+            IStrategoTerm analysis
+        ) {
             this.context = context;
+            this.resultStamp = resultStamp;
+            this.projectResultStamp = projectResultStamp;
             this.ast = ast;
             this.analysis = analysis;
         }
 
+        /**
+         * Creates an output that is compared by the stamp of the entire context.
+         */
+        public Output(ConstraintAnalyzerContext context, IStrategoTerm ast, IStrategoTerm analysis) {
+            this(context, context.getStamp(), null, ast, analysis);
+        }
+
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             Output output = (Output)o;
-            if(!context.equals(output.context)) return false;
-            if(!ast.equals(output.ast)) return false;
-            return analysis.equals(output.analysis);
+            if(!resultStamp.equals(output.resultStamp)) return false;
+            return Objects.equals(projectResultStamp, output.projectResultStamp);
         }
 
         @Override public int hashCode() {
-            int result = context.hashCode();
-            result = 31 * result + ast.hashCode();
-            result = 31 * result + analysis.hashCode();
-            return result;
+            return Objects.hash(resultStamp, projectResultStamp);
         }
     }
 }
@@ -8,7 +8,10 @@ import mb.common.result.Result;
 import mb.common.util.MapView;
 import mb.constraint.common.ConstraintAnalyzer;
 import mb.constraint.common.ConstraintAnalyzerContext;
+import mb.constraint.common.ConstraintAnalyzerContextPersistence;
 import mb.constraint.common.ConstraintAnalyzerException;
+import mb.log.api.Logger;
+import mb.log.api.LoggerFactory;
 import mb.pie.api.ExecContext;
 import mb.pie.api.Function;
 import mb.pie.api.SerializableFunction;
@@ -19,9 +22,19 @@ import mb.resource.hierarchical.ResourcePath;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<ConstraintAnalyzeMultiTaskDef.Input, Result<ConstraintAnalyzeMultiTaskDef.Output, ?>> {
     public static class Input implements Serializable {
@@ -58,28 +71,88 @@ public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<Constrain
         }
     }
 
+    /**
+     * Output of the multi-file analysis.
+     *
+     * Since the {@link ConstraintAnalyzerContext} is mutated and reused by the next execution, the output records
+     * the {@link ConstraintAnalyzerContext.Stamp stamp} of the context when it was created. Outputs are compared by
+     * their stamps instead of by the terms in the context and results, as the results are taken from the context.
+     *
+     * The output also records the stamps of the result of each file and of the project result, such that the
+     * {@link SingleFileOutput} of a file only changes when the result of that file or the project result changes.
+     */
     public static class Output implements Serializable {
         public final KeyedMessages messagesFromAstProviders;
         public final ConstraintAnalyzerContext context;
+        public final ConstraintAnalyzerContext.Stamp contextStamp;
         public final ConstraintAnalyzer.MultiFileResult result;
+        /** The stamps of the results in {@link #result}, in the same order. */
+        private final ArrayList<ConstraintAnalyzerContext.Stamp> resultStamps;
+        private final ConstraintAnalyzerContext.@Nullable Stamp projectResultStamp;
 
         public Output(KeyedMessages messagesFromAstProviders, ConstraintAnalyzerContext context, ConstraintAnalyzer.MultiFileResult result) {
             this.messagesFromAstProviders = messagesFromAstProviders;
             this.result = result;
             this.context = context;
+            this.contextStamp = context.getStamp();
+            this.resultStamps = new ArrayList<>(result.results.size());
+            for(ConstraintAnalyzer.Result r : result.results) {
+                resultStamps.add(context.getResultStamp(r.resource));
+            }
+            this.projectResultStamp = result.projectResult != null ? context.getProjectResultStamp(result.projectResult.resource) : null;
+        }
+
+        /**
+         * Creates the output of the multi-file analysis for given resource.
+         *
+         * @param resource the resource
+         * @return the single-file output; or {@code null} if there is no result for the resource
+         */
+        public @Nullable SingleFileOutput getSingleFileOutput(ResourceKey resource) {
+            // OPTO: linear search to lookup, as in MultiFileResult.getResult.
+            for(int i = 0; i < result.results.size(); ++i) {
+                final ConstraintAnalyzer.Result r = result.results.get(i);
+                if(!r.resource.equals(resource)) continue;
+                final Messages messages = new Messages(result.messages.getMessagesOfKey(resource));
+                final ConstraintAnalyzerContext singleResultContext = context.createSingleResultContext(r, result.projectResult);
+                return new SingleFileOutput(singleResultContext, resultStamps.get(i), projectResultStamp, new ConstraintAnalyzer.SingleFileResult(
+                    result.projectResult,
+                    r.resource,
+                    r.parsedAst,
+                    r.analyzedAst,
+                    r.analysis,
+                    messages
+                ));
+            }
+            return null;
         }
 
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final Output output = (Output)o;
-            return messagesFromAstProviders.equals(output.messagesFromAstProviders) &&
-                context.equals(output.context) &&
-                result.equals(output.result);
+            return contextStamp.equals(output.contextStamp) &&
+                resultResourcesEqual(result, output.result) &&
+                messagesFromAstProviders.equals(output.messagesFromAstProviders) &&
+                result.messages.equals(output.result.messages);
         }
 
         @Override public int hashCode() {
-            return Objects.hash(messagesFromAstProviders, context, result);
+            return Objects.hash(messagesFromAstProviders, contextStamp, result.results.size());
+        }
+
+        /**
+         * Determines whether two results, taken from a context with the same stamp, contain the results of the same
+         * resources. Since the results were taken from the same content, their terms are equal as well.
+         */
+        private static boolean resultResourcesEqual(ConstraintAnalyzer.MultiFileResult result1, ConstraintAnalyzer.MultiFileResult result2) {
+            if((result1.projectResult == null) != (result2.projectResult == null)) return false;
+            final int size = result1.results.size();
+            if(size != result2.results.size()) return false;
+            for(int i = 0; i < size; ++i) {
+                if(!result1.results.get(i).resource.equals(result2.results.get(i).resource)) return false;
+            }
+            return true;
         }
 
         @Override public String toString() {
@@ -89,24 +162,43 @@ public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<Constrain
         }
     }
 
+    /**
+     * Output of the multi-file analysis for a single file. Compared by the stamps of the result of the file and of the
+     * project result, and by the messages of the file, such that it does not change when only other files change.
+     *
+     * The {@link #context} only contains the result of the file and the project result, such that consumers that pass
+     * it to Stratego cannot observe results of other files that are not covered by these stamps.
+     */
     public static class SingleFileOutput implements Serializable {
         public final ConstraintAnalyzerContext context;
+        public final ConstraintAnalyzerContext.Stamp resultStamp;
+        public final ConstraintAnalyzerContext.@Nullable Stamp projectResultStamp;
         public final ConstraintAnalyzer.SingleFileResult result;
 
-        public SingleFileOutput(ConstraintAnalyzerContext context, ConstraintAnalyzer.SingleFileResult result) {
+        public SingleFileOutput(
+            ConstraintAnalyzerContext context,
+            ConstraintAnalyzerContext.Stamp resultStamp,
+            ConstraintAnalyzerContext.@Nullable Stamp projectResultStamp,
+            ConstraintAnalyzer.SingleFileResult result
+        ) {
             this.result = result;
             this.context = context;
+            this.resultStamp = resultStamp;
+            this.projectResultStamp = projectResultStamp;
         }
 
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final SingleFileOutput output = (SingleFileOutput)o;
-            return context.equals(output.context) && result.equals(output.result);
+            return resultStamp.equals(output.resultStamp) &&
+                Objects.equals(projectResultStamp, output.projectResultStamp) &&
+                result.resource.equals(output.result.resource) &&
+                result.messages.equals(output.result.messages);
         }
 
         @Override public int hashCode() {
-            return Objects.hash(context, result);
+            return Objects.hash(resultStamp, projectResultStamp, result.resource);
         }
 
         @Override public String toString() {
@@ -117,6 +209,33 @@ public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<Constrain
         }
     }
 
+    private @Nullable Path contextCacheDirectory = null;
+    private String contextCacheAnalysisVersion = "";
+    private @Nullable Logger contextCacheLogger = null;
+    /** The stamps of the contexts last written to the context cache directory, per root directory. */
+    private final ConcurrentHashMap<ResourcePath, ConstraintAnalyzerContext.Stamp> persistedContextStamps = new ConcurrentHashMap<>();
+    /** The contexts of the latest analysis of each root directory, which are written by {@link #persistContexts()}. */
+    private final ConcurrentHashMap<ResourcePath, ConstraintAnalyzerContext> pendingContexts = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the directory in which the constraint analyzer context of each root directory is persisted by
+     * {@link #persistContexts()}, such that it can be restored after a restart. Then, the first analysis after a
+     * restart only analyzes the files that changed since.
+     *
+     * Persisted contexts are only restored when they were written by the same version of the analysis, since their
+     * results are not valid for another specification. The caller must therefore pass a version that changes whenever
+     * the specification or analysis strategies of the language change, such as a hash of the language artifact.
+     *
+     * @param contextCacheDirectory the directory; or {@code null} to not persist contexts
+     * @param analysisVersion the version of the analysis, such as a hash of the specification
+     * @param loggerFactory the logger factory, used to report failures to read or write persisted contexts
+     */
+    public void withContextCacheDirectory(@Nullable Path contextCacheDirectory, String analysisVersion, LoggerFactory loggerFactory) {
+        this.contextCacheDirectory = contextCacheDirectory;
+        this.contextCacheAnalysisVersion = analysisVersion;
+        this.contextCacheLogger = loggerFactory.create(ConstraintAnalyzeMultiTaskDef.class);
+    }
+
     protected abstract ConstraintAnalyzer.MultiFileResult analyze(
         ExecContext context,
         ResourcePath root,
@@ -139,6 +258,9 @@ public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<Constrain
             final ConstraintAnalyzerContext constraintAnalyzerContext = getConstraintAnalyzerContext(context, input.root);
             final ConstraintAnalyzer.MultiFileResult result = analyze(context, input.root, MapView.of(asts), constraintAnalyzerContext);
             context.setInternalObject(constraintAnalyzerContext);
+            if(contextCacheDirectory != null) {
+                pendingContexts.put(input.root, constraintAnalyzerContext);
+            }
             return Result.ofOk(new Output(messagesBuilder.build(), constraintAnalyzerContext, result));
         } catch(ConstraintAnalyzerException e) {
             return Result.ofErr(e);
@@ -150,9 +272,85 @@ public abstract class ConstraintAnalyzeMultiTaskDef implements TaskDef<Constrain
         if(obj instanceof ConstraintAnalyzerContext) {
             return (ConstraintAnalyzerContext)obj;
         }
+        final @Nullable ConstraintAnalyzerContext persistedContext = readPersistedContext(rootDirectory);
+        if(persistedContext != null) {
+            return persistedContext;
+        }
         return new ConstraintAnalyzerContext(true, rootDirectory);
     }
 
+    private @Nullable Path getContextCacheFile(ResourcePath rootDirectory) {
+        final @Nullable Path directory = contextCacheDirectory;
+        if(directory == null) return null;
+        // The root directory is checked when reading the file, so hash collisions are harmless.
+        return directory.resolve(getId() + "-" + Integer.toHexString(rootDirectory.toString().hashCode()) + ".context");
+    }
+
+    private @Nullable ConstraintAnalyzerContext readPersistedContext(ResourcePath rootDirectory) {
+        final @Nullable Path file = getContextCacheFile(rootDirectory);
+        if(file == null || !Files.isRegularFile(file)) return null;
+        try(final InputStream inputStream = Files.newInputStream(file)) {
+            final @Nullable ConstraintAnalyzerContext context = ConstraintAnalyzerContextPersistence.read(inputStream, contextCacheAnalysisVersion, true, rootDirectory);
+            if(context != null) {
+                persistedContextStamps.put(rootDirectory, context.getStamp());
+            }
+            return context;
+        } catch(IOException e) {
+            // The persisted context is only a cache: analyze from scratch instead.
+            final @Nullable Logger logger = contextCacheLogger;
+            if(logger != null) {
+                logger.warn("Reading persisted constraint analyzer context from '" + file + "' failed; analyzing from scratch", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes the constraint analyzer context of the latest analysis of each root directory to the context cache
+     * directory, if its content changed since it was last written or read.
+     *
+     * Contexts are not written after each analysis, as a context is written entirely, which takes time proportional to
+     * the size of the project. Instead, hosts call this method when the analysis results must survive a restart, such
+     * as when closing a project or shutting down. Since the contexts are mutated by analyses, this method must not be
+     * called while this task definition is being executed, for example by calling it after closing the PIE session.
+     */
+    public void persistContexts() {
+        for(Map.Entry<ResourcePath, ConstraintAnalyzerContext> entry : pendingContexts.entrySet()) {
+            persistContext(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void persistContext(ResourcePath rootDirectory, ConstraintAnalyzerContext context) {
+        final @Nullable Path file = getContextCacheFile(rootDirectory);
+        if(file == null) return;
+        final ConstraintAnalyzerContext.Stamp stamp = context.getStamp();
+        if(stamp.equals(persistedContextStamps.get(rootDirectory))) return;
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first, such that a context is never partially read.
+            final Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try(final OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                    ConstraintAnalyzerContextPersistence.write(context, contextCacheAnalysisVersion, outputStream);
+                }
+                try {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch(AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            persistedContextStamps.put(rootDirectory, stamp);
+        } catch(IOException e) {
+            // The persisted context is only a cache: the next analysis after a restart analyzes from scratch.
+            final @Nullable Logger logger = contextCacheLogger;
+            if(logger != null) {
+                logger.warn("Writing persisted constraint analyzer context to '" + file + "' failed", e);
+            }
+        }
+    }
+
 
     public Supplier<Result<SingleFileOutput, ?>> createSingleFileOutputSupplier(Input input, ResourceKey resource) {
         return createSupplier(input).map(new SingleFileMapper(resource));
@@ -170,17 +368,9 @@ class SingleFileMapper implements SerializableFunction<Result<ConstraintAnalyzeM
     @Override
     public Result<ConstraintAnalyzeMultiTaskDef.SingleFileOutput, ?> apply(Result<ConstraintAnalyzeMultiTaskDef.Output, ?> outputResult) {
         return outputResult.flatMapOrElse(output -> {
-            final ConstraintAnalyzer.@Nullable Result result = output.result.getResult(resource);
-            if(result != null) {
-                final Messages messages = new Messages(output.result.messages.getMessagesOfKey(resource));
-                return Result.ofOk(new ConstraintAnalyzeMultiTaskDef.SingleFileOutput(output.context, new ConstraintAnalyzer.SingleFileResult(
-                    output.result.projectResult,
-                    result.resource,
-                    result.parsedAst,
-                    result.analyzedAst,
-                    result.analysis,
-                    messages
-                )));
+            final ConstraintAnalyzeMultiTaskDef.@Nullable SingleFileOutput singleFileOutput = output.getSingleFileOutput(resource);
+            if(singleFileOutput != null) {
+                return Result.ofOk(singleFileOutput);
             } else {
                 return Result.ofErr(new MissingResultException(resource));
             }
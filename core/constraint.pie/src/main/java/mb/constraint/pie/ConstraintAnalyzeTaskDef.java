@@ -40,24 +40,32 @@ public abstract class ConstraintAnalyzeTaskDef implements TaskDef<ConstraintAnal
         }
     }
 
+    /**
+     * Output of the single-file analysis. Compared by the {@link ConstraintAnalyzerContext.Stamp stamp} of the context
+     * when the output was created, as the result is taken from the context.
+     */
     public static class Output implements Serializable {
         public final ConstraintAnalyzerContext context;
+        public final ConstraintAnalyzerContext.Stamp contextStamp;
         public final SingleFileResult result;
 
         public Output(ConstraintAnalyzerContext context, SingleFileResult result) {
             this.result = result;
             this.context = context;
+            this.contextStamp = context.getStamp();
         }
 
         @Override public boolean equals(@Nullable Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final Output output = (Output)o;
-            return context.equals(output.context) && result.equals(output.result);
+            return contextStamp.equals(output.contextStamp) &&
+                result.resource.equals(output.result.resource) &&
+                result.messages.equals(output.result.messages);
         }
 
         @Override public int hashCode() {
-            return Objects.hash(context, result);
+            return Objects.hash(contextStamp, result.resource);
         }
 
         @Override public String toString() {
@@ -0,0 +1,50 @@
+plugins {
+  id("org.metaborg.gradle.config.java-application")
+}
+
+application {
+  mainClass.set("org.openjdk.jmh.Main")
+}
+
+dependencies {
+  implementation(platform(project(":spoofax.depconstraints")))
+  annotationProcessor(platform(project(":spoofax.depconstraints")))
+
+  implementation(project(":jsglr1.common"))
+  implementation("org.openjdk.jmh:jmh-core")
+
+  compileOnly("org.checkerframework:checker-qual-android")
+
+  annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess")
+}
+
+// Runs the benchmarks and writes the results as JSON to `build/reports/jmh/results.json`,
+// such that they can be tracked between releases.
+// Pass `-Pjmh.include=<regex>` to only run the matching benchmarks.
+// Pass `-Pjmh.parseTable=<file>` and `-Pjmh.input=<file>` to set the JSGLR1 parse table and the file to parse,
+// and `-Pjmh.threads=<n>` to set the number of threads that parse concurrently.
+val jmh by tasks.registering(JavaExec::class) {
+  group = "benchmark"
+  description = "Runs the JMH benchmarks."
+  val resultsFile = project.buildDir.resolve("reports/jmh/results.json")
+  classpath = sourceSets.main.get().runtimeClasspath
+  mainClass.set("org.openjdk.jmh.Main")
+  outputs.file(resultsFile)
+  outputs.upToDateWhen { false }
+  doFirst {
+    resultsFile.parentFile.mkdirs()
+  }
+  args("-rf", "json", "-rff", resultsFile.absolutePath)
+  if(project.hasProperty("jmh.parseTable")) {
+    args("-p", "parseTable=" + project.file(project.property("jmh.parseTable").toString()).absolutePath)
+  }
+  if(project.hasProperty("jmh.input")) {
+    args("-p", "input=" + project.file(project.property("jmh.input").toString()).absolutePath)
+  }
+  if(project.hasProperty("jmh.threads")) {
+    args("-t", project.property("jmh.threads").toString())
+  }
+  if(project.hasProperty("jmh.include")) {
+    args(project.property("jmh.include").toString())
+  }
+}
@@ -0,0 +1,167 @@
+package mb.jsglr.bench;
+
+import mb.common.message.KeyedMessages;
+import mb.common.text.FragmentedString;
+import mb.common.text.StringFragment;
+import mb.common.text.Text;
+import mb.common.util.ListView;
+import mb.jsglr.common.FragmentedOriginLocationFixer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.jsglr.client.imploder.IToken;
+import org.spoofax.jsglr.client.imploder.ITokens;
+import org.spoofax.jsglr.client.imploder.ImploderAttachment;
+import org.spoofax.jsglr.client.imploder.Token;
+import org.spoofax.jsglr.client.imploder.Tokenizer;
+import org.spoofax.terms.TermFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken by {@link FragmentedOriginLocationFixer#fixOriginLocations} to map the tokens and AST of a
+ * parsed SPT fragment back to the test suite it was taken from.
+ *
+ * The fragment is synthetic: its text is split into {@code pieceCount} pieces of equal length that are spread out over
+ * the test suite, and it is covered by {@code tokenCount} identifier tokens and an end-of-file token, each with an AST
+ * node. When {@code shuffled} is set, the tokens are not in order of their offsets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FragmentedOriginLocationFixerBenchmark {
+    private static final int TOKEN_LENGTH = 4;
+    private static final int GAP_BETWEEN_PIECES = 16;
+
+    @Param({"1", "10", "100"})
+    public int pieceCount;
+
+    @Param({"1000", "10000"})
+    public int tokenCount;
+
+    @Param({"false", "true"})
+    public boolean shuffled;
+
+    private Text text;
+    private IStrategoTerm ast;
+    private SyntheticTokens tokens;
+
+    @Setup
+    public void setup() {
+        final int tokensPerPiece = Math.max(tokenCount / pieceCount, 1);
+        final StringBuilder pieceText = new StringBuilder();
+        for (int i = 0; i < tokensPerPiece; ++i) {
+            pieceText.append("abc ");
+        }
+        final ArrayList<StringFragment> stringFragments = new ArrayList<>(pieceCount);
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < pieceCount; ++i) {
+            stringFragments.add(new StringFragment(i * (pieceText.length() + GAP_BETWEEN_PIECES), pieceText.toString()));
+            input.append(pieceText);
+        }
+        this.text = Text.fragmentedString(new FragmentedString(ListView.of(stringFragments)));
+
+        final TermFactory termFactory = new TermFactory();
+        this.tokens = new SyntheticTokens(input.toString());
+        final int count = tokensPerPiece * pieceCount;
+        final IStrategoTerm[] children = new IStrategoTerm[count];
+        @Nullable Token first = null;
+        for (int i = 0; i < count; ++i) {
+            final int startOffset = i * TOKEN_LENGTH;
+            final Token token = tokens.createToken(startOffset, startOffset + TOKEN_LENGTH - 1, IToken.Kind.TK_IDENTIFIER);
+            final IStrategoTerm child = termFactory.makeAppl(termFactory.makeConstructor("Id", 0));
+            attach(child, token, token);
+            children[i] = child;
+            if (first == null) first = token;
+        }
+        if (shuffled) {
+            Collections.shuffle(tokens.tokens, new Random(42));
+        }
+        final Token eof = tokens.createToken(input.length(), input.length() - 1, IToken.Kind.TK_EOF);
+        final IStrategoTerm root = termFactory.makeAppl(termFactory.makeConstructor("Root", count), children);
+        attach(root, first != null ? first : eof, eof);
+        this.ast = root;
+    }
+
+    @Benchmark
+    public FragmentedOriginLocationFixer.Result fixOriginLocations() {
+        return FragmentedOriginLocationFixer.fixOriginLocations(text, ast, tokens, KeyedMessages.of());
+    }
+
+    private static void attach(IStrategoTerm term, IToken leftToken, IToken rightToken) {
+        ImploderAttachment.putImploderAttachment(term, false, "Sort", leftToken, rightToken, false, false, false, false);
+        if (leftToken == rightToken) {
+            ((Token)leftToken).setAstNode(term);
+        }
+    }
+
+    private static final class SyntheticTokens implements ITokens {
+        private static final String FILENAME = "fragment.spt";
+
+        private final ArrayList<IToken> tokens = new ArrayList<>();
+        private final String input;
+
+        private SyntheticTokens(String input) {
+            this.input = input;
+        }
+
+        private Token createToken(int startOffset, int endOffset, IToken.Kind kind) {
+            final Token token = new Token(this, FILENAME, -1, -1, -1, startOffset, endOffset, kind);
+            tokens.add(token);
+            return token;
+        }
+
+        @Override public String getInput() {
+            return input;
+        }
+
+        @Override public int getTokenCount() {
+            return tokens.size();
+        }
+
+        @Override public @Nullable IToken getTokenAtOffset(int offset) {
+            for (IToken token : tokens) {
+                if (token.getStartOffset() == offset)
+                    return token;
+            }
+            return null;
+        }
+
+        @Override public String getFilename() {
+            return FILENAME;
+        }
+
+        @Override public String toString(IToken left, IToken right) {
+            return toString(left.getStartOffset(), right.getEndOffset());
+        }
+
+        @Override public String toString(int startOffset, int endOffset) {
+            return input.substring(startOffset, endOffset + 1);
+        }
+
+        @Override public Iterator<IToken> iterator() {
+            return new Tokenizer.FilteredTokenIterator(allTokens());
+        }
+
+        @Override public Iterable<IToken> allTokens() {
+            return Collections.unmodifiableList(tokens);
+        }
+    }
+}
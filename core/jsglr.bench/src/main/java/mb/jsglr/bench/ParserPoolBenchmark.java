@@ -0,0 +1,88 @@
+package mb.jsglr.bench;
+
+import mb.jsglr.common.JsglrParseException;
+import mb.jsglr.common.JsglrParseInput;
+import mb.jsglr.common.JsglrParseOutput;
+import mb.jsglr.common.ParserPool;
+import mb.jsglr1.common.JSGLR1ParseTable;
+import mb.jsglr1.common.JSGLR1ParseTableException;
+import mb.jsglr1.common.JSGLR1Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of concurrent JSGLR1 parses of the same file, with a {@link ParserPool} and with a new
+ * parser per parse.
+ *
+ * The parse table and the file to parse are passed as the {@code parseTable} and {@code input} parameters, for example
+ * the {@code sdf.tbl} file in the generated resources of a language and a file of that language. The number of threads
+ * that parse concurrently is set with the JMH {@code -t} option. The score is the number of parses per second, summed
+ * over all threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ParserPoolBenchmark {
+
+    @Param("")
+    public String parseTable;
+
+    @Param("")
+    public String input;
+
+    @Param("Start")
+    public String startSymbol;
+
+    private JSGLR1ParseTable table;
+    private String text;
+    private ParserPool<JSGLR1Parser> pool;
+
+    @Setup
+    public void setup() throws IOException, JSGLR1ParseTableException {
+        if (parseTable.isEmpty() || input.isEmpty()) {
+            throw new IllegalArgumentException("Set the 'parseTable' and 'input' parameters to the parse table and the file to parse.");
+        }
+        try (final InputStream stream = Files.newInputStream(Paths.get(parseTable))) {
+            this.table = JSGLR1ParseTable.fromStreamUncached(stream);
+        }
+        this.text = new String(Files.readAllBytes(Paths.get(input)), StandardCharsets.UTF_8);
+        this.pool = new ParserPool<>(() -> new JSGLR1Parser(table));
+    }
+
+    @Benchmark
+    public JsglrParseOutput pooled() throws JsglrParseException, InterruptedException {
+        final JSGLR1Parser parser = pool.acquire();
+        try {
+            return parser.parse(new JsglrParseInput(text, startSymbol));
+        } finally {
+            pool.release(parser);
+        }
+    }
+
+    @Benchmark
+    public JsglrParseOutput newParserPerParse() throws JsglrParseException, InterruptedException {
+        final JSGLR1Parser parser = new JSGLR1Parser(table);
+        return parser.parse(new JsglrParseInput(text, startSymbol));
+    }
+}
@@ -1,5 +1,6 @@
 plugins {
   id("org.metaborg.gradle.config.java-library")
+  id("org.metaborg.gradle.config.junit-testing")
 }
 
 dependencies {
@@ -16,4 +17,6 @@ dependencies {
   compileOnly("org.derive4j:derive4j-annotation")
 
   annotationProcessor("org.derive4j:derive4j")
+
+  testCompileOnly("org.checkerframework:checker-qual-android")
 }
@@ -0,0 +1,140 @@
+package mb.jsglr.common;
+
+import mb.common.region.Region;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoInt;
+import org.spoofax.interpreter.terms.IStrategoReal;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.io.Serializable;
+
+/**
+ * A 128-bit fingerprint of the structure and regions of an AST.
+ *
+ * The fingerprint covers the constructors, strings, and numbers of all terms in the AST and their annotations, and the
+ * source code region of each term. It hashes these values themselves instead of the 32-bit hash codes of the terms,
+ * which collide easily, such as for strings. Therefore, two ASTs with the same fingerprint are equal and have the same
+ * regions, with a probability of a collision that is negligible compared to other sources of failure, and comparing the
+ * fingerprints is sufficient to decide whether an AST changed.
+ */
+public final class AstFingerprint implements Serializable {
+    private static final long serialVersionUID = 1;
+
+    private static final long OFFSET_BASIS_HIGH = 0xcbf29ce484222325L;
+    private static final long OFFSET_BASIS_LOW = 0x84222325cbf29ce4L;
+    private static final long PRIME_HIGH = 0x100000001b3L;
+    private static final long PRIME_LOW = 0x9e3779b97f4a7c15L;
+
+    public final long high;
+    public final long low;
+
+
+    public AstFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+
+    /**
+     * Computes the fingerprint of given {@code ast}.
+     */
+    public static AstFingerprint compute(IStrategoTerm ast) {
+        final Hasher hasher = new Hasher();
+        hasher.term(ast);
+        return hasher.finish();
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final AstFingerprint that = (AstFingerprint)o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+
+    /**
+     * Hashes the values of an AST into two independent 64-bit lanes.
+     */
+    private static final class Hasher {
+        private long high = OFFSET_BASIS_HIGH;
+        private long low = OFFSET_BASIS_LOW;
+
+        void term(IStrategoTerm term) {
+            mix(term.getType().ordinal());
+            switch(term.getType()) {
+                case APPL:
+                    final IStrategoAppl appl = (IStrategoAppl)term;
+                    string(appl.getConstructor().getName());
+                    break;
+                case STRING:
+                    string(((IStrategoString)term).stringValue());
+                    break;
+                case INT:
+                    mix(((IStrategoInt)term).intValue());
+                    break;
+                case REAL:
+                    mix(Double.doubleToLongBits(((IStrategoReal)term).realValue()));
+                    break;
+                case LIST:
+                case TUPLE:
+                    break;
+                default:
+                    // Blobs and other terms only have a hash code.
+                    mix(term.hashCode());
+                    break;
+            }
+            final @Nullable Region region = TermTracer.getRegion(term);
+            if(region != null) {
+                mix(((long)region.getStartOffset() << 32) | (region.getEndOffset() & 0xffffffffL));
+            } else {
+                mix(-1L);
+            }
+            mix(term.getSubtermCount());
+            for(IStrategoTerm subterm : term) {
+                term(subterm);
+            }
+            final IStrategoTerm annotations = term.getAnnotations();
+            mix(annotations.getSubtermCount());
+            for(IStrategoTerm annotation : annotations) {
+                term(annotation);
+            }
+        }
+
+        private void string(String value) {
+            mix(value.length());
+            for(int i = 0; i < value.length(); ++i) {
+                mix(value.charAt(i));
+            }
+        }
+
+        private void mix(long value) {
+            high = (high ^ value) * PRIME_HIGH;
+            low = Long.rotateLeft(low ^ value, 29) * PRIME_LOW;
+        }
+
+        AstFingerprint finish() {
+            // Avalanche the bits, as the mixing steps only propagate bits upwards.
+            return new AstFingerprint(avalanche(high), avalanche(low ^ high));
+        }
+
+        private static long avalanche(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
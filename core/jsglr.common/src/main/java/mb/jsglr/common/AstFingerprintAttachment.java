@@ -0,0 +1,52 @@
+package mb.jsglr.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.attachments.AbstractTermAttachment;
+import org.spoofax.terms.attachments.TermAttachmentType;
+import org.spoofax.terms.attachments.VolatileTermAttachmentType;
+
+/**
+ * Attaches the {@link AstFingerprint fingerprint} of an AST to its root term, such that it only has to be computed
+ * once. Parsers attach the fingerprint to the ASTs they produce, after the regions of the terms are final.
+ */
+public class AstFingerprintAttachment extends AbstractTermAttachment {
+    private static final long serialVersionUID = 2;
+    public static final TermAttachmentType<AstFingerprintAttachment> TYPE =
+        new VolatileTermAttachmentType<>(AstFingerprintAttachment.class);
+
+    public final AstFingerprint fingerprint;
+
+
+    public AstFingerprintAttachment(AstFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+
+    /**
+     * Gets the fingerprint attached to given {@code ast}, or computes it if none is attached. Does not attach the
+     * computed fingerprint, as the AST may be owned by someone else.
+     */
+    public static AstFingerprint getOrCompute(IStrategoTerm ast) {
+        final @Nullable AstFingerprintAttachment attachment = ast.getAttachment(TYPE);
+        if(attachment != null) {
+            return attachment.fingerprint;
+        }
+        return AstFingerprint.compute(ast);
+    }
+
+    /**
+     * Computes the fingerprint of given {@code ast} and attaches it. Must be called again when the regions of the terms
+     * in the AST change.
+     */
+    public static AstFingerprint attach(IStrategoTerm ast) {
+        final AstFingerprint fingerprint = AstFingerprint.compute(ast);
+        ast.putAttachment(new AstFingerprintAttachment(fingerprint));
+        return fingerprint;
+    }
+
+
+    @Override public TermAttachmentType<AstFingerprintAttachment> getAttachmentType() {
+        return TYPE;
+    }
+}
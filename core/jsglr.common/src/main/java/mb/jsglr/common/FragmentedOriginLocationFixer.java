@@ -19,6 +19,7 @@ import org.spoofax.terms.visitor.AStrategoTermVisitor;
 import org.spoofax.terms.visitor.StrategoTermVisitee;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -42,42 +43,69 @@ public class FragmentedOriginLocationFixer {
             // Adjust the tokens for each piece of the fragment. This makes NO assumptions about the order of the
             // startOffsets of the token stream. It DOES assume that the pieces of text of the fragment are ordered based on
             // the correct order of text.
-            final LinkedHashMap<IToken, Integer> startOffsets = new LinkedHashMap<>(tokens.getTokenCount());
-            final LinkedHashMap<IToken, Integer> endOffsets = new LinkedHashMap<>(tokens.getTokenCount());
-            @Nullable IToken eof = null;
+            final ArrayList<IToken> allTokens = new ArrayList<>(tokens.getTokenCount());
+            for(IToken token : tokens.allTokens()) {
+                allTokens.add(token);
+            }
+            final int tokenCount = allTokens.size();
+
+            // The start offset of each piece in the parsed text, and the adjustment from the parsed text to the
+            // original text. The pieces are consecutive in the parsed text, so the start offsets are sorted.
+            int pieceCount = 0;
+            for(StringFragment ignored : fragmentedString.fragments) {
+                ++pieceCount;
+            }
+            final int[] pieceStartOffsets = new int[pieceCount + 1];
+            final int[] pieceAdjustments = new int[pieceCount];
             int currStartOffsetOfPiece = 0;
-            int currEndOffsetOfPiece = 0;
+            int piece = 0;
             for(StringFragment stringFragment : fragmentedString.fragments) {
-                int pieceLength = stringFragment.text.length();
-                currEndOffsetOfPiece = currStartOffsetOfPiece + pieceLength - 1;
-                int adjustment = stringFragment.startOffset - currStartOffsetOfPiece;
-                for(IToken token : tokens.allTokens()) {
-                    int startOffset = token.getStartOffset();
-                    if(startOffset >= currStartOffsetOfPiece && startOffset <= currEndOffsetOfPiece) {
-                        startOffsets.put(token, startOffset + adjustment);
-                        endOffsets.put(token, token.getEndOffset() + adjustment);
-                    }
+                pieceStartOffsets[piece] = currStartOffsetOfPiece;
+                pieceAdjustments[piece] = stringFragment.startOffset - currStartOffsetOfPiece;
+                currStartOffsetOfPiece += stringFragment.text.length();
+                ++piece;
+            }
+            pieceStartOffsets[pieceCount] = currStartOffsetOfPiece;
+
+            // Visit the tokens in order of their start offsets, in a single sweep over the tokens and pieces.
+            final int[] order = sortByStartOffset(allTokens);
+            final int[] adjustments = new int[tokenCount];
+            final boolean[] adjusted = new boolean[tokenCount];
+            boolean anyAdjusted = false;
+            piece = 0;
+            for(int i = 0; i < tokenCount; ++i) {
+                final int index = order[i];
+                final int startOffset = allTokens.get(index).getStartOffset();
+                while(piece < pieceCount && startOffset >= pieceStartOffsets[piece + 1]) {
+                    ++piece;
+                }
+                if(piece < pieceCount && startOffset >= pieceStartOffsets[piece]) {
+                    adjustments[index] = pieceAdjustments[piece];
+                    adjusted[index] = true;
+                    anyAdjusted = true;
+                }
+            }
+            @Nullable IToken eof = null;
+            if(pieceCount > 0) {
+                for(IToken token : allTokens) {
                     if(token.getKind() == IToken.Kind.TK_EOF) {
                         eof = token;
                     }
                 }
-                currStartOffsetOfPiece += pieceLength;
             }
 
             // Only post process tokens when there are tokens, and when there is an end-of-file token.
             final @Nullable MappingTokens newTokens;
-            if(!startOffsets.isEmpty() && eof != null) {
+            if(anyAdjusted && eof != null) {
                 newTokens = new MappingTokens(tokens);
-                for(IToken token : tokens.allTokens()) {
+                for(int i = 0; i < tokenCount; ++i) {
+                    final IToken token = allTokens.get(i);
                     if(token.getKind() == IToken.Kind.TK_EOF) {
                         int lastOffset = newTokens.tokens.get(newTokens.tokens.size() - 1).getEndOffset();
                         newTokens.addToken(lastOffset + 1, lastOffset, eof);
                     } else {
-                        newTokens.addToken(
-                            startOffsets.containsKey(token) ? startOffsets.get(token) : token.getStartOffset(),
-                            endOffsets.containsKey(token) ? endOffsets.get(token) : token.getEndOffset(),
-                            token
-                        );
+                        final int adjustment = adjusted[i] ? adjustments[i] : 0;
+                        newTokens.addToken(token.getStartOffset() + adjustment, token.getEndOffset() + adjustment, token);
                     }
                 }
                 newTokens.overwriteAttachments(ast);
@@ -115,6 +143,36 @@ public class FragmentedOriginLocationFixer {
         });
     }
 
+    /**
+     * Gets the indices of given tokens, sorted by the start offsets of the tokens. Tokens are usually already sorted, in
+     * which case this takes linear time.
+     */
+    private static int[] sortByStartOffset(ArrayList<IToken> tokens) {
+        final int count = tokens.size();
+        final int[] order = new int[count];
+        boolean sorted = true;
+        int previousStartOffset = Integer.MIN_VALUE;
+        for(int i = 0; i < count; ++i) {
+            order[i] = i;
+            final int startOffset = tokens.get(i).getStartOffset();
+            if(startOffset < previousStartOffset) {
+                sorted = false;
+            }
+            previousStartOffset = startOffset;
+        }
+        if(sorted) return order;
+        // Sort on the start offset in the upper bits and the index in the lower bits, without boxing.
+        final long[] keys = new long[count];
+        for(int i = 0; i < count; ++i) {
+            keys[i] = ((long)tokens.get(i).getStartOffset() << 32) | i;
+        }
+        Arrays.sort(keys);
+        for(int i = 0; i < count; ++i) {
+            order[i] = (int)keys[i];
+        }
+        return order;
+    }
+
     public static IToken getOriginalToken(IToken token) {
         if (token instanceof MappedToken) {
             return ((MappedToken)token).originalToken;
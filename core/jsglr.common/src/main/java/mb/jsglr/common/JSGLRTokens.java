@@ -1,35 +1,250 @@
 package mb.jsglr.common;
 
+import mb.common.region.Region;
 import mb.common.token.Token;
+import mb.common.token.TokenImpl;
+import mb.common.token.TokenType;
 import mb.common.token.Tokens;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.jsglr.client.imploder.IToken;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
-public class JSGLRTokens implements Tokens<IStrategoTerm>, Serializable {
-    public final ArrayList<? extends Token<IStrategoTerm>> tokens;
+/**
+ * The tokens of a parsed text, stored as arrays of their positions, types, and fragments.
+ *
+ * A {@link Token} object is only created when a token is accessed, through {@link #getToken}, {@link #iterator}, or
+ * {@link #getTokens}, which keeps parse outputs of large files small in memory and in the PIE store. Token types and
+ * fragments are stored once in a table, and referenced by index from each token.
+ */
+public class JSGLRTokens implements Tokens<IStrategoTerm>, Iterable<Token<IStrategoTerm>>, Serializable {
+    private static final int NO_FRAGMENT = -1;
 
-    public JSGLRTokens(ArrayList<? extends Token<IStrategoTerm>> tokens) {
-        this.tokens = tokens;
+    private final int count;
+    /** The start offset, end offset, start line, and end line of each token. */
+    private final int[] positions;
+    /** The index of the type of each token into {@link #types}. */
+    private final byte[] typeIndices;
+    private final TokenType[] types;
+    /** The index of the fragment of each token into {@link #fragments}; or {@link #NO_FRAGMENT}. */
+    private final int[] fragmentIndices;
+    private final IStrategoTerm[] fragments;
+    private transient @Nullable ArrayList<Token<IStrategoTerm>> tokens;
+
+    private JSGLRTokens(int count, int[] positions, byte[] typeIndices, TokenType[] types, int[] fragmentIndices, IStrategoTerm[] fragments) {
+        this.count = count;
+        this.positions = positions;
+        this.typeIndices = typeIndices;
+        this.types = types;
+        this.fragmentIndices = fragmentIndices;
+        this.fragments = fragments;
+    }
+
+    /** Gets the number of tokens. */
+    public int getTokenCount() {
+        return count;
+    }
+
+    /** Gets the type of the token at given index. */
+    public TokenType getType(int index) {
+        checkIndex(index);
+        return types[typeIndices[index] & 0xff];
+    }
+
+    /** Gets the start offset of the token at given index. */
+    public int getStartOffset(int index) {
+        checkIndex(index);
+        return positions[index * 4];
+    }
+
+    /** Gets the end offset of the token at given index, which is exclusive. */
+    public int getEndOffset(int index) {
+        checkIndex(index);
+        return positions[index * 4 + 1];
+    }
+
+    /** Gets the region of the token at given index. */
+    public Region getRegion(int index) {
+        checkIndex(index);
+        final int i = index * 4;
+        return Region.fromOffsets(positions[i], positions[i + 1], positions[i + 2], positions[i + 3]);
+    }
+
+    /** Gets the fragment of the token at given index. */
+    public @Nullable IStrategoTerm getFragment(int index) {
+        checkIndex(index);
+        final int fragmentIndex = fragmentIndices[index];
+        return fragmentIndex == NO_FRAGMENT ? null : fragments[fragmentIndex];
+    }
+
+    /** Creates the token at given index. */
+    public Token<IStrategoTerm> getToken(int index) {
+        return new TokenImpl<>(getType(index), getRegion(index), getFragment(index));
+    }
+
+    /**
+     * Iterates over the tokens, creating each token when it is visited.
+     */
+    @Override public Iterator<Token<IStrategoTerm>> iterator() {
+        return new Iterator<Token<IStrategoTerm>>() {
+            private int index = 0;
+
+            @Override public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override public Token<IStrategoTerm> next() {
+                if(index >= count) throw new NoSuchElementException();
+                return getToken(index++);
+            }
+        };
     }
 
+    /**
+     * Gets all tokens, creating them on the first call. Prefer {@link #iterator} or the indexed getters, which do not
+     * keep the tokens in memory.
+     */
     @Override public ArrayList<? extends Token<IStrategoTerm>> getTokens() {
+        @Nullable ArrayList<Token<IStrategoTerm>> tokens = this.tokens;
+        if(tokens == null) {
+            tokens = new ArrayList<>(count);
+            for(int i = 0; i < count; ++i) {
+                tokens.add(getToken(i));
+            }
+            this.tokens = tokens;
+        }
         return tokens;
     }
 
-    @Override public boolean equals(Object o) {
+    private void checkIndex(int index) {
+        if(index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Token index " + index + " is out of bounds for " + count + " tokens");
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
         if(this == o) return true;
         if(o == null || getClass() != o.getClass()) return false;
         final JSGLRTokens that = (JSGLRTokens)o;
-        return tokens.equals(that.tokens);
+        if(count != that.count) return false;
+        if(!Arrays.equals(positions, that.positions)) return false;
+        for(int i = 0; i < count; ++i) {
+            if(!getType(i).equals(that.getType(i))) return false;
+        }
+        for(int i = 0; i < count; ++i) {
+            if(!Objects.equals(getFragment(i), that.getFragment(i))) return false;
+        }
+        return true;
     }
 
     @Override public int hashCode() {
-        return tokens.hashCode();
+        int result = count;
+        result = 31 * result + Arrays.hashCode(positions);
+        for(int i = 0; i < count; ++i) {
+            result = 31 * result + getType(i).hashCode();
+        }
+        return result;
     }
 
     @Override public String toString() {
-        return "Tokens(" + tokens + ")";
+        return "Tokens(" + getTokens() + ")";
+    }
+
+
+    /**
+     * Builds {@link JSGLRTokens}.
+     */
+    public static class Builder {
+        private int count = 0;
+        private int[] positions;
+        private byte[] typeIndices;
+        private int[] fragmentIndices;
+        private final ArrayList<TokenType> types = new ArrayList<>();
+        private final ArrayList<IStrategoTerm> fragments = new ArrayList<>();
+        private final IdentityHashMap<IStrategoTerm, Integer> fragmentIndexMap = new IdentityHashMap<>();
+
+        public Builder(int expectedCount) {
+            final int capacity = Math.max(expectedCount, 16);
+            this.positions = new int[capacity * 4];
+            this.typeIndices = new byte[capacity];
+            this.fragmentIndices = new int[capacity];
+        }
+
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Adds a token.
+         *
+         * @param endOffset the end offset, which is exclusive
+         */
+        public Builder add(TokenType type, int startOffset, int endOffset, int startLine, int endLine, @Nullable IStrategoTerm fragment) {
+            if(count == typeIndices.length) {
+                final int capacity = typeIndices.length * 2;
+                positions = Arrays.copyOf(positions, capacity * 4);
+                typeIndices = Arrays.copyOf(typeIndices, capacity);
+                fragmentIndices = Arrays.copyOf(fragmentIndices, capacity);
+            }
+            final int i = count * 4;
+            positions[i] = startOffset;
+            positions[i + 1] = endOffset;
+            positions[i + 2] = startLine;
+            positions[i + 3] = endLine;
+            typeIndices[count] = typeIndex(type);
+            fragmentIndices[count] = fragmentIndex(fragment);
+            ++count;
+            return this;
+        }
+
+        /**
+         * Adds a JSGLR token, with the same region as {@link RegionUtil#fromToken}.
+         */
+        public Builder add(IToken token) {
+            final int startOffset = Math.max(token.getStartOffset(), 0);
+            final int endOffset = Math.max(token.getEndOffset() + 1, startOffset);
+            final int startLine = Math.max(token.getLine(), 0);
+            final int endLine = Math.max(token.getEndLine(), startLine);
+            return add(TokenUtil.convertTokenKind(token.getKind()), startOffset, endOffset, startLine, endLine, (IStrategoTerm)token.getAstNode());
+        }
+
+        public JSGLRTokens build() {
+            return new JSGLRTokens(
+                count,
+                Arrays.copyOf(positions, count * 4),
+                Arrays.copyOf(typeIndices, count),
+                types.toArray(new TokenType[0]),
+                Arrays.copyOf(fragmentIndices, count),
+                fragments.toArray(new IStrategoTerm[0])
+            );
+        }
+
+        private byte typeIndex(TokenType type) {
+            final int index = types.indexOf(type); // There are only a few token types.
+            if(index != -1) return (byte)index;
+            if(types.size() == 256) {
+                throw new IllegalStateException("Cannot add token type '" + type + "'; there are more than 256 token types");
+            }
+            types.add(type);
+            return (byte)(types.size() - 1);
+        }
+
+        private int fragmentIndex(@Nullable IStrategoTerm fragment) {
+            if(fragment == null) return NO_FRAGMENT;
+            final @Nullable Integer index = fragmentIndexMap.get(fragment);
+            if(index != null) return index;
+            fragments.add(fragment);
+            final int newIndex = fragments.size() - 1;
+            fragmentIndexMap.put(fragment, newIndex);
+            return newIndex;
+        }
     }
 }
@@ -0,0 +1,218 @@
+package mb.jsglr.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache of loaded parse tables, keyed on the content they are loaded from.
+ *
+ * Loading a parse table reads and processes its textual representation, which is slow for large tables. This cache
+ * ensures that a parse table with the same content is only loaded once, even when it is loaded by different languages,
+ * or again by a language that is reloaded. The parse tables are softly referenced, such that they are evicted when
+ * memory runs low and no language uses them anymore.
+ *
+ * @param <T> the type of parse tables
+ */
+public final class ParseTableCache<T> {
+    /**
+     * Loads a parse table from its content.
+     *
+     * @param <T> the type of parse tables
+     * @param <E> the type of exception thrown when loading fails
+     */
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load(byte[][] contents) throws E;
+    }
+
+    private final ConcurrentHashMap<Key, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> clearedEntries = new ReferenceQueue<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong loadTimeNanos = new AtomicLong();
+
+    /**
+     * Gets the cached parse table loaded from given content, or loads it and caches it.
+     *
+     * The parse table is loaded outside of any lock. When two threads load a parse table with the same content at
+     * the same time, both load it, and the parse table that was cached first is returned to both.
+     *
+     * @param loader   loads the parse table when it is not cached
+     * @param contents the content the parse table is loaded from, such as the bytes of its files
+     * @param <E>      the type of exception thrown when loading fails
+     * @return the parse table
+     * @throws E when loading fails
+     */
+    public <E extends Exception> T getOrLoad(Loader<T, E> loader, byte[]... contents) throws E {
+        removeClearedEntries();
+        final Key key = Key.of(contents);
+        final @Nullable Entry<T> entry = entries.get(key);
+        if(entry != null) {
+            final @Nullable T parseTable = entry.get();
+            if(parseTable != null) {
+                hitCount.incrementAndGet();
+                return parseTable;
+            }
+        }
+        missCount.incrementAndGet();
+        final long startTime = System.nanoTime();
+        final T parseTable = loader.load(contents);
+        loadTimeNanos.addAndGet(System.nanoTime() - startTime);
+        while(true) {
+            final @Nullable Entry<T> existingEntry = entries.putIfAbsent(key, new Entry<>(key, parseTable, clearedEntries));
+            if(existingEntry == null) return parseTable;
+            final @Nullable T existingParseTable = existingEntry.get();
+            if(existingParseTable != null) return existingParseTable;
+            // The existing parse table was evicted; replace its entry.
+            entries.remove(key, existingEntry);
+        }
+    }
+
+    /**
+     * Removes all parse tables from the cache. This does not reset the statistics.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    public Stats getStats() {
+        removeClearedEntries();
+        return new Stats(hitCount.get(), missCount.get(), evictionCount.get(), loadTimeNanos.get(), entries.size());
+    }
+
+    /**
+     * Reads all bytes from given input stream. Does not close the input stream.
+     *
+     * @param inputStream the input stream
+     * @return the bytes
+     * @throws IOException when reading fails
+     */
+    public static byte[] readAllBytes(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeClearedEntries() {
+        @Nullable Entry<T> entry;
+        while((entry = (Entry<T>)clearedEntries.poll()) != null) {
+            if(entries.remove(entry.key, entry)) {
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry<T> extends SoftReference<T> {
+        final Key key;
+
+        Entry(Key key, T parseTable, ReferenceQueue<? super T> queue) {
+            super(parseTable, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * The SHA-256 digest of the content of a parse table.
+     */
+    private static final class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        static Key of(byte[][] contents) {
+            final MessageDigest messageDigest;
+            try {
+                messageDigest = MessageDigest.getInstance("SHA-256");
+            } catch(NoSuchAlgorithmException e) {
+                throw new RuntimeException("BUG: SHA-256 is not supported, but every Java platform must support it", e);
+            }
+            for(byte[] content : contents) {
+                // Include the length, such that the boundaries between the contents are part of the digest.
+                final int length = content.length;
+                messageDigest.update(new byte[]{(byte)(length >>> 24), (byte)(length >>> 16), (byte)(length >>> 8), (byte)length});
+                messageDigest.update(content);
+            }
+            return new Key(messageDigest.digest());
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Key that = (Key)o;
+            return hashCode == that.hashCode && Arrays.equals(digest, that.digest);
+        }
+
+        @Override public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The statistics of a {@link ParseTableCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long loadTimeNanos;
+        private final long size;
+
+        /* package private */ Stats(long hitCount, long missCount, long evictionCount, long loadTimeNanos, long size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.loadTimeNanos = loadTimeNanos;
+            this.size = size;
+        }
+
+        /** Gets the number of parse tables that were found in the cache. */
+        public long getHitCount() { return hitCount; }
+
+        /** Gets the number of parse tables that were not found in the cache, and were loaded. */
+        public long getMissCount() { return missCount; }
+
+        /** Gets the number of parse tables that were evicted because they were only softly referenced. */
+        public long getEvictionCount() { return evictionCount; }
+
+        /** Gets the total time spent loading parse tables, in nanoseconds. */
+        public long getLoadTimeNanos() { return loadTimeNanos; }
+
+        /** Gets the number of parse tables in the cache. */
+        public long getSize() { return size; }
+
+        @Override public String toString() {
+            return "{" +
+                "hits: " + hitCount +
+                ", misses: " + missCount +
+                ", evictions: " + evictionCount +
+                ", load time: " + (loadTimeNanos / 1_000_000) + "ms" +
+                ", size: " + size +
+                " }";
+        }
+    }
+}
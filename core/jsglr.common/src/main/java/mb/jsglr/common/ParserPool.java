@@ -0,0 +1,145 @@
+package mb.jsglr.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe pool of parsers for a single parse table.
+ *
+ * Parsers hold mutable state, such as the internal state of the JSGLR1 {@code SGLR} parser, and cannot be used by
+ * multiple threads at the same time. Creating a parser per parse allocates that state again, including the term
+ * factories of the parser. This pool lends each thread an idle parser, which the thread returns after parsing, such
+ * that concurrent parses neither share a parser nor create one per parse.
+ *
+ * The pool never blocks: when no parser is idle, a new one is created. At most the maximum number of idle parsers are
+ * kept; parsers returned when the pool is full are discarded.
+ *
+ * @param <P> the type of parsers
+ */
+public final class ParserPool<P> {
+    /** The default maximum number of idle parsers. */
+    public static final int DEFAULT_MAXIMUM_IDLE = Runtime.getRuntime().availableProcessors();
+
+    private final Supplier<? extends P> factory;
+    private final int maximumIdle;
+    /** The idle parsers; the most recently returned parser is lent first. */
+    private final ConcurrentLinkedDeque<P> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong reuseCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+
+    /**
+     * Initializes a new instance of the {@link ParserPool} class.
+     *
+     * @param factory     creates a parser when no parser is idle
+     * @param maximumIdle the maximum number of idle parsers to keep
+     */
+    public ParserPool(Supplier<? extends P> factory, int maximumIdle) {
+        if(maximumIdle < 0) throw new IllegalArgumentException("'maximumIdle' must be greater than or equal to 0.");
+        this.factory = factory;
+        this.maximumIdle = maximumIdle;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ParserPool} class that keeps at most
+     * {@link #DEFAULT_MAXIMUM_IDLE one idle parser per processor}.
+     *
+     * @param factory creates a parser when no parser is idle
+     */
+    public ParserPool(Supplier<? extends P> factory) {
+        this(factory, DEFAULT_MAXIMUM_IDLE);
+    }
+
+    /**
+     * Takes an idle parser from the pool, or creates a new parser when no parser is idle. The parser must be returned
+     * with {@link #release} after parsing, or dropped when parsing failed unexpectedly.
+     *
+     * @return the parser, which is only used by the calling thread until it is returned
+     */
+    public P acquire() {
+        final @Nullable P parser = idle.pollFirst();
+        if(parser != null) {
+            idleCount.decrementAndGet();
+            reuseCount.incrementAndGet();
+            return parser;
+        }
+        createCount.incrementAndGet();
+        return factory.get();
+    }
+
+    /**
+     * Returns a parser that was taken with {@link #acquire} to the pool, such that it can be reused. Must only be
+     * called when the parser is in a consistent state, i.e., when its last parse completed.
+     *
+     * @param parser the parser
+     */
+    public void release(P parser) {
+        if(idleCount.incrementAndGet() > maximumIdle) {
+            idleCount.decrementAndGet();
+            discardCount.incrementAndGet();
+            return;
+        }
+        idle.offerFirst(parser);
+    }
+
+    /**
+     * Discards all idle parsers. This does not reset the statistics.
+     */
+    public void clear() {
+        while(idle.pollFirst() != null) {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the statistics of the pool.
+     *
+     * @return the statistics
+     */
+    public Stats getStats() {
+        return new Stats(createCount.get(), reuseCount.get(), discardCount.get(), Math.max(0, idleCount.get()));
+    }
+
+    /**
+     * The statistics of a {@link ParserPool}.
+     */
+    public static final class Stats {
+        private final long createCount;
+        private final long reuseCount;
+        private final long discardCount;
+        private final long idleCount;
+
+        /* package private */ Stats(long createCount, long reuseCount, long discardCount, long idleCount) {
+            this.createCount = createCount;
+            this.reuseCount = reuseCount;
+            this.discardCount = discardCount;
+            this.idleCount = idleCount;
+        }
+
+        /** Gets the number of parsers that were created because no parser was idle. */
+        public long getCreateCount() { return createCount; }
+
+        /** Gets the number of times an idle parser was reused. */
+        public long getReuseCount() { return reuseCount; }
+
+        /** Gets the number of returned parsers that were discarded because the pool was full. */
+        public long getDiscardCount() { return discardCount; }
+
+        /** Gets the number of idle parsers in the pool. */
+        public long getIdleCount() { return idleCount; }
+
+        @Override public String toString() {
+            return "{" +
+                "creates: " + createCount +
+                ", reuses: " + reuseCount +
+                ", discards: " + discardCount +
+                ", idle: " + idleCount +
+                " }";
+        }
+    }
+}
@@ -9,11 +9,9 @@ import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.jsglr.client.imploder.IToken;
 import org.spoofax.jsglr.client.imploder.ITokens;
 
-import java.util.ArrayList;
-
 public class TokenUtil {
     public static JSGLRTokens extract(ITokens tokens, boolean ambiguous) {
-        final ArrayList<Token<IStrategoTerm>> tokenStream = new ArrayList<>(tokens.getTokenCount());
+        final JSGLRTokens.Builder builder = new JSGLRTokens.Builder(tokens.getTokenCount());
         int offset = -1;
         for(IToken jsglrToken : tokens) {
             if(ambiguous && jsglrToken.getStartOffset() < offset) {
@@ -29,10 +27,9 @@ public class TokenUtil {
                 continue;
             }
             offset = jsglrToken.getEndOffset();
-            final Token<IStrategoTerm> token = convertToken(jsglrToken);
-            tokenStream.add(token);
+            builder.add(jsglrToken);
         }
-        return new JSGLRTokens(tokenStream);
+        return builder.build();
     }
 
     public static Token<IStrategoTerm> convertToken(IToken token) {
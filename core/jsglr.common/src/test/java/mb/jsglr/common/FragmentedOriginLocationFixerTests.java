@@ -0,0 +1,313 @@
+package mb.jsglr.common;
+
+import mb.common.message.KeyedMessages;
+import mb.common.text.FragmentedString;
+import mb.common.text.StringFragment;
+import mb.common.text.Text;
+import mb.common.util.ListView;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.jsglr.client.imploder.IToken;
+import org.spoofax.jsglr.client.imploder.ITokens;
+import org.spoofax.jsglr.client.imploder.ImploderAttachment;
+import org.spoofax.jsglr.client.imploder.Token;
+import org.spoofax.jsglr.client.imploder.Tokenizer;
+import org.spoofax.terms.TermFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests that {@link FragmentedOriginLocationFixer} maps the offsets of tokens and the regions of AST nodes in the same
+ * way as the algorithm it replaced, which visited all tokens for each piece of the fragment.
+ */
+public final class FragmentedOriginLocationFixerTests {
+
+    private static final int GAP_BETWEEN_PIECES = 7;
+
+    @Test
+    public void shouldMapLikePreviousAlgorithm_whenTokensAreInOrder() {
+        // Arrange
+        final Fixture fixture = new Fixture(Arrays.asList("abc de f", "gh ijk", "l mn"), false, true);
+
+        // Act/Assert
+        assertSameAsPreviousAlgorithm(fixture);
+    }
+
+    @Test
+    public void shouldMapLikePreviousAlgorithm_whenTokensAreShuffled() {
+        // Arrange
+        final Fixture fixture = new Fixture(Arrays.asList("abc de f", "gh ijk", "l mn", "op q"), true, true);
+
+        // Act/Assert
+        assertSameAsPreviousAlgorithm(fixture);
+    }
+
+    @Test
+    public void shouldMapLikePreviousAlgorithm_whenPiecesAreEmpty() {
+        // Arrange
+        final List<String> pieces = Arrays.asList("", "abc de", "", "", "f gh", "");
+        final Fixture inOrder = new Fixture(pieces, false, true);
+        final Fixture shuffled = new Fixture(pieces, true, true);
+
+        // Act/Assert
+        assertSameAsPreviousAlgorithm(inOrder);
+        assertSameAsPreviousAlgorithm(shuffled);
+    }
+
+    @Test
+    public void shouldMapLikePreviousAlgorithm_whenTokensEndAtPieceBoundaries() {
+        // Arrange
+        final Fixture fixture = new Fixture(Arrays.asList("abc", "de", "f", "gh"), false, true);
+
+        // Act/Assert
+        assertSameAsPreviousAlgorithm(fixture);
+    }
+
+    @Test
+    public void shouldMapLikePreviousAlgorithm_whenThereIsOnePiece() {
+        // Arrange
+        final Fixture fixture = new Fixture(Collections.singletonList("abc de f"), false, true);
+
+        // Act/Assert
+        assertSameAsPreviousAlgorithm(fixture);
+    }
+
+    @Test
+    public void shouldReturnOriginalTokens_whenThereIsNoEofToken() {
+        // Arrange
+        final Fixture fixture = new Fixture(Arrays.asList("abc de f", "gh ijk"), false, false);
+
+        // Act
+        final @Nullable LinkedHashMap<IToken, int[]> expectedOffsets = previousTokenOffsets(fixture.fragmentedString, fixture.tokens);
+        final FragmentedOriginLocationFixer.Result result = fix(fixture);
+
+        // Assert
+        assertNull(expectedOffsets);
+        assertSame(fixture.tokens, result.tokens);
+    }
+
+    private static FragmentedOriginLocationFixer.Result fix(Fixture fixture) {
+        return FragmentedOriginLocationFixer.fixOriginLocations(
+            Text.fragmentedString(fixture.fragmentedString), fixture.ast, fixture.tokens, KeyedMessages.of()
+        );
+    }
+
+    private static void assertSameAsPreviousAlgorithm(Fixture fixture) {
+        final List<IToken> originalTokens = new ArrayList<>();
+        for(IToken token : fixture.tokens.allTokens()) {
+            originalTokens.add(token);
+        }
+        // Record the original tokens of each AST node before the fixer overwrites its attachment.
+        final LinkedHashMap<IStrategoTerm, IToken[]> originalAttachments = new LinkedHashMap<>();
+        for(IStrategoTerm term : fixture.terms) {
+            final ImploderAttachment attachment = ImploderAttachment.get(term);
+            originalAttachments.put(term, new IToken[]{attachment.getLeftToken(), attachment.getRightToken()});
+        }
+        final @Nullable LinkedHashMap<IToken, int[]> expectedOffsets = previousTokenOffsets(fixture.fragmentedString, fixture.tokens);
+        assertNotNull(expectedOffsets);
+
+        final FragmentedOriginLocationFixer.Result result = fix(fixture);
+
+        // Token offsets, in the order of the original token stream.
+        final List<IToken> newTokens = new ArrayList<>();
+        for(IToken token : result.tokens.allTokens()) {
+            newTokens.add(token);
+        }
+        assertEquals(originalTokens.size(), newTokens.size());
+        for(int i = 0; i < originalTokens.size(); ++i) {
+            final IToken originalToken = originalTokens.get(i);
+            final IToken newToken = newTokens.get(i);
+            final int[] expected = expectedOffsets.get(originalToken);
+            assertSame(originalToken, FragmentedOriginLocationFixer.getOriginalToken(newToken));
+            assertEquals(expected[0], newToken.getStartOffset(), "Start offset of token " + i);
+            assertEquals(expected[1], newToken.getEndOffset(), "End offset of token " + i);
+        }
+        // AST regions.
+        for(IStrategoTerm term : fixture.terms) {
+            final IToken[] original = originalAttachments.get(term);
+            final ImploderAttachment attachment = ImploderAttachment.get(term);
+            assertEquals(expectedOffsets.get(original[0])[0], attachment.getLeftToken().getStartOffset(), "Start offset of " + term);
+            assertEquals(expectedOffsets.get(original[1])[1], attachment.getRightToken().getEndOffset(), "End offset of " + term);
+        }
+    }
+
+    /**
+     * Computes the offsets of the tokens as the algorithm that {@link FragmentedOriginLocationFixer} used before, which
+     * visited all tokens for each piece of the fragment.
+     *
+     * @return the new start and end offset of each token; or {@code null} if the tokens are not replaced
+     */
+    private static @Nullable LinkedHashMap<IToken, int[]> previousTokenOffsets(FragmentedString fragmentedString, ITokens tokens) {
+        final LinkedHashMap<IToken, Integer> startOffsets = new LinkedHashMap<>(tokens.getTokenCount());
+        final LinkedHashMap<IToken, Integer> endOffsets = new LinkedHashMap<>(tokens.getTokenCount());
+        @Nullable IToken eof = null;
+        int currStartOffsetOfPiece = 0;
+        int currEndOffsetOfPiece;
+        for(StringFragment stringFragment : fragmentedString.fragments) {
+            int pieceLength = stringFragment.text.length();
+            currEndOffsetOfPiece = currStartOffsetOfPiece + pieceLength - 1;
+            int adjustment = stringFragment.startOffset - currStartOffsetOfPiece;
+            for(IToken token : tokens.allTokens()) {
+                int startOffset = token.getStartOffset();
+                if(startOffset >= currStartOffsetOfPiece && startOffset <= currEndOffsetOfPiece) {
+                    startOffsets.put(token, startOffset + adjustment);
+                    endOffsets.put(token, token.getEndOffset() + adjustment);
+                }
+                if(token.getKind() == IToken.Kind.TK_EOF) {
+                    eof = token;
+                }
+            }
+            currStartOffsetOfPiece += pieceLength;
+        }
+        if(startOffsets.isEmpty() || eof == null) return null;
+        final LinkedHashMap<IToken, int[]> offsets = new LinkedHashMap<>();
+        int lastEndOffset = -1;
+        for(IToken token : tokens.allTokens()) {
+            final int[] tokenOffsets;
+            if(token.getKind() == IToken.Kind.TK_EOF) {
+                tokenOffsets = new int[]{lastEndOffset + 1, lastEndOffset};
+            } else {
+                tokenOffsets = new int[]{
+                    startOffsets.containsKey(token) ? startOffsets.get(token) : token.getStartOffset(),
+                    endOffsets.containsKey(token) ? endOffsets.get(token) : token.getEndOffset()
+                };
+            }
+            offsets.put(token, tokenOffsets);
+            lastEndOffset = tokenOffsets[1];
+        }
+        return offsets;
+    }
+
+
+    /**
+     * A fragment of which each word is an identifier token with an AST node, and an optional end-of-file token. The
+     * pieces of the fragment are spread out over the original text.
+     */
+    private static final class Fixture {
+        final FragmentedString fragmentedString;
+        final TestTokens tokens;
+        final IStrategoTerm ast;
+        final List<IStrategoTerm> terms = new ArrayList<>();
+
+        Fixture(List<String> pieces, boolean shuffled, boolean withEof) {
+            final ArrayList<StringFragment> stringFragments = new ArrayList<>(pieces.size());
+            final StringBuilder input = new StringBuilder();
+            int originalOffset = 0;
+            for(String piece : pieces) {
+                stringFragments.add(new StringFragment(originalOffset, piece));
+                input.append(piece);
+                originalOffset += piece.length() + GAP_BETWEEN_PIECES;
+            }
+            this.fragmentedString = new FragmentedString(ListView.of(stringFragments));
+
+            final TermFactory termFactory = new TermFactory();
+            this.tokens = new TestTokens(input.toString());
+            final ArrayList<IStrategoTerm> children = new ArrayList<>();
+            @Nullable Token first = null;
+            @Nullable Token last = null;
+            int offset = 0;
+            while(offset < input.length()) {
+                if(input.charAt(offset) == ' ') {
+                    ++offset;
+                    continue;
+                }
+                int endOffset = offset;
+                while(endOffset + 1 < input.length() && input.charAt(endOffset + 1) != ' ') {
+                    ++endOffset;
+                }
+                final Token token = tokens.createToken(offset, endOffset, IToken.Kind.TK_IDENTIFIER);
+                final IStrategoTerm child = termFactory.makeAppl(termFactory.makeConstructor("Id", 0));
+                attach(child, token, token);
+                children.add(child);
+                terms.add(child);
+                if(first == null) first = token;
+                last = token;
+                offset = endOffset + 1;
+            }
+            if(shuffled) {
+                Collections.shuffle(tokens.tokens, new Random(42));
+            }
+            final @Nullable Token eof = withEof ? tokens.createToken(input.length(), input.length() - 1, IToken.Kind.TK_EOF) : null;
+            final IStrategoTerm root = termFactory.makeAppl(termFactory.makeConstructor("Root", children.size()), children.toArray(new IStrategoTerm[0]));
+            if(first != null && last != null) {
+                attach(root, first, last);
+                terms.add(root);
+            } else if(eof != null) {
+                attach(root, eof, eof);
+            }
+            this.ast = root;
+        }
+
+        private static void attach(IStrategoTerm term, IToken leftToken, IToken rightToken) {
+            ImploderAttachment.putImploderAttachment(term, false, "Sort", leftToken, rightToken, false, false, false, false);
+            if(leftToken == rightToken) {
+                ((Token)leftToken).setAstNode(term);
+            }
+        }
+    }
+
+    private static final class TestTokens implements ITokens {
+        private static final String FILENAME = "fragment.spt";
+
+        private final ArrayList<IToken> tokens = new ArrayList<>();
+        private final String input;
+
+        private TestTokens(String input) {
+            this.input = input;
+        }
+
+        private Token createToken(int startOffset, int endOffset, IToken.Kind kind) {
+            final Token token = new Token(this, FILENAME, -1, -1, -1, startOffset, endOffset, kind);
+            tokens.add(token);
+            return token;
+        }
+
+        @Override public String getInput() {
+            return input;
+        }
+
+        @Override public int getTokenCount() {
+            return tokens.size();
+        }
+
+        @Override public @Nullable IToken getTokenAtOffset(int offset) {
+            for(IToken token : tokens) {
+                if(token.getStartOffset() == offset)
+                    return token;
+            }
+            return null;
+        }
+
+        @Override public String getFilename() {
+            return FILENAME;
+        }
+
+        @Override public String toString(IToken left, IToken right) {
+            return toString(left.getStartOffset(), right.getEndOffset());
+        }
+
+        @Override public String toString(int startOffset, int endOffset) {
+            return input.substring(startOffset, endOffset + 1);
+        }
+
+        @Override public Iterator<IToken> iterator() {
+            return new Tokenizer.FilteredTokenIterator(allTokens());
+        }
+
+        @Override public Iterable<IToken> allTokens() {
+            return Collections.unmodifiableList(tokens);
+        }
+    }
+}
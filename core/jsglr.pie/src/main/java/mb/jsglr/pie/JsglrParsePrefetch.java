@@ -0,0 +1,25 @@
+package mb.jsglr.pie;
+
+/**
+ * The parses that were started by a single call of {@link JsglrParseTaskDef#prefetch}. Closing it discards the
+ * prefetched results of that call that were not taken by a parse task, and cancels its parses that were not started,
+ * without affecting the parses of other calls.
+ */
+public final class JsglrParsePrefetch implements AutoCloseable {
+    /** A prefetch without any parses. */
+    static final JsglrParsePrefetch none = new JsglrParsePrefetch(() -> {});
+
+    private final Runnable discard;
+
+    JsglrParsePrefetch(Runnable discard) {
+        this.discard = discard;
+    }
+
+    /**
+     * Discards the prefetched results that were not taken by a parse task, and cancels the parses that were not
+     * started.
+     */
+    @Override public void close() {
+        discard.run();
+    }
+}
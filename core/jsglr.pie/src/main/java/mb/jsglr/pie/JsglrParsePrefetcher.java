@@ -0,0 +1,181 @@
+package mb.jsglr.pie;
+
+import mb.common.result.Result;
+import mb.common.text.Text;
+import mb.jsglr.common.JsglrParseException;
+import mb.jsglr.common.JsglrParseOutput;
+import mb.pie.api.ExecContext;
+import mb.resource.ReadableResource;
+import mb.resource.ResourceKey;
+import mb.resource.hierarchical.ResourcePath;
+import mb.spoofax.core.resource.TextResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parses files in parallel ahead of their parse tasks, such that the parse tasks take the prefetched result instead
+ * of parsing when they are executed.
+ *
+ * PIE executes the tasks required by a task one at a time, so the parse tasks themselves cannot run concurrently.
+ * Instead, the files are read and parsed on an executor without an execution context, and each parse task still
+ * reads its own text, recording its dependencies as usual. A prefetched result is only taken when it was parsed from
+ * the same text, start symbol, and root directory hint, so the output of a parse task does not depend on whether its
+ * result was prefetched. When a parse task is executed before its file was picked up by a worker, the parse task
+ * parses the file itself.
+ *
+ * The entries of each call of {@link #prefetch} are discarded separately, such that concurrent prefetches for
+ * different projects do not discard each other's entries.
+ */
+final class JsglrParsePrefetcher {
+    private final JsglrParseTaskDef parse;
+    private final ConcurrentHashMap<ResourceKey, Entry> entries = new ConcurrentHashMap<>();
+    /** The hash codes of the texts the files were last parsed from, to skip files that did not change. */
+    private final ConcurrentHashMap<ResourceKey, Integer> lastParsedTextHashCodes = new ConcurrentHashMap<>();
+
+    JsglrParsePrefetcher(JsglrParseTaskDef parse) {
+        this.parse = parse;
+    }
+
+    JsglrParsePrefetch prefetch(
+        ExecContext context,
+        Iterable<? extends ResourceKey> files,
+        @Nullable String startSymbol,
+        @Nullable ResourcePath rootDirectoryHint,
+        Executor executor,
+        int workerCount
+    ) {
+        final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+        final ArrayList<Entry> batch = new ArrayList<>();
+        for(ResourceKey file : files) {
+            // Gets the resource without recording a dependency; the parse task records its own dependency.
+            final Entry entry = new Entry(file, context.getReadableResource(file), startSymbol, rootDirectoryHint);
+            final @Nullable Entry previous = entries.put(file, entry);
+            if(previous != null) {
+                previous.claimed.set(true);
+            }
+            queue.add(entry);
+            batch.add(entry);
+        }
+        if(batch.isEmpty()) return JsglrParsePrefetch.none;
+        final int workers = Math.min(workerCount, batch.size());
+        try {
+            for(int i = 0; i < workers; ++i) {
+                executor.execute(() -> work(queue));
+            }
+        } catch(RejectedExecutionException e) {
+            // Entries that are not picked up by a worker are parsed by their parse task.
+        }
+        return new JsglrParsePrefetch(() -> discard(batch));
+    }
+
+    @Nullable Result<JsglrParseOutput, JsglrParseException> take(
+        Text text,
+        @Nullable String startSymbol,
+        ResourceKey fileHint,
+        @Nullable ResourcePath rootDirectoryHint
+    ) throws InterruptedException {
+        final @Nullable Entry entry = entries.remove(fileHint);
+        if(entry == null) return null;
+        if(entry.claimed.compareAndSet(false, true)) {
+            // Not picked up by a worker yet; parsing on the calling thread is faster than waiting.
+            return null;
+        }
+        if(!Objects.equals(entry.startSymbol, startSymbol) || !Objects.equals(entry.rootDirectoryHint, rootDirectoryHint)) {
+            return null;
+        }
+        final @Nullable Parsed parsed;
+        try {
+            parsed = entry.parsed.get();
+        } catch(ExecutionException e) {
+            return null;
+        }
+        if(parsed == null || !parsed.text.equals(text.toString())) return null;
+        return parsed.result;
+    }
+
+    void recordParsed(ResourceKey file, Text text) {
+        lastParsedTextHashCodes.put(file, text.toString().hashCode());
+    }
+
+    private void discard(Iterable<Entry> batch) {
+        for(Entry entry : batch) {
+            entry.claimed.set(true);
+            // Only removes the entry when it was not replaced by a later prefetch of the same file.
+            entries.remove(entry.file, entry);
+        }
+    }
+
+
+    private void work(ConcurrentLinkedQueue<Entry> queue) {
+        @Nullable Entry entry;
+        while((entry = queue.poll()) != null) {
+            if(!entry.claimed.compareAndSet(false, true)) continue;
+            try {
+                final Text text = read(entry.resource);
+                final @Nullable Integer lastParsedTextHashCode = lastParsedTextHashCodes.get(entry.file);
+                if(lastParsedTextHashCode != null && lastParsedTextHashCode == text.toString().hashCode()) {
+                    // Parsed from the same text before, so the parse task is most likely up-to-date.
+                    entry.parsed.complete(null);
+                    continue;
+                }
+                final Result<JsglrParseOutput, JsglrParseException> result =
+                    parse.parseWithoutContext(text, entry.startSymbol, entry.file, entry.rootDirectoryHint);
+                entry.parsed.complete(new Parsed(text.toString(), result));
+            } catch(InterruptedException e) {
+                entry.parsed.complete(null);
+                Thread.currentThread().interrupt();
+                return;
+            } catch(IOException | RuntimeException e) {
+                // The parse task reads and parses the file itself, and reports the failure.
+                entry.parsed.complete(null);
+            }
+        }
+    }
+
+    private static Text read(ReadableResource resource) throws IOException {
+        if(resource instanceof TextResource) {
+            return ((TextResource)resource).getText();
+        }
+        return Text.string(resource.readString(StandardCharsets.UTF_8));
+    }
+
+
+    private static final class Entry {
+        final ResourceKey file;
+        final ReadableResource resource;
+        final @Nullable String startSymbol;
+        final @Nullable ResourcePath rootDirectoryHint;
+        /** Whether a worker or the parse task claimed this entry; only the claimer parses the file. */
+        final AtomicBoolean claimed = new AtomicBoolean();
+        /** The result of the worker; or {@code null} when the worker did not parse the file. */
+        final CompletableFuture<@Nullable Parsed> parsed = new CompletableFuture<>();
+
+        Entry(ResourceKey file, ReadableResource resource, @Nullable String startSymbol, @Nullable ResourcePath rootDirectoryHint) {
+            this.file = file;
+            this.resource = resource;
+            this.startSymbol = startSymbol;
+            this.rootDirectoryHint = rootDirectoryHint;
+        }
+    }
+
+    private static final class Parsed {
+        final String text;
+        final Result<JsglrParseOutput, JsglrParseException> result;
+
+        Parsed(String text, Result<JsglrParseOutput, JsglrParseException> result) {
+            this.text = text;
+            this.result = result;
+        }
+    }
+}
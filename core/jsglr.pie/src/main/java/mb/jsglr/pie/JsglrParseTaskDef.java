@@ -18,6 +18,7 @@ import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
 
 public abstract class JsglrParseTaskDef implements TaskDef<JsglrParseTaskInput, Result<JsglrParseOutput, JsglrParseException>> {
     public JsglrParseTaskInput.Builder inputBuilder() {
@@ -84,6 +85,11 @@ public abstract class JsglrParseTaskDef implements TaskDef<JsglrParseTaskInput,
     private final Function<JsglrParseTaskInput, Messages> messagesFunction = createFunction().mapOutput(MessagesFunction.instance);
 
 
+    private final JsglrParsePrefetcher prefetcher = new JsglrParsePrefetcher(this);
+    private @Nullable Executor bulkParseExecutor = null;
+    private int bulkParseWorkerCount = 1;
+
+
     protected abstract Result<JsglrParseOutput, JsglrParseException> parse(
         ExecContext context,
         Text text,
@@ -92,6 +98,81 @@ public abstract class JsglrParseTaskDef implements TaskDef<JsglrParseTaskInput,
         @Nullable ResourcePath rootDirectoryHint
     ) throws IOException, InterruptedException;
 
+    /**
+     * Parses given text without an execution context, which is required to {@link #prefetch prefetch} parses. Must be
+     * thread-safe, and must produce the same result as {@link #parse} for the same arguments, apart from the
+     * dependencies that {@link #parse} records.
+     */
+    protected abstract Result<JsglrParseOutput, JsglrParseException> parseWithoutContext(
+        Text text,
+        @Nullable String startSymbol,
+        @Nullable ResourceKey fileHint,
+        @Nullable ResourcePath rootDirectoryHint
+    ) throws InterruptedException;
+
+    /**
+     * Takes the prefetched result of parsing given text, or parses it with {@link #parseWithoutContext} when it was not
+     * prefetched. Call this from {@link #parse} after recording its dependencies.
+     */
+    protected final Result<JsglrParseOutput, JsglrParseException> parsePrefetchedOrParse(
+        Text text,
+        @Nullable String startSymbol,
+        @Nullable ResourceKey fileHint,
+        @Nullable ResourcePath rootDirectoryHint
+    ) throws InterruptedException {
+        if(fileHint == null) {
+            return parseWithoutContext(text, startSymbol, null, rootDirectoryHint);
+        }
+        @Nullable Result<JsglrParseOutput, JsglrParseException> result = prefetcher.take(text, startSymbol, fileHint, rootDirectoryHint);
+        if(result == null) {
+            result = parseWithoutContext(text, startSymbol, fileHint, rootDirectoryHint);
+        }
+        prefetcher.recordParsed(fileHint, text);
+        return result;
+    }
+
+
+    /**
+     * Sets the executor on which {@link #prefetch} parses files in parallel.
+     *
+     * @param bulkParseExecutor the executor, usually a {@link java.util.concurrent.ForkJoinPool}; or {@code null} to
+     *                          not prefetch parses, such that the parse tasks parse their files sequentially
+     * @param workerCount       the maximum number of files that are parsed concurrently on the executor
+     */
+    public void withBulkParseExecutor(@Nullable Executor bulkParseExecutor, int workerCount) {
+        if(workerCount < 1) throw new IllegalArgumentException("'workerCount' must be greater than or equal to 1.");
+        this.bulkParseExecutor = bulkParseExecutor;
+        this.bulkParseWorkerCount = workerCount;
+    }
+
+    /**
+     * Starts parsing given files in parallel on the {@link #withBulkParseExecutor bulk parse executor}, ahead of
+     * requiring their parse tasks one at a time. A parse task that is executed afterwards takes the prefetched result
+     * when it was parsed from the same text, instead of parsing its file. Files that were last parsed from the same
+     * text are skipped, as their parse tasks are most likely up-to-date. Does nothing when no bulk parse executor is
+     * set.
+     *
+     * Close the returned prefetch after requiring the parse tasks, to release the results that were not taken. This
+     * only releases the results of this call, not those of concurrent calls for other files.
+     *
+     * @param context           the execution context of the task that requires the parse tasks; no dependencies are
+     *                          recorded on it
+     * @param files             the files to parse, read as UTF-8
+     * @param startSymbol       the start symbol the parse tasks will be required with
+     * @param rootDirectoryHint the root directory hint the parse tasks will be required with
+     * @return the prefetch, which must be closed after requiring the parse tasks
+     */
+    public JsglrParsePrefetch prefetch(
+        ExecContext context,
+        Iterable<? extends ResourceKey> files,
+        @Nullable String startSymbol,
+        @Nullable ResourcePath rootDirectoryHint
+    ) {
+        final @Nullable Executor executor = bulkParseExecutor;
+        if(executor == null) return JsglrParsePrefetch.none;
+        return prefetcher.prefetch(context, files, startSymbol, rootDirectoryHint, executor, bulkParseWorkerCount);
+    }
+
 
     @Override
     public Result<JsglrParseOutput, JsglrParseException> exec(ExecContext context, JsglrParseTaskInput input) throws Exception {
@@ -61,7 +61,7 @@ public abstract class ShowParsedTokensTaskDef implements TaskDef<ShowParsedToken
 
     private String printTokens(JSGLRTokens tokens) {
         final StringBuilder sb = new StringBuilder();
-        for(Token<IStrategoTerm> token : tokens.tokens) {
+        for(Token<IStrategoTerm> token : tokens) {
             sb.append(token);
             sb.append('\n');
         }
@@ -1,5 +1,6 @@
 package mb.jsglr1.common;
 
+import mb.jsglr.common.ParseTableCache;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.jsglr.client.InvalidParseTableException;
@@ -8,18 +9,38 @@ import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.terms.TermFactory;
 import org.spoofax.terms.io.binary.TermReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 
 public class JSGLR1ParseTable implements Serializable {
+    private static final ParseTableCache<JSGLR1ParseTable> cache = new ParseTableCache<>();
+
     final ParseTable internalParseTable;
 
     private JSGLR1ParseTable(ParseTable parseTable) {
         this.internalParseTable = parseTable;
     }
 
+    /**
+     * Loads a parse table from given stream, or gets the parse table that was loaded before from a stream with the
+     * same content, from a process-wide cache.
+     */
     public static JSGLR1ParseTable fromStream(InputStream parseTableStream) throws JSGLR1ParseTableException {
+        final byte[] parseTableBytes;
+        try {
+            parseTableBytes = ParseTableCache.readAllBytes(parseTableStream);
+        } catch(IOException e) {
+            throw new JSGLR1ParseTableException("Loading parse table from stream failed unexpectedly", e);
+        }
+        return cache.getOrLoad(contents -> fromStreamUncached(new ByteArrayInputStream(contents[0])), parseTableBytes);
+    }
+
+    /**
+     * Loads a parse table from given stream, without using the cache.
+     */
+    public static JSGLR1ParseTable fromStreamUncached(InputStream parseTableStream) throws JSGLR1ParseTableException {
         final ITermFactory termFactory = new ImploderOriginTermFactory(new TermFactory());
         final TermReader reader = new TermReader(termFactory);
         try {
@@ -34,4 +55,12 @@ public class JSGLR1ParseTable implements Serializable {
     public static JSGLR1ParseTable fromParseTable(ParseTable parseTable) {
         return new JSGLR1ParseTable(parseTable);
     }
+
+    /**
+     * Gets the statistics of the process-wide cache of parse tables loaded with {@link #fromStream}, including the
+     * time spent loading them.
+     */
+    public static ParseTableCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
 }
@@ -2,6 +2,7 @@ package mb.jsglr1.common;
 
 import mb.common.message.KeyedMessages;
 import mb.common.message.Messages;
+import mb.jsglr.common.AstFingerprintAttachment;
 import mb.jsglr.common.FragmentedOriginLocationFixer;
 import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr.common.JsglrParseException;
@@ -75,6 +76,9 @@ public class JSGLR1Parser {
 
             final boolean recovered = fixResult.messages.containsError();
 
+            // Regions are final after fixing origin locations, so the fingerprint can be attached.
+            AstFingerprintAttachment.attach(fixResult.ast);
+
             return new JsglrParseOutput(fixResult.ast, tokens, fixResult.messages, recovered, ambiguous, input.startSymbol, input.fileHint, input.rootDirectoryHint);
         } catch(SGLRException e) {
             final MessagesUtil messagesUtil = new MessagesUtil(true, true, parser.getCollectedErrors());
@@ -0,0 +1,166 @@
+package mb.jsglr2.common;
+
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.jsglr2.parseforest.IParseForest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * A thread-safe cache of the previous input and parse forest of each file, which incremental JSGLR2 parsers use to
+ * only reparse the edited region of a file.
+ *
+ * The parse forests are only valid for the parse table they were parsed with, so each {@link Jsglr2ParseTable} has its
+ * own cache. Since {@link Jsglr2ParseTable#fromStream} shares a parse table among all languages in the process that
+ * load a parse table with the same content, these languages share its cache as well. Therefore, entries are keyed on
+ * the file only: an entry holds the input it was parsed from, and its parse forest only depends on the parse table,
+ * that input, and the start symbol, which is checked when getting the entry. Languages that parse the same file with
+ * the same parse table may replace each other's entries, which only causes full parses.
+ *
+ * The cache evicts the least recently used entries when it holds more than the maximum number of entries.
+ */
+public final class Jsglr2ParseForestCache {
+    /** The default maximum number of entries, which bounds the memory held by the parse forests of inactive files. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 32;
+
+    private final int maximumSize;
+    /** The entries, in access order. Guarded by {@code this}. */
+    private final LinkedHashMap<ResourceKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Guarded by {@code this}. */
+    private long hitCount = 0;
+    /** Guarded by {@code this}. */
+    private long missCount = 0;
+    /** Guarded by {@code this}. */
+    private long evictionCount = 0;
+
+    /**
+     * Initializes a new instance of the {@link Jsglr2ParseForestCache} class.
+     *
+     * @param maximumSize the maximum number of entries in the cache
+     */
+    public Jsglr2ParseForestCache(int maximumSize) {
+        if(maximumSize < 0) throw new IllegalArgumentException("'maximumSize' must be greater than or equal to 0.");
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Initializes a new instance of the {@link Jsglr2ParseForestCache} class with the
+     * {@link #DEFAULT_MAXIMUM_SIZE default maximum size}.
+     */
+    public Jsglr2ParseForestCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Gets the previous input and parse forest of given file, if it was parsed with the same start symbol.
+     *
+     * @param file        the file
+     * @param startSymbol the start symbol of the parse
+     * @return the entry; or {@code null} when there is none
+     */
+    synchronized @Nullable Entry get(ResourceKey file, @Nullable String startSymbol) {
+        final @Nullable Entry entry = entries.get(file);
+        if(entry != null && Objects.equals(entry.startSymbol, startSymbol)) {
+            hitCount += 1;
+            return entry;
+        }
+        missCount += 1;
+        return null;
+    }
+
+    /**
+     * Sets the input and parse forest of given file, replacing the previous ones.
+     */
+    synchronized void put(ResourceKey file, Entry entry) {
+        if(maximumSize == 0) return;
+        entries.put(file, entry);
+        final Iterator<ResourceKey> iterator = entries.keySet().iterator();
+        while(entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount += 1;
+        }
+    }
+
+    /**
+     * Removes the previous input and parse forest of given file, such that its next parse is a full parse.
+     *
+     * @param file the file
+     */
+    public synchronized void remove(ResourceKey file) {
+        entries.remove(file);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     *
+     * This does not reset the statistics.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, entries.size());
+    }
+
+    /**
+     * The input and parse forest of a successful parse of a file.
+     */
+    static final class Entry {
+        final String input;
+        final IParseForest parseForest;
+        final @Nullable String startSymbol;
+
+        Entry(String input, IParseForest parseForest, @Nullable String startSymbol) {
+            this.input = input;
+            this.parseForest = parseForest;
+            this.startSymbol = startSymbol;
+        }
+    }
+
+    /**
+     * The statistics of a {@link Jsglr2ParseForestCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+
+        /* package private */ Stats(long hitCount, long missCount, long evictionCount, long size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        /** Gets the number of parses that reused the previous parse forest of their file. */
+        public long getHitCount() { return hitCount; }
+
+        /** Gets the number of parses that did not find a previous parse forest, and parsed the full file. */
+        public long getMissCount() { return missCount; }
+
+        /** Gets the number of entries that were evicted. */
+        public long getEvictionCount() { return evictionCount; }
+
+        /** Gets the number of entries in the cache. */
+        public long getSize() { return size; }
+
+        @Override public String toString() {
+            return "{" +
+                "hits: " + hitCount +
+                ", misses: " + missCount +
+                ", evictions: " + evictionCount +
+                ", size: " + size +
+                " }";
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package mb.jsglr2.common;
 
 import mb.common.util.ClassLoaderObjectInputStream;
+import mb.jsglr.common.ParseTableCache;
 import org.metaborg.parsetable.IParseTable;
 import org.metaborg.parsetable.ParseTableReadException;
 import org.metaborg.parsetable.ParseTableReader;
@@ -10,20 +11,58 @@ import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.terms.TermFactory;
 import org.spoofax.terms.io.binary.TermReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 
 public class Jsglr2ParseTable {
+    private static final ParseTableCache<Jsglr2ParseTable> cache = new ParseTableCache<>();
+
     final IParseTable parseTable;
+    private final Jsglr2ParseForestCache parseForestCache = new Jsglr2ParseForestCache();
 
     private Jsglr2ParseTable(IParseTable parseTable) {
         this.parseTable = parseTable;
     }
 
+    /**
+     * Gets the cache of the previous parse forests of files parsed with this parse table by incremental parsers. Parse
+     * tables loaded with {@link #fromStream} are shared in the process, and so is their cache.
+     */
+    public Jsglr2ParseForestCache getParseForestCache() {
+        return parseForestCache;
+    }
+
+    /**
+     * Loads a parse table from given streams, or gets the parse table that was loaded before from streams with the
+     * same content, from a process-wide cache.
+     */
     public static Jsglr2ParseTable fromStream(
         InputStream parseTableAtermStream,
         InputStream parseTablePersistedStream
+    ) throws Jsglr2ParseTableException {
+        final byte[] parseTableAtermBytes;
+        final byte[] parseTablePersistedBytes;
+        try {
+            parseTableAtermBytes = ParseTableCache.readAllBytes(parseTableAtermStream);
+            parseTablePersistedBytes = ParseTableCache.readAllBytes(parseTablePersistedStream);
+        } catch(IOException e) {
+            throw new Jsglr2ParseTableException("Loading parse table from stream failed unexpectedly", e);
+        }
+        return cache.getOrLoad(
+            contents -> fromStreamUncached(new ByteArrayInputStream(contents[0]), new ByteArrayInputStream(contents[1])),
+            parseTableAtermBytes,
+            parseTablePersistedBytes
+        );
+    }
+
+    /**
+     * Loads a parse table from given streams, without using the cache.
+     */
+    public static Jsglr2ParseTable fromStreamUncached(
+        InputStream parseTableAtermStream,
+        InputStream parseTablePersistedStream
     ) throws Jsglr2ParseTableException {
         final ITermFactory termFactory = new ImploderOriginTermFactory(new TermFactory());
         final TermReader reader = new TermReader(termFactory);
@@ -46,4 +85,12 @@ public class Jsglr2ParseTable {
     public static Jsglr2ParseTable fromParseTable(IParseTable parseTable) {
         return new Jsglr2ParseTable(parseTable);
     }
+
+    /**
+     * Gets the statistics of the process-wide cache of parse tables loaded with {@link #fromStream}, including the
+     * time spent loading them.
+     */
+    public static ParseTableCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
 }
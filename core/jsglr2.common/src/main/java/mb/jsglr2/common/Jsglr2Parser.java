@@ -4,14 +4,13 @@ import mb.common.message.KeyedMessages;
 import mb.common.message.KeyedMessagesBuilder;
 import mb.common.message.Severity;
 import mb.common.region.Region;
-import mb.common.token.Token;
+import mb.jsglr.common.AstFingerprintAttachment;
 import mb.jsglr.common.FragmentedOriginLocationFixer;
 import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr.common.JsglrParseException;
 import mb.jsglr.common.JsglrParseInput;
 import mb.jsglr.common.JsglrParseOutput;
 import mb.jsglr.common.ResourceKeyAttachment;
-import mb.jsglr.common.TokenUtil;
 import mb.resource.ResourceKey;
 import mb.resource.hierarchical.ResourcePath;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -30,22 +29,41 @@ import org.spoofax.jsglr2.parser.result.ParseSuccess;
 import org.spoofax.jsglr2.recovery.IRecoveryParseState;
 import org.spoofax.terms.attachments.ParentAttachment;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class Jsglr2Parser {
     private final JSGLR2Implementation<IParseForest, Object, ?, IStrategoTerm, ?, ITokens> jsglr2;
+    private final @Nullable Jsglr2ParseForestCache parseForestCache;
 
     public Jsglr2Parser(JSGLR2Implementation<IParseForest, Object, ?, IStrategoTerm, ?, ITokens> jsglr2) {
+        this(jsglr2, null);
+    }
+
+    /**
+     * Creates a parser from given JSGLR2 implementation, which must be incremental when {@code parseForestCache} is
+     * not {@code null}. The previous input and parse forest of each parsed file are kept in {@code parseForestCache},
+     * such that the next parse of the file only reparses the edited region.
+     */
+    public Jsglr2Parser(
+        JSGLR2Implementation<IParseForest, Object, ?, IStrategoTerm, ?, ITokens> jsglr2,
+        @Nullable Jsglr2ParseForestCache parseForestCache
+    ) {
         this.jsglr2 = jsglr2;
+        this.parseForestCache = parseForestCache;
     }
 
+    /**
+     * Creates a parser for given parse table and preset. When the preset is incremental, the parser reparses only the
+     * edited region of a file, using the previous parse forest of the file kept in the
+     * {@link Jsglr2ParseTable#getParseForestCache() cache of the parse table}.
+     */
     public Jsglr2Parser(Jsglr2ParseTable parseTable, JSGLR2Variant.Preset preset) {
         final JSGLR2<IStrategoTerm> jsglr2 = preset.getJSGLR2(parseTable.parseTable);
         if(!(jsglr2 instanceof JSGLR2Implementation)) {
             throw new IllegalStateException("Cannot create JSGLR2 parser, JSGLR2 implementation '" + jsglr2 + "' does not implement JSGLR2Implementation");
         }
         this.jsglr2 = (JSGLR2Implementation<IParseForest, Object, ?, IStrategoTerm, ?, ITokens>)jsglr2;
+        this.parseForestCache = isIncremental(preset) ? parseTable.getParseForestCache() : null;
     }
 
     public Jsglr2Parser(Jsglr2ParseTable parseTable) {
@@ -53,10 +71,23 @@ public class Jsglr2Parser {
     }
 
     public JsglrParseOutput parse(JsglrParseInput input) throws JsglrParseException {
-        final JSGLR2Request request = new JSGLR2Request(input.text.toString(), input.fileHint != null ? input.fileHint.toString() : "", input.startSymbol)
+        final String text = input.text.toString();
+        final JSGLR2Request request = new JSGLR2Request(text, input.fileHint != null ? input.fileHint.toString() : "", input.startSymbol)
             .withAmbiguitiesReporting(true);
-        final ParseResult<?> parseResult = jsglr2.parser.parse(request);
+        final @Nullable Jsglr2ParseForestCache.Entry previous;
+        if(parseForestCache != null && input.fileHint != null) {
+            previous = parseForestCache.get(input.fileHint, input.startSymbol);
+        } else {
+            previous = null;
+        }
+        // The incremental parser diffs the input with the previous input, and only reparses the edited region.
+        final ParseResult<?> parseResult = previous != null
+            ? jsglr2.parser.parse(request, previous.input, previous.parseForest)
+            : jsglr2.parser.parse(request);
         if(!parseResult.isSuccess()) {
+            if(parseForestCache != null && input.fileHint != null) {
+                parseForestCache.remove(input.fileHint);
+            }
             final KeyedMessages messages = collectMessages(parseResult.messages, input.fileHint, input.rootDirectoryHint);
             throw JsglrParseException.parseFail(messages, input.startSymbol, input.fileHint, input.rootDirectoryHint);
         }
@@ -88,9 +119,25 @@ public class Jsglr2Parser {
         }
         final boolean ambiguous = implodeResult.isAmbiguous();
 
+        if(parseForestCache != null && input.fileHint != null) {
+            if(recovered) {
+                // Do not reuse a recovered parse forest, as reparsing from it may differ from a full parse.
+                parseForestCache.remove(input.fileHint);
+            } else {
+                parseForestCache.put(input.fileHint, new Jsglr2ParseForestCache.Entry(text, parseForest, input.startSymbol));
+            }
+        }
+
+        // Regions are final after fixing origin locations, so the fingerprint can be attached.
+        AstFingerprintAttachment.attach(fixResult.ast);
+
         return new JsglrParseOutput(fixResult.ast, tokens, fixResult.messages, recovered, ambiguous, input.startSymbol, input.fileHint, input.rootDirectoryHint);
     }
 
+    private static boolean isIncremental(JSGLR2Variant.Preset preset) {
+        return preset == JSGLR2Variant.Preset.incremental || preset == JSGLR2Variant.Preset.incrementalRecovery;
+    }
+
     private static KeyedMessages collectMessages(Collection<Message> messages, @Nullable ResourceKey fileHint, @Nullable ResourcePath rootDirectoryHint) {
         final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder();
         for(Message message : messages) {
@@ -116,11 +163,11 @@ public class Jsglr2Parser {
     }
 
     private static JSGLRTokens convertTokens(ITokens tokens) {
-        final ArrayList<Token<IStrategoTerm>> tokenStream = new ArrayList<>(tokens.getTokenCount());
+        final JSGLRTokens.Builder builder = new JSGLRTokens.Builder(tokens.getTokenCount());
         for(IToken token : tokens) {
             if(token.getStartOffset() < 0 || token.getEndOffset() < 0) continue; // Skip special start/end tokens.
-            tokenStream.add(TokenUtil.convertToken(token));
+            builder.add(token);
         }
-        return new JSGLRTokens(tokenStream);
+        return builder.build();
     }
 }
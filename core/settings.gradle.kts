@@ -18,6 +18,7 @@ include("jsglr.common")
 include("jsglr.pie")
 include("jsglr1.common")
 include("jsglr2.common")
+include("jsglr.bench")
 include("esv.common")
 include("stratego.common")
 include("stratego.pie")
@@ -32,6 +33,7 @@ include("statix.multilang")
 include("statix.multilang.eclipse")
 include("spt.api")
 include("tego.runtime")
+include("tego.runtime.bench")
 include("spoofax2.common")
 include("tooling.eclipsebundle")
 
@@ -74,6 +74,15 @@ public class ParserLanguageCompiler {
          */
         String parseTablePersistedFileRelativePath();
 
+        /**
+         * @return path to the binary parse table aterm file to load if it exists, relative to the classloader resources.
+         * The binary aterm file is written next to the aterm file when the parse table is generated from SDF3, and is
+         * preferred over the aterm file because it loads faster.
+         */
+        default String parseTableBinaryAtermFileRelativePath() {
+            return parseTableAtermFileRelativePath() + ".saf";
+        }
+
         @Value.Default default ParserVariant variant() { return ParserVariant.jsglr1(); }
 
 
@@ -18,6 +18,7 @@ import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax.common.BracketSymbols;
 import mb.spoofax.common.BlockCommentSymbols;
 import mb.spoofax.core.language.cli.CliCommand;
+import mb.spoofax.core.language.codecompletion.CodeCompletionOptions;
 import mb.spoofax.core.language.command.AutoCommandRequest;
 import mb.spoofax.core.language.command.CommandDef;
 import mb.spoofax.core.language.menu.MenuItem;
@@ -55,6 +56,23 @@ public interface LanguageInstance {
      */
     Option<Task<Result<CodeCompletionResult, ?>>> createCodeCompletionTask(Region primarySelection, ResourceKey file, @Nullable ResourcePath rootDirectoryHint);
 
+    /**
+     * Creates a task that produces completions, with the specified options.
+     *
+     * By default, the options are ignored. When the options have a time budget or a listener, the result depends on
+     * when the search was stopped, so delete the task after requiring it, as described in
+     * {@link CodeCompletionOptions}.
+     *
+     * @param primarySelection  the primary selection at which completion is invoked
+     * @param file              the key of the resource in which completion is invoked
+     * @param rootDirectoryHint the root directory of the project; or {@code null} when not specified
+     * @param options           the code completion options, which limit the search and may stream the proposals
+     * @return a {@link CodeCompletionResult} result; or an exception when no completions could be generated
+     */
+    default Option<Task<Result<CodeCompletionResult, ?>>> createCodeCompletionTask(Region primarySelection, ResourceKey file, @Nullable ResourcePath rootDirectoryHint, CodeCompletionOptions options) {
+        return createCodeCompletionTask(primarySelection, file, rootDirectoryHint);
+    }
+
     Task<Option<ReferenceResolutionResult>> createResolveTask(ResourcePath rootDirectory, ResourceKey file, Region region);
 
     Task<Option<HoverResult>> createHoverTask(ResourcePath rootDirectory, ResourceKey file, Region region);
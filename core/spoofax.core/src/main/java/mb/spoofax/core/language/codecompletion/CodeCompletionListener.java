@@ -0,0 +1,25 @@
+package mb.spoofax.core.language.codecompletion;
+
+import mb.common.codecompletion.CodeCompletionItem;
+
+/**
+ * Receives code completion proposals as soon as they are found,
+ * before the code completion task has completed.
+ */
+@FunctionalInterface
+public interface CodeCompletionListener {
+
+    /**
+     * Called when a code completion proposal has been found.
+     *
+     * This is called on the thread that executes the code completion task.
+     * The proposals are reported in the order in which they are found,
+     * which may differ from the order in the final code completion result.
+     *
+     * @param item the code completion item
+     * @return {@code true} to continue searching for proposals;
+     * otherwise, {@code false} to stop the search and return the proposals found so far
+     */
+    boolean onProposal(CodeCompletionItem item);
+
+}
@@ -0,0 +1,101 @@
+package mb.spoofax.core.language.codecompletion;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Options for a code completion request.
+ *
+ * The search for code completion proposals stops when the maximum number of proposals has been found,
+ * or when the time budget has been used up, whichever comes first. In both cases, the proposals found so far
+ * are returned in a result that is marked as incomplete.
+ *
+ * The listener is not part of the identity of the options, and is not serialized.
+ * Since the options are part of the input of the code completion task, which may be retained
+ * by the task engine, call {@link #detachListener()} when the request has completed.
+ *
+ * Options are equal when their maximum number of proposals and time budget are equal. The result of a search with
+ * a time budget or a listener depends on when the search was stopped, and a listener must receive the proposals of
+ * its own search. Therefore, callers that require the code completion task with such options should delete the task
+ * from the task engine afterwards, such that a later request executes it again instead of returning this result.
+ */
+public final class CodeCompletionOptions implements Serializable {
+
+    /** The default options, which do not limit the search and have no listener. */
+    public static final CodeCompletionOptions DEFAULT = new CodeCompletionOptions(Integer.MAX_VALUE, Long.MAX_VALUE, null);
+
+    /** The maximum number of proposals to find. */
+    private final int maxProposals;
+    /** The time budget for the search, in milliseconds. */
+    private final long timeBudgetMillis;
+    /** The listener that receives the proposals as they are found; or {@code null}. */
+    private transient volatile @Nullable CodeCompletionListener listener;
+
+    /**
+     * Initializes a new instance of the {@link CodeCompletionOptions} class.
+     *
+     * @param maxProposals the maximum number of proposals to find; or {@link Integer#MAX_VALUE} for no maximum
+     * @param timeBudgetMillis the time budget for the search, in milliseconds; or {@link Long#MAX_VALUE} for no budget
+     * @param listener the listener that receives the proposals as they are found; or {@code null}
+     */
+    public CodeCompletionOptions(int maxProposals, long timeBudgetMillis, @Nullable CodeCompletionListener listener) {
+        if (maxProposals < 0) throw new IllegalArgumentException("'maxProposals' must be greater than or equal to 0.");
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("'timeBudgetMillis' must be greater than or equal to 0.");
+        this.maxProposals = maxProposals;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.listener = listener;
+    }
+
+    /** Gets the maximum number of proposals to find; or {@link Integer#MAX_VALUE} when there is no maximum. */
+    public int getMaxProposals() {
+        return maxProposals;
+    }
+
+    /** Gets the time budget for the search, in milliseconds; or {@link Long#MAX_VALUE} when there is no budget. */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /** Gets the listener that receives the proposals as they are found; or {@code null} when there is none. */
+    public @Nullable CodeCompletionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Detaches the listener from these options, such that it is no longer called and can be garbage collected.
+     */
+    public void detachListener() {
+        this.listener = null;
+    }
+
+    /**
+     * Returns options for a new request with the same limits as these options and the specified listener.
+     *
+     * @param listener the listener that receives the proposals as they are found; or {@code null}
+     * @return the new options
+     */
+    public CodeCompletionOptions withListener(@Nullable CodeCompletionListener listener) {
+        return new CodeCompletionOptions(maxProposals, timeBudgetMillis, listener);
+    }
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final CodeCompletionOptions that = (CodeCompletionOptions)o;
+        return this.maxProposals == that.maxProposals
+            && this.timeBudgetMillis == that.timeBudgetMillis;
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(maxProposals, timeBudgetMillis);
+    }
+
+    @Override public String toString() {
+        return "CodeCompletionOptions{" +
+            "maxProposals=" + maxProposals + ", " +
+            "timeBudgetMillis=" + timeBudgetMillis +
+            "}";
+    }
+}
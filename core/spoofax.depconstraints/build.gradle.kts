@@ -23,6 +23,8 @@ val immutablesVersion = "2.8.2"
 
 val yamlVersion = "1.26"
 
+val jmhVersion = "1.32"
+
 dependencies {
   constraints {
     // Own projects
@@ -118,6 +120,9 @@ dependencies {
     api("org.immutables:value-annotations:$immutablesVersion")
     // Yaml
     api("org.yaml:snakeyaml:$yamlVersion")
+    // JMH
+    api("org.openjdk.jmh:jmh-core:$jmhVersion")
+    api("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 
     // Gradle plugins
     api("org.metaborg.devenv:spoofax.gradle:$spoofax2DevenvVersion")
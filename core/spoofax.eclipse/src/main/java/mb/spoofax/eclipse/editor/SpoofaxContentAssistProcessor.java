@@ -18,6 +18,7 @@ import mb.pie.dagger.PieComponent;
 import mb.resource.ResourceKey;
 import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax.core.language.LanguageComponent;
+import mb.spoofax.core.language.codecompletion.CodeCompletionOptions;
 import mb.spoofax.eclipse.resource.EclipseResourcePath;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.eclipse.core.resources.IFile;
@@ -41,6 +42,11 @@ import java.util.stream.IntStream;
  */
 public final class SpoofaxContentAssistProcessor implements IContentAssistProcessor {
 
+    /** The maximum number of proposals to find. */
+    private static final int MAX_PROPOSALS = 500;
+    /** The time after which the proposals found so far are shown, in milliseconds. */
+    private static final long TIME_BUDGET_MILLIS = 2000;
+
     private final Logger log;
 
     private final SpoofaxEditorBase editorBase;
@@ -99,7 +105,10 @@ public final class SpoofaxContentAssistProcessor implements IContentAssistProces
         final @Nullable ResourcePath projectRoot = project != null ? new EclipseResourcePath(project) : null;
         final Region selection = Region.atOffset(offset);
 
-        final Option<Task<Result<CodeCompletionResult, ?>>> taskOpt = languageComponent.getLanguageInstance().createCodeCompletionTask(selection, fileKey, projectRoot);
+        // The proposals are computed asynchronously and can only be shown all at once,
+        // so we limit the search to show the proposals found so far after the time budget.
+        final CodeCompletionOptions options = new CodeCompletionOptions(MAX_PROPOSALS, TIME_BUDGET_MILLIS, null);
+        final Option<Task<Result<CodeCompletionResult, ?>>> taskOpt = languageComponent.getLanguageInstance().createCodeCompletionTask(selection, fileKey, projectRoot, options);
         if(taskOpt.isNone()) return Option.ofNone();
         final Task<Result<CodeCompletionResult, ?>> task = taskOpt.unwrap();
 
@@ -107,8 +116,13 @@ public final class SpoofaxContentAssistProcessor implements IContentAssistProces
         if (!sessionOpt.isPresent()) return Option.ofNone();
         try (final MixedSession session = sessionOpt.get()) {
             final TopDownSession topDownSession = session.updateAffectedBy(Collections.emptySet(), Collections.singleton(Interactivity.Interactive));
-            final Result<CodeCompletionResult, ?> codeCompletionResultResult = topDownSession.requireWithoutObserving(task);
-            return Option.ofSome(codeCompletionResultResult.unwrap());
+            try {
+                final Result<CodeCompletionResult, ?> codeCompletionResultResult = topDownSession.requireWithoutObserving(task);
+                return Option.ofSome(codeCompletionResultResult.unwrap());
+            } finally {
+                // The result depends on when the search was stopped, so it must not be returned for a later request
+                session.deleteUnobservedTasks(t -> t.equals(task), (t, r) -> false);
+            }
         } catch(InterruptedException e) {
             return Option.ofNone();
         } catch(Exception e) {
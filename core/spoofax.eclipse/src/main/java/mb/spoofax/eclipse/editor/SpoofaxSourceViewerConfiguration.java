@@ -74,7 +74,8 @@ public class SpoofaxSourceViewerConfiguration extends TextSourceViewerConfigurat
     }
 
     @Override public IContentAssistant getContentAssistant(ISourceViewer sourceViewer) {
-        final ContentAssistant assistant = new ContentAssistant();
+        // Compute the proposals asynchronously, such that the editor remains responsive while completing
+        final ContentAssistant assistant = new ContentAssistant(true);
         final SpoofaxContentAssistProcessor processor = new SpoofaxContentAssistProcessor(
             editorBase, languageComponent, pieComponent, editorBase.loggerFactory
         );
@@ -37,6 +37,8 @@ import mb.resource.ResourceKey;
 import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax.core.language.LanguageComponent;
 import mb.spoofax.core.language.LanguageInstance;
+import mb.spoofax.core.language.codecompletion.CodeCompletionListener;
+import mb.spoofax.core.language.codecompletion.CodeCompletionOptions;
 import mb.spoofax.intellij.IntellijLanguageComponent;
 import mb.spoofax.intellij.SpoofaxPlugin;
 import mb.spoofax.intellij.resource.IntellijResourceRegistry;
@@ -47,9 +49,11 @@ import javax.swing.*;
 import java.util.AbstractMap;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -61,6 +65,11 @@ import static mb.common.style.StyleNameConstants.*;
  */
 public abstract class SpoofaxCompletionContributor extends CompletionContributor {
 
+    /** The maximum number of proposals to find. */
+    private static final int MAX_PROPOSALS = 500;
+    /** The time after which the search for more proposals is stopped, in milliseconds. */
+    private static final long TIME_BUDGET_MILLIS = 10000;
+
     private final Logger log;
 
     private final IntellijResourceRegistry resourceRegistry;
@@ -81,14 +90,25 @@ public abstract class SpoofaxCompletionContributor extends CompletionContributor
 
     @Override
     public void fillCompletionVariants(CompletionParameters parameters, CompletionResultSet result) {
-        final Option<CodeCompletionResult> optCodeCompletionResult = getCodeCompletionResult(parameters.getOriginalFile(), parameters.getOffset());
+        // Show the proposals as soon as they are found, and stop the search when completion is cancelled.
+        // When the result is already up-to-date, the task is not executed, and the listener is not called.
+        final Set<CodeCompletionItem> shownProposals = new HashSet<>();
+        final CodeCompletionListener listener = item -> {
+            if (result.isStopped()) return false;
+            shownProposals.add(item);
+            result.addElement(proposalToElement(item, 0));
+            return true;
+        };
+        final Option<CodeCompletionResult> optCodeCompletionResult = getCodeCompletionResult(parameters.getOriginalFile(), parameters.getOffset(), listener);
         if (optCodeCompletionResult.isNone()) {
             // No completions.
             return;
         }
         final CodeCompletionResult codeCompletionResult = optCodeCompletionResult.unwrap();
 
-        List<LookupElement> elements = IntStream.range(0, codeCompletionResult.getProposals().size()).mapToObj(i -> proposalToElement(codeCompletionResult.getProposals().get(i), i)).collect(Collectors.toList());
+        List<LookupElement> elements = IntStream.range(0, codeCompletionResult.getProposals().size())
+            .filter(i -> !shownProposals.contains(codeCompletionResult.getProposals().get(i)))
+            .mapToObj(i -> proposalToElement(codeCompletionResult.getProposals().get(i), i)).collect(Collectors.toList());
         result.addAllElements(elements);
     }
 
@@ -97,16 +117,18 @@ public abstract class SpoofaxCompletionContributor extends CompletionContributor
      *
      * @param originalFile the editor's file
      * @param offset the offset at which to invoke code completion
+     * @param listener the listener that receives the proposals as they are found
      * @return an option of the code completion result; or none if it failed
      */
-    private Option<CodeCompletionResult> getCodeCompletionResult(PsiFile originalFile, int offset) {
+    private Option<CodeCompletionResult> getCodeCompletionResult(PsiFile originalFile, int offset, CodeCompletionListener listener) {
         if(languageComponent == null || pieComponent == null) return Option.ofNone();
 
         final ResourceKey fileKey = resourceRegistry.getResource(originalFile).getKey();
         final @Nullable ResourcePath projectRoot = null;// TODO: Get the project root
         final Region selection = Region.atOffset(offset);
 
-        final Option<Task<Result<CodeCompletionResult, ?>>> taskOpt = languageComponent.getLanguageInstance().createCodeCompletionTask(selection, fileKey, projectRoot);
+        final CodeCompletionOptions options = new CodeCompletionOptions(MAX_PROPOSALS, TIME_BUDGET_MILLIS, listener);
+        final Option<Task<Result<CodeCompletionResult, ?>>> taskOpt = languageComponent.getLanguageInstance().createCodeCompletionTask(selection, fileKey, projectRoot, options);
         if(taskOpt.isNone()) return Option.ofNone();
         final Task<Result<CodeCompletionResult, ?>> task = taskOpt.unwrap();
 
@@ -114,13 +136,21 @@ public abstract class SpoofaxCompletionContributor extends CompletionContributor
         if (!sessionOpt.isPresent()) return Option.ofNone();
         try (final MixedSession session = sessionOpt.get()) {
             final TopDownSession topDownSession = session.updateAffectedBy(Collections.emptySet(), Collections.singleton(Interactivity.Interactive));
-            final Result<CodeCompletionResult, ?> codeCompletionResultResult = topDownSession.requireWithoutObserving(task);
-            return Option.ofSome(codeCompletionResultResult.unwrap());
+            try {
+                final Result<CodeCompletionResult, ?> codeCompletionResultResult = topDownSession.requireWithoutObserving(task);
+                return Option.ofSome(codeCompletionResultResult.unwrap());
+            } finally {
+                // The result depends on when the search was stopped, so it must not be returned for a later request
+                session.deleteUnobservedTasks(t -> t.equals(task), (t, r) -> false);
+            }
         } catch(InterruptedException e) {
             return Option.ofNone();
         } catch(Exception e) {
             // Bubble error up to Eclipse, which will handle it and show a dialog.
             throw new UncheckedExecException("Code completion on resource '" + fileKey + "' failed unexpectedly.", e);
+        } finally {
+            // The task input may be retained, so we make sure it does not retain the listener
+            options.detachListener();
         }
     }
 
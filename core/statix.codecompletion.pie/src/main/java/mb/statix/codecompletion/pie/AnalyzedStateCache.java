@@ -0,0 +1,165 @@
+package mb.statix.codecompletion.pie;
+
+import mb.nabl2.terms.ITerm;
+import mb.resource.ResourceKey;
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SolverContext;
+import mb.statix.codecompletion.SolverState;
+import mb.statix.spec.Spec;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe cache of the analyzed solver states of the most recently completed files.
+ *
+ * Code completion analyzes the whole file before it can start completing. When completion is invoked again
+ * on a file whose AST did not change (for example, at another placeholder, or after an edit to layout or comments),
+ * the analyzed solver state from the previous invocation is reused.
+ *
+ * An entry is only reused when it was created with the same Statix specification instance.
+ *
+ * Each entry has its own {@link DataWFCache} for the code completions on its analyzed solver state, which only
+ * lives as long as the entry. Since the verdicts are keyed on the specification and scope graph instances,
+ * they can only be reused on the same analyzed solver state anyway.
+ */
+public final class AnalyzedStateCache {
+
+    /**
+     * A cached analysis of a file.
+     */
+    public static final class Entry {
+        /** The Statix specification. */
+        private final Spec spec;
+        /** The parsed AST. */
+        private final IStrategoTerm parsedAst;
+        /** The prepared AST, with term indices and placeholders upgraded to variables. */
+        private final ITerm preparedAst;
+        /** The analyzed solver state. */
+        private final SolverState analyzedState;
+        /** The data well-formedness verdicts of the query expansions on the analyzed solver state. */
+        private final DataWFCache dataWFCache;
+
+        /**
+         * Initializes a new instance of the {@link Entry} class.
+         *
+         * @param spec the Statix specification
+         * @param parsedAst the parsed AST
+         * @param preparedAst the prepared AST, with term indices and placeholders upgraded to variables
+         * @param analyzedState the analyzed solver state
+         */
+        public Entry(Spec spec, IStrategoTerm parsedAst, ITerm preparedAst, SolverState analyzedState) {
+            this(spec, parsedAst, preparedAst, analyzedState, new DataWFCache(SolverContext.DEFAULT_DATA_WF_CACHE_SIZE));
+        }
+
+        private Entry(Spec spec, IStrategoTerm parsedAst, ITerm preparedAst, SolverState analyzedState, DataWFCache dataWFCache) {
+            this.spec = spec;
+            this.parsedAst = parsedAst;
+            this.preparedAst = preparedAst;
+            this.analyzedState = analyzedState;
+            this.dataWFCache = dataWFCache;
+        }
+
+        /**
+         * Returns an entry for the specified parsed AST, which has the same prepared AST and analysis as this entry.
+         *
+         * @param parsedAst the parsed AST, which must have the same prepared AST
+         * @return the entry, which shares the data well-formedness cache of this entry
+         */
+        public Entry withParsedAst(IStrategoTerm parsedAst) {
+            if (parsedAst == this.parsedAst) return this;
+            return new Entry(spec, parsedAst, preparedAst, analyzedState, dataWFCache);
+        }
+
+        /** Gets the parsed AST. */
+        public IStrategoTerm getParsedAst() { return parsedAst; }
+
+        /** Gets the prepared AST, with term indices and placeholders upgraded to variables. */
+        public ITerm getPreparedAst() { return preparedAst; }
+
+        /** Gets the analyzed solver state. */
+        public SolverState getAnalyzedState() { return analyzedState; }
+
+        /** Gets the data well-formedness verdicts of the query expansions on the analyzed solver state. */
+        public DataWFCache getDataWFCache() { return dataWFCache; }
+    }
+
+    private final int maximumSize;
+    /** The entries, in access order. Guarded by {@code this}. */
+    private final LinkedHashMap<ResourceKey, Entry> entries;
+
+    /**
+     * Initializes a new instance of the {@link AnalyzedStateCache} class.
+     *
+     * @param maximumSize the maximum number of files for which an analysis is cached
+     */
+    public AnalyzedStateCache(int maximumSize) {
+        if (maximumSize < 0) throw new IllegalArgumentException("'maximumSize' must be greater than or equal to 0.");
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<ResourceKey, Entry>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<ResourceKey, Entry> eldest) {
+                return size() > AnalyzedStateCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached analysis of the specified file, if it was parsed to the same AST instance.
+     *
+     * Since the parsed AST is the same instance, the regions of its terms are the same as well,
+     * and the prepared AST can be reused.
+     *
+     * @param file the file
+     * @param spec the Statix specification
+     * @param parsedAst the parsed AST
+     * @return the cached entry; or {@code null} when not found
+     */
+    public synchronized @Nullable Entry getByParsedAst(ResourceKey file, Spec spec, IStrategoTerm parsedAst) {
+        final @Nullable Entry entry = entries.get(file);
+        if (entry == null || entry.spec != spec || entry.parsedAst != parsedAst) return null;
+        return entry;
+    }
+
+    /**
+     * Gets the cached analysis of the specified file, if its prepared AST is equal.
+     *
+     * @param file the file
+     * @param spec the Statix specification
+     * @param preparedAst the prepared AST, with term indices and placeholders upgraded to variables
+     * @return the cached entry; or {@code null} when not found
+     */
+    public synchronized @Nullable Entry getByPreparedAst(ResourceKey file, Spec spec, ITerm preparedAst) {
+        final @Nullable Entry entry = entries.get(file);
+        if (entry == null || entry.spec != spec || !entry.preparedAst.equals(preparedAst)) return null;
+        return entry;
+    }
+
+    /**
+     * Caches the analysis of the specified file, replacing any existing analysis of the file.
+     *
+     * @param file the file
+     * @param entry the entry to cache
+     */
+    public synchronized void put(ResourceKey file, Entry entry) {
+        if (maximumSize == 0) return;
+        entries.put(file, entry);
+    }
+
+    /**
+     * Removes the cached analysis of the specified file.
+     *
+     * @param file the file
+     */
+    public synchronized void invalidate(ResourceKey file) {
+        entries.remove(file);
+    }
+
+    /**
+     * Removes all cached analyses.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
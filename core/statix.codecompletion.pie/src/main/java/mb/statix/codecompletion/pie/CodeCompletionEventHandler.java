@@ -1,5 +1,8 @@
 package mb.statix.codecompletion.pie;
 
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SearchBudget;
+
 /**
  * Code completion event handler.
  */
@@ -27,6 +30,10 @@ public interface CodeCompletionEventHandler {
     void beginCodeCompletion();
     /** Ends the code completion strategy. */
     void endCodeCompletion();
+    /** Reports, during code completion, that the search budget was exhausted and the search was cut short. */
+    void budgetExhausted(SearchBudget budget);
+    /** Reports, during code completion, the data well-formedness cache lookups of the code completion strategy. */
+    void dataWFCacheStats(DataWFCache.Stats stats);
 
     /** Beings the finishing. */
     void beginFinishing();
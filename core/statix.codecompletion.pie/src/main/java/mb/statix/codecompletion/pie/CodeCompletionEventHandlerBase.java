@@ -1,5 +1,8 @@
 package mb.statix.codecompletion.pie;
 
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SearchBudget;
+
 public /* open */ class CodeCompletionEventHandlerBase implements CodeCompletionEventHandler {
     private State state = State.Ready;
 
@@ -57,6 +60,16 @@ public /* open */ class CodeCompletionEventHandlerBase implements CodeCompletion
         this.state = State.Running;
     }
 
+    @Override
+    public void budgetExhausted(SearchBudget budget) {
+        if(this.state != State.Completing) throw new IllegalStateException("Not completing, but " + state);
+    }
+
+    @Override
+    public void dataWFCacheStats(DataWFCache.Stats stats) {
+        if(this.state != State.Completing) throw new IllegalStateException("Not completing, but " + state);
+    }
+
     @Override
     public void beginFinishing() {
         if(this.state != State.Running) throw new IllegalStateException("Not running, but " + state);
@@ -27,7 +27,11 @@ import mb.pie.api.None;
 import mb.pie.api.TaskDef;
 import mb.resource.ResourceKey;
 import mb.resource.hierarchical.ResourcePath;
+import mb.spoofax.core.language.codecompletion.CodeCompletionListener;
+import mb.spoofax.core.language.codecompletion.CodeCompletionOptions;
 import mb.statix.codecompletion.CodeCompletionProposal;
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SearchBudget;
 import mb.statix.codecompletion.SolutionMeta;
 import mb.statix.codecompletion.SolverContext;
 import mb.statix.codecompletion.SolverState;
@@ -63,6 +67,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -91,6 +96,8 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         public final @Nullable ResourcePath rootDirectoryHint;
         /** Whether to perform deterministic completion. */
         private final boolean completeDeterministic;
+        /** The code completion options. */
+        public final CodeCompletionOptions options;
 
         /**
          * Initializes a new instance of the {@link Input} class.
@@ -112,10 +119,36 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
          * @param completeDeterministic whether to perform deterministic completion
          */
         public Input(Region primarySelection, ResourceKey file, @Nullable ResourcePath rootDirectoryHint, boolean completeDeterministic) {
+            this(primarySelection, file, rootDirectoryHint, completeDeterministic, CodeCompletionOptions.DEFAULT);
+        }
+
+        /**
+         * Initializes a new instance of the {@link Input} class.
+         *
+         * @param primarySelection the primary selection at which completion is invoked
+         * @param file      the key of the resource in which completion is invoked
+         * @param rootDirectoryHint the root directory of the project; or {@code null} when not specified
+         * @param options the code completion options
+         */
+        public Input(Region primarySelection, ResourceKey file, @Nullable ResourcePath rootDirectoryHint, CodeCompletionOptions options) {
+            this(primarySelection, file, rootDirectoryHint, false, options);
+        }
+
+        /**
+         * Initializes a new instance of the {@link Input} class.
+         *
+         * @param primarySelection the primary selection at which completion is invoked
+         * @param file      the key of the resource in which completion is invoked
+         * @param rootDirectoryHint the root directory of the project; or {@code null} when not specified
+         * @param completeDeterministic whether to perform deterministic completion
+         * @param options the code completion options
+         */
+        public Input(Region primarySelection, ResourceKey file, @Nullable ResourcePath rootDirectoryHint, boolean completeDeterministic, CodeCompletionOptions options) {
             this.primarySelection = primarySelection;
             this.file = file;
             this.rootDirectoryHint = rootDirectoryHint;
             this.completeDeterministic = completeDeterministic;
+            this.options = options;
         }
 
         @Override public boolean equals(@Nullable Object o) {
@@ -137,7 +170,8 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
             return this.primarySelection.equals(that.primarySelection)
                 && this.file.equals(that.file)
                 && Objects.equals(this.rootDirectoryHint, that.rootDirectoryHint)
-                && this.completeDeterministic == that.completeDeterministic;
+                && this.completeDeterministic == that.completeDeterministic
+                && this.options.equals(that.options);
         }
 
         @Override public int hashCode() {
@@ -145,7 +179,8 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
                 this.rootDirectoryHint,
                 this.file,
                 this.primarySelection,
-                this.completeDeterministic
+                this.completeDeterministic,
+                this.options
             );
         }
 
@@ -154,11 +189,17 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
                 "primarySelection=" + primarySelection + ", " +
                 "rootDirectoryHint=" + rootDirectoryHint + ", " +
                 "file=" + file + ", " +
-                "completeDeterministic=" + completeDeterministic +
+                "completeDeterministic=" + completeDeterministic + ", " +
+                "options=" + options +
                 "}";
         }
     }
 
+    /** The default maximum number of states expanded by the code completion search. */
+    public static final long DEFAULT_MAX_EXPANDED_STATES = 10_000;
+    /** The default maximum number of times the code completion search invokes the solver. */
+    public static final long DEFAULT_MAX_SOLVER_INVOCATIONS = 10_000;
+
     private final Logger log;
     private final JsglrParseTaskDef parseTask;
     private final ConstraintAnalyzeFile analyzeFileTask;
@@ -177,6 +218,14 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
     private final String statixSecName;
     private final String statixRootPredicateName;
     private Supplier<@Nullable CodeCompletionEventHandler> eventHandlerProvider;
+    /** The maximum number of states expanded by the code completion search. */
+    private long maxExpandedStates = DEFAULT_MAX_EXPANDED_STATES;
+    /** The maximum number of times the code completion search invokes the solver. */
+    private long maxSolverInvocations = DEFAULT_MAX_SOLVER_INVOCATIONS;
+    /** The executor on which the declarations of a query are expanded in parallel; or {@code null}. */
+    private @Nullable Executor queryExpansionExecutor = null;
+    /** The analyzed solver states of the most recently completed files, with their data well-formedness results. */
+    private final AnalyzedStateCache analyzedStateCache = new AnalyzedStateCache(8);
 
     /**
      * Initializes a new instance of the {@link CodeCompletionTaskDef} class.
@@ -265,6 +314,41 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         this.eventHandlerProvider = eventHandlerProvider;
     }
 
+    /**
+     * Sets the search limits for this task.
+     *
+     * Together with the time budget of the {@link CodeCompletionOptions}, these limits form the budget of each
+     * code completion search. When the budget is exhausted, the proposals found so far are returned.
+     *
+     * @param maxExpandedStates the maximum number of expanded states; or {@link Long#MAX_VALUE} for no maximum
+     * @param maxSolverInvocations the maximum number of solver invocations; or {@link Long#MAX_VALUE} for no maximum
+     */
+    public void withSearchLimits(long maxExpandedStates, long maxSolverInvocations) {
+        if (maxExpandedStates < 0) throw new IllegalArgumentException("'maxExpandedStates' must be greater than or equal to 0.");
+        if (maxSolverInvocations < 0) throw new IllegalArgumentException("'maxSolverInvocations' must be greater than or equal to 0.");
+        this.maxExpandedStates = maxExpandedStates;
+        this.maxSolverInvocations = maxSolverInvocations;
+    }
+
+    /**
+     * Sets the executor on which the code completion search expands the declarations of a query in parallel.
+     *
+     * @param queryExpansionExecutor the executor, usually a {@link java.util.concurrent.ForkJoinPool};
+     *                               or {@code null} to expand the declarations sequentially
+     */
+    public void withQueryExpansionExecutor(@Nullable Executor queryExpansionExecutor) {
+        this.queryExpansionExecutor = queryExpansionExecutor;
+    }
+
+    /**
+     * Gets the cache of analyzed solver states of the most recently completed files.
+     *
+     * @return the cache
+     */
+    public AnalyzedStateCache getAnalyzedStateCache() {
+        return analyzedStateCache;
+    }
+
     /**
      * Keeps objects used by the code completion algorithm in a more accessible place.
      */
@@ -282,6 +366,8 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         private final Spec spec;
         /** Whether to perform deterministic completion. */
         private final boolean completeDeterministic;
+        /** The code completion options. */
+        private final CodeCompletionOptions options;
 
         /**
          * Initializes a new instance of the {@link Execution} class.
@@ -305,6 +391,7 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
             this.file = input.file;
             this.primarySelection = input.primarySelection;
             this.completeDeterministic = input.completeDeterministic;
+            this.options = input.options;
         }
 
         /**
@@ -324,38 +411,82 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
             final IStrategoTerm parsedAst = parsedAstResult.unwrapUnchecked();
             if (eventHandler != null) eventHandler.endParse();
 
-            // Prepare the AST (explicate, add term indices, upgrade placeholders)
+            // Prepare the AST (explicate, add term indices, upgrade placeholders),
+            // unless the same parsed AST was prepared and analyzed before
             if (eventHandler != null) eventHandler.beginPreparation();
-            final Result<IStrategoTerm, ?> explicatedAstResult = preAnalyze(parsedAst);
-            if (explicatedAstResult.isErr()) return explicatedAstResult.ignoreValueIfErr();
-            final IStrategoTerm explicatedAst = explicatedAstResult.unwrapUnchecked();
-            final IStrategoTerm indexedAst = addTermIndices(explicatedAst);
-            final ITerm statixAst = toStatix(indexedAst);
-            final PlaceholderVarMap placeholderVarMap = new PlaceholderVarMap(file.toString());
-            final Result<ITerm, ?> upgradedAstResult = upgradePlaceholders(statixAst, placeholderVarMap);
-            if (upgradedAstResult.isErr()) return upgradedAstResult.ignoreValueIfErr();
-            final ITerm upgradedAst = upgradedAstResult.unwrapUnchecked();
+            @Nullable final AnalyzedStateCache.Entry parsedAstEntry = analyzedStateCache.getByParsedAst(file, spec, parsedAst);
+            final ITerm upgradedAst;
+            @Nullable final AnalyzedStateCache.Entry cachedEntry;
+            @Nullable final SolverState initialState;
+            if (parsedAstEntry != null) {
+                upgradedAst = parsedAstEntry.getPreparedAst();
+                cachedEntry = parsedAstEntry;
+                initialState = null;
+            } else {
+                final Result<IStrategoTerm, ?> explicatedAstResult = preAnalyze(parsedAst);
+                if (explicatedAstResult.isErr()) return explicatedAstResult.ignoreValueIfErr();
+                final IStrategoTerm explicatedAst = explicatedAstResult.unwrapUnchecked();
+                final IStrategoTerm indexedAst = addTermIndices(explicatedAst);
+                final ITerm statixAst = toStatix(indexedAst);
+                final PlaceholderVarMap placeholderVarMap = new PlaceholderVarMap(file.toString());
+                final Result<ITerm, ?> upgradedAstResult = upgradePlaceholders(statixAst, placeholderVarMap);
+                if (upgradedAstResult.isErr()) return upgradedAstResult.ignoreValueIfErr();
+                upgradedAst = upgradedAstResult.unwrapUnchecked();
+                // The AST may be equal to the previously analyzed AST, e.g., when only layout changed
+                cachedEntry = analyzedStateCache.getByPreparedAst(file, spec, upgradedAst);
+                initialState = cachedEntry == null ? createInitialSolverState(upgradedAst, statixSecName, statixRootPredicateName, placeholderVarMap) : null;
+            }
             final ITermVar placeholder = getCompletionPlaceholder(upgradedAst);
-            final SolverState initialState = createInitialSolverState(upgradedAst, statixSecName, statixRootPredicateName, placeholderVarMap);
             if (eventHandler != null) eventHandler.endPreparation();
 
-            // Analyze the AST
+            // Analyze the AST, unless its analysis is cached
             if (eventHandler != null) eventHandler.beginAnalysis();
-            final SolverState analyzedState = analyze(initialState);
+            final AnalyzedStateCache.Entry entry;
+            if (cachedEntry != null) {
+                log.trace("Reusing the cached analysis of {}.", file);
+                entry = cachedEntry.withParsedAst(parsedAst);
+            } else {
+                entry = new AnalyzedStateCache.Entry(spec, parsedAst, upgradedAst, analyze(Objects.requireNonNull(initialState)));
+            }
+            analyzedStateCache.put(file, entry);
+            final SolverState analyzedState = entry.getAnalyzedState();
+            // The data well-formedness results can only be reused on the same analyzed state
+            final DataWFCache dataWFCache = entry.getDataWFCache();
             if (eventHandler != null) eventHandler.endAnalysis();
 
-            // Execute the code completion Tego strategy
+            // Execute the code completion Tego strategy,
+            // ranking the proposals and streaming them to the listener as they are found
             if (eventHandler != null) eventHandler.beginCodeCompletion();
-            final Seq<CodeCompletionProposal> completionProposals = complete(analyzedState, placeholder, Collections.emptyList() /* TODO: Get the set of analysis errors */);
-            final Seq<CodeCompletionProposal> filteredProposals = filterProposals(completionProposals);
-            final List<CodeCompletionProposal> instantiatedProposals = filteredProposals.toList(); // NOTE: This is where we actually coerce the lazy list find the completions.
+            final Region placeholderRegion = getRegion(placeholder, Region.atOffset(primarySelection.getStartOffset() /* TODO: Support the whole selection? */));
+            final SearchBudget budget = new SearchBudget(options.getTimeBudgetMillis(), maxExpandedStates, maxSolverInvocations);
+            final DataWFCache.Stats dataWFCacheStatsBefore = dataWFCache.getStats();
+            final Seq<CodeCompletionProposal> completionProposals = complete(analyzedState, placeholder, Collections.emptyList() /* TODO: Get the set of analysis errors */, budget, dataWFCache);
+            final List<RankedProposal> rankedProposals = new ArrayList<>();
+            final Result<Boolean, ?> isCompleteResult;
+            // Closing the proposals stops the search when it was stopped early, including any parallel branches
+            try (final Seq<CodeCompletionProposal> filteredProposals = filterProposals(completionProposals)) {
+                isCompleteResult = collectProposals(filteredProposals, placeholderRegion, rankedProposals); // NOTE: This is where we actually coerce the lazy list find the completions.
+            } catch (InterruptedException | RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new RuntimeException("Unexpected " + ex.getClass().getSimpleName() + ": " + ex.getMessage(), ex);
+            }
+            if (isCompleteResult.isErr()) return isCompleteResult.ignoreValueIfErr();
+            // When the budget was exhausted, the search was cut short and the proposals found so far are returned
+            final boolean isBudgetExhausted = budget.getExhaustion() != null;
+            if (isBudgetExhausted) {
+                log.debug("Completion stopped after {} proposals: search budget exhausted, {}.", rankedProposals.size(), budget);
+                if (eventHandler != null) eventHandler.budgetExhausted(budget);
+            }
+            final boolean isComplete = isCompleteResult.unwrapUnchecked() && !isBudgetExhausted;
+            final DataWFCache.Stats dataWFCacheStats = dataWFCache.getStats().since(dataWFCacheStatsBefore);
+            log.trace("Data WF cache: {}", dataWFCacheStats);
+            if (eventHandler != null) eventHandler.dataWFCacheStats(dataWFCacheStats);
             if (eventHandler != null) eventHandler.endCodeCompletion();
 
-            // Get, convert, and prepare the proposals
+            // Convert the remaining proposals
             if (eventHandler != null) eventHandler.beginFinishing();
-            final List<CodeCompletionProposal> orderedProposals = orderProposals(instantiatedProposals);
-            final Region placeholderRegion = getRegion(placeholder, Region.atOffset(primarySelection.getStartOffset() /* TODO: Support the whole selection? */));
-            final Result<List<CodeCompletionItem>, ?> finalProposalsResult = proposalsToCodeCompletionItems(orderedProposals, placeholderRegion);
+            final Result<List<CodeCompletionItem>, ?> finalProposalsResult = proposalsToCodeCompletionItems(rankedProposals, placeholderRegion);
             if (finalProposalsResult.isErr()) return finalProposalsResult.ignoreValueIfErr();
             final List<CodeCompletionItem> finalProposals = finalProposalsResult.unwrapUnchecked();
             if (eventHandler != null) eventHandler.endFinishing();
@@ -372,7 +503,7 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
                 placeholder,
                 ListView.copyOf(finalProposals),
                 Objects.requireNonNull(tryGetRegion(placeholder)),
-                true
+                isComplete
             ));
         }
 
@@ -559,13 +690,16 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
          * @param state the analyzed solver state
          * @param placeholder the placeholder being completed
          * @param allowedErrors the collection of allowed errors
+         * @param budget the search budget
+         * @param dataWFCache the data well-formedness results of query expansions on the analyzed solver state
          * @return a lazy sequence of code completion proposals
          */
-        private Seq<CodeCompletionProposal> complete(SolverState state, ITermVar placeholder, Collection<Map.Entry<IConstraint, IMessage>> allowedErrors) {
+        private Seq<CodeCompletionProposal> complete(SolverState state, ITermVar placeholder, Collection<Map.Entry<IConstraint, IMessage>> allowedErrors, SearchBudget budget, DataWFCache dataWFCache) {
             // Create a strategy that fails if the term is not an injection
             final Strategy<ITerm, @Nullable ITerm> isInjPredicate = pred(this::isInjection);
 
-            final SolverContext ctx = new SolverContext(placeholder, allowedErrors, isInjPredicate, completeDeterministic);
+            final SolverContext ctx = new SolverContext(placeholder, allowedErrors, isInjPredicate, completeDeterministic, budget, dataWFCache)
+                .withQueryExpansionExecutor(queryExpansionExecutor);
 
             final ITerm termInUnifier = state.getState().unifier().findRecursive(placeholder);
             if (!termInUnifier.equals(placeholder)) {
@@ -594,24 +728,60 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         }
 
         /**
-         * Orders the list of proposals.
+         * Collects the proposals from the lazy sequence, ranking them as they are found.
          *
-         * @param proposals the list of proposals
-         * @return the ordered list of completion proposals
+         * When there is a listener, each proposal is converted to a code completion item as soon as it is found,
+         * and reported to the listener. The search stops when the sequence is exhausted, when the maximum number
+         * of proposals has been found, or when the listener stops it. The time budget is enforced by the search budget,
+         * which ends the sequence when the time is used up.
+         *
+         * @param proposals the lazy sequence of proposals
+         * @param placeholderRegion the placeholder region to be replaced
+         * @param rankedProposals the list to which the proposals are added, ordered by their rank
+         * @return {@code true} when all proposals have been found; otherwise, {@code false} when the search was stopped
+         * @throws InterruptedException if the operation was interrupted
+         */
+        private Result<Boolean, ?> collectProposals(Seq<CodeCompletionProposal> proposals, Region placeholderRegion, List<RankedProposal> rankedProposals) throws InterruptedException {
+            final @Nullable CodeCompletionListener listener = options.getListener();
+            while (rankedProposals.size() < options.getMaxProposals()) {
+                if (!proposals.next()) return Result.ofOk(true);
+                final CodeCompletionProposal proposal = proposals.getCurrent();
+                final RankedProposal rankedProposal = new RankedProposal(proposal, rankTerm(proposal.getTerm()));
+                insertRanked(rankedProposals, rankedProposal);
+                if (listener != null) {
+                    final Result<CodeCompletionItem, ?> itemResult = proposalToCodeCompletionItem(proposal, placeholderRegion);
+                    if (itemResult.isErr()) return itemResult.ignoreValueIfErr();
+                    final CodeCompletionItem item = itemResult.unwrapUnchecked();
+                    rankedProposal.item = item;
+                    if (!listener.onProposal(item)) {
+                        log.debug("Completion stopped after {} proposals: stopped by listener.", rankedProposals.size());
+                        return Result.ofOk(false);
+                    }
+                }
+            }
+            log.debug("Completion stopped after {} proposals: maximum reached.", rankedProposals.size());
+            return Result.ofOk(false);
+        }
+
+        /**
+         * Inserts a proposal into the list of proposals ordered by rank,
+         * after any proposals with the same rank.
+         *
+         * @param rankedProposals the list of proposals, ordered by rank
+         * @param rankedProposal the proposal to insert
          */
-        private List<CodeCompletionProposal> orderProposals(List<CodeCompletionProposal> proposals) {
-            return proposals.stream().sorted(Comparator
-                // Sort expanded queries after expanded rules before leftovers
-                .<CodeCompletionProposal, Integer>comparing(it -> it.getState().getMeta().getExpandedQueries() > 0 ? 2 : (it.getState().getMeta().getExpandedRules() > 0 ? 1 : 0))
-                // Sort more expanded queries after less expanded queries
-                .<Integer>thenComparing(it -> it.getState().getMeta().getExpandedQueries())
-                // Sort more expanded rules after less expanded rules
-                .<Integer>thenComparing(it -> it.getState().getMeta().getExpandedRules())
-                // Sort solutions with higher rank after solutions with lower rank
-                .<Integer>thenComparing(it -> rankTerm(it.getTerm()))
-                // Reverse the whole thing
-                .reversed()
-            ).collect(Collectors.toList());
+        private void insertRanked(List<RankedProposal> rankedProposals, RankedProposal rankedProposal) {
+            int low = 0;
+            int high = rankedProposals.size();
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (RankedProposal.ORDER.compare(rankedProposals.get(mid), rankedProposal) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            rankedProposals.add(low, rankedProposal);
         }
 
         /**
@@ -648,16 +818,21 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         }
 
         /**
-         * Converts a list of proposals to a list of strings.
+         * Converts a list of proposals to a list of code completion items.
          *
-         * @param proposals the list of proposals
+         * @param proposals the list of proposals, ordered by rank
          * @param placeholderRegion the placeholder region to be replaced
-         * @return the list of completion proposals terms
+         * @return the list of completion items
          */
-        private Result<List<CodeCompletionItem>, ?> proposalsToCodeCompletionItems(List<CodeCompletionProposal> proposals, Region placeholderRegion) {
-            final List<CodeCompletionItem> items = new ArrayList<>();
-            for (CodeCompletionProposal proposal : proposals) {
-                final Result<CodeCompletionItem, ?> codeCompletionItemResult = proposalToCodeCompletionItem(proposal, placeholderRegion);
+        private Result<List<CodeCompletionItem>, ?> proposalsToCodeCompletionItems(List<RankedProposal> proposals, Region placeholderRegion) {
+            final List<CodeCompletionItem> items = new ArrayList<>(proposals.size());
+            for (RankedProposal proposal : proposals) {
+                if (proposal.item != null) {
+                    // Already converted when it was reported to the listener
+                    items.add(proposal.item);
+                    continue;
+                }
+                final Result<CodeCompletionItem, ?> codeCompletionItemResult = proposalToCodeCompletionItem(proposal.proposal, placeholderRegion);
                 if (codeCompletionItemResult.isErr()) return codeCompletionItemResult.ignoreValueIfErr();
                 items.add(codeCompletionItemResult.unwrapUnchecked());
             }
@@ -722,4 +897,38 @@ public class CodeCompletionTaskDef implements TaskDef<CodeCompletionTaskDef.Inpu
         }
     }
 
+    /**
+     * A proposal with its ranking keys, computed once when the proposal is found.
+     */
+    private static final class RankedProposal {
+        /** Orders the proposals from best to worst. */
+        static final Comparator<RankedProposal> ORDER = Comparator
+            // Sort expanded queries after expanded rules before leftovers
+            .<RankedProposal>comparingInt(it -> it.category)
+            // Sort more expanded queries after less expanded queries
+            .thenComparingInt(it -> it.expandedQueries)
+            // Sort more expanded rules after less expanded rules
+            .thenComparingInt(it -> it.expandedRules)
+            // Sort solutions with higher rank after solutions with lower rank
+            .thenComparingInt(it -> it.rank)
+            // Reverse the whole thing
+            .reversed();
+
+        final CodeCompletionProposal proposal;
+        final int category;
+        final int expandedQueries;
+        final int expandedRules;
+        final int rank;
+        /** The code completion item, if it was already converted; otherwise, {@code null}. */
+        @Nullable CodeCompletionItem item = null;
+
+        RankedProposal(CodeCompletionProposal proposal, int rank) {
+            this.proposal = proposal;
+            this.expandedQueries = proposal.getState().getMeta().getExpandedQueries();
+            this.expandedRules = proposal.getState().getMeta().getExpandedRules();
+            this.category = expandedQueries > 0 ? 2 : (expandedRules > 0 ? 1 : 0);
+            this.rank = rank;
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package mb.statix.codecompletion.pie;
 
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SearchBudget;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -19,6 +21,8 @@ public final class MeasuringCodeCompletionEventHandler extends CodeCompletionEve
     private long finishingEndTime = Long.MIN_VALUE;
     private long startTime = Long.MIN_VALUE;
     private long endTime = Long.MIN_VALUE;
+    private @Nullable SearchBudget.Exhaustion budgetExhaustion = null;
+    private @Nullable DataWFCache.Stats dataWFCacheStats = null;
 
     /** The parsing time, in nanoseconds. */
     public @Nullable Long getParseTime() {
@@ -45,6 +49,16 @@ public final class MeasuringCodeCompletionEventHandler extends CodeCompletionEve
         if (this.endTime != Long.MIN_VALUE && this.startTime != Long.MIN_VALUE) return this.endTime - this.startTime; else return null;
     }
 
+    /** The reason the search budget was exhausted; or {@code null} when the search was not cut short. */
+    public @Nullable SearchBudget.Exhaustion getBudgetExhaustion() {
+        return this.budgetExhaustion;
+    }
+
+    /** The data well-formedness cache lookups during code completion; or {@code null} when not reported. */
+    public @Nullable DataWFCache.Stats getDataWFCacheStats() {
+        return this.dataWFCacheStats;
+    }
+
     @Override
     public void begin() {
         super.begin();
@@ -108,6 +122,18 @@ public final class MeasuringCodeCompletionEventHandler extends CodeCompletionEve
         this.codeCompletionEndTime = System.nanoTime();
     }
 
+    @Override
+    public void budgetExhausted(SearchBudget budget) {
+        super.budgetExhausted(budget);
+        this.budgetExhaustion = budget.getExhaustion();
+    }
+
+    @Override
+    public void dataWFCacheStats(DataWFCache.Stats stats) {
+        super.dataWFCacheStats(stats);
+        this.dataWFCacheStats = stats;
+    }
+
     @Override
     public void beginFinishing() {
         super.beginFinishing();
@@ -0,0 +1,243 @@
+package mb.statix.codecompletion;
+
+import mb.nabl2.terms.ITerm;
+import mb.nabl2.terms.ITermVar;
+import mb.nabl2.terms.unification.ud.IUniDisunifier;
+import mb.statix.solver.IState;
+import mb.statix.solver.completeness.ICompleteness;
+import mb.statix.spec.Rule;
+import mb.statix.spec.Spec;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A thread-safe cache of whether the data well-formedness predicate of a query holds for a datum.
+ *
+ * Expanding a query applies its data well-formedness predicate to each datum that is visible in the scope,
+ * which runs the Statix solver. Whether such an application succeeds depends on the predicate, the datum,
+ * the values of the variables in the datum and the predicate, the completeness, and the disequalities of the state
+ * in which it is applied. Therefore, the cache is keyed on the predicate, the datum as projected through the unifier,
+ * the projection of the free variables of the predicate, the completeness, and the disequalities of the unifier.
+ * Additionally, only verdicts computed with the same Statix specification instance and scope graph instance
+ * are reused.
+ *
+ * Only the verdict is cached, not the solver result, since the solver result introduces fresh variables
+ * that are only valid in the state in which the predicate was applied.
+ *
+ * The cache is shared by all expansions of a code completion request, and can be shared among requests
+ * on the same analyzed solver state. Since its keys hold the specification and scope graph instances,
+ * it should not outlive that state; the verdicts could not be reused on another state anyway.
+ * It evicts the least recently used entries when it holds more than the maximum number of entries.
+ */
+public final class DataWFCache {
+
+    private final int maximumSize;
+    /** The entries, in access order. Guarded by {@code this}. */
+    private final LinkedHashMap<Key, Boolean> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Guarded by {@code this}. */
+    private long hitCount = 0;
+    /** Guarded by {@code this}. */
+    private long missCount = 0;
+    /** Guarded by {@code this}. */
+    private long evictionCount = 0;
+
+    /**
+     * Initializes a new instance of the {@link DataWFCache} class.
+     *
+     * @param maximumSize the maximum number of entries in the cache
+     */
+    public DataWFCache(int maximumSize) {
+        if (maximumSize < 0) throw new IllegalArgumentException("'maximumSize' must be greater than or equal to 0.");
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached verdict of applying the data well-formedness predicate to the datum,
+     * or computes the verdict and caches it.
+     *
+     * The verdict is computed outside the lock of the cache. When two threads compute the same verdict
+     * at the same time, both compute it and the last verdict is cached.
+     *
+     * @param spec the Statix specification
+     * @param dataWF the data well-formedness predicate
+     * @param datum the datum
+     * @param state the solver state in which the predicate is applied
+     * @param completeness the completeness of the state in which the predicate is applied
+     * @param compute computes the verdict when it is not cached
+     * @return {@code true} when the predicate could be applied to the datum; otherwise, {@code false}
+     */
+    public boolean getOrCompute(
+        Spec spec,
+        Rule dataWF,
+        ITerm datum,
+        IState.Immutable state,
+        ICompleteness.Immutable completeness,
+        BooleanSupplier compute
+    ) {
+        final Key key = Key.of(spec, dataWF, datum, state, completeness);
+        synchronized(this) {
+            final @Nullable Boolean result = entries.get(key);
+            if (result != null) {
+                hitCount += 1;
+                return result;
+            }
+            missCount += 1;
+        }
+        final boolean result = compute.getAsBoolean();
+        put(key, result);
+        return result;
+    }
+
+    private synchronized void put(Key key, boolean result) {
+        if (maximumSize == 0) return;
+        entries.put(key, result);
+        final Iterator<Key> iterator = entries.keySet().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount += 1;
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     *
+     * This does not reset the statistics.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, entries.size());
+    }
+
+    /**
+     * The key of a cached verdict.
+     */
+    private static final class Key {
+        private final Spec spec;
+        private final Object scopeGraph;
+        private final Rule dataWF;
+        private final ITerm datum;
+        private final Map<ITermVar, ITerm> freeVars;
+        private final ICompleteness.Immutable completeness;
+        private final Object disequalities;
+        private final int hashCode;
+
+        private Key(
+            Spec spec,
+            Object scopeGraph,
+            Rule dataWF,
+            ITerm datum,
+            Map<ITermVar, ITerm> freeVars,
+            ICompleteness.Immutable completeness,
+            Object disequalities
+        ) {
+            this.spec = spec;
+            this.scopeGraph = scopeGraph;
+            this.dataWF = dataWF;
+            this.datum = datum;
+            this.freeVars = freeVars;
+            this.completeness = completeness;
+            this.disequalities = disequalities;
+            this.hashCode = Objects.hash(System.identityHashCode(spec), System.identityHashCode(scopeGraph), dataWF, datum, freeVars, completeness, disequalities);
+        }
+
+        static Key of(Spec spec, Rule dataWF, ITerm datum, IState.Immutable state, ICompleteness.Immutable completeness) {
+            final IUniDisunifier.Immutable unifier = state.unifier();
+            final HashMap<ITermVar, ITerm> freeVars = new HashMap<>();
+            for (ITermVar v : dataWF.body().freeVars()) {
+                freeVars.put(v, unifier.findRecursive(v));
+            }
+            return new Key(spec, state.scopeGraph(), dataWF, unifier.findRecursive(datum), freeVars, completeness, unifier.disequalities());
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            final Key that = (Key)obj;
+            return this.hashCode == that.hashCode
+                && this.spec == that.spec
+                && this.scopeGraph == that.scopeGraph
+                && this.dataWF.equals(that.dataWF)
+                && this.datum.equals(that.datum)
+                && this.freeVars.equals(that.freeVars)
+                && this.completeness.equals(that.completeness)
+                && this.disequalities.equals(that.disequalities);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The statistics of a {@link DataWFCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+
+        /* package private */ Stats(long hitCount, long missCount, long evictionCount, long size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        /** Gets the number of lookups that found a cached result. */
+        public long getHitCount() { return hitCount; }
+
+        /** Gets the number of lookups that did not find a cached result, and ran the solver. */
+        public long getMissCount() { return missCount; }
+
+        /** Gets the number of entries that were evicted. */
+        public long getEvictionCount() { return evictionCount; }
+
+        /** Gets the number of entries in the cache. */
+        public long getSize() { return size; }
+
+        /**
+         * Gets the statistics accumulated since the specified earlier statistics were taken.
+         *
+         * When the cache is shared among concurrent requests, this includes the lookups of the other requests.
+         *
+         * @param earlier the earlier statistics of the same cache
+         * @return the difference between these statistics and the earlier statistics
+         */
+        public Stats since(Stats earlier) {
+            return new Stats(
+                hitCount - earlier.hitCount,
+                missCount - earlier.missCount,
+                evictionCount - earlier.evictionCount,
+                size
+            );
+        }
+
+        @Override public String toString() {
+            return "{" +
+                "hits: " + hitCount +
+                ", misses: " + missCount +
+                ", evictions: " + evictionCount +
+                ", size: " + size +
+                " }";
+        }
+    }
+
+}
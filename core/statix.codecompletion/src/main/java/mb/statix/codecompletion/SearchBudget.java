@@ -0,0 +1,147 @@
+package mb.statix.codecompletion;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The budget of a code completion search.
+ *
+ * The budget bounds the wall time of the search, the number of states expanded by the search,
+ * and the number of times the solver is invoked. When any of these is used up, the budget is exhausted,
+ * and the search strategies stop expanding further states. The states found so far are still returned.
+ *
+ * This class is thread-safe.
+ */
+public final class SearchBudget {
+
+    /**
+     * The reason why a budget is exhausted.
+     */
+    public enum Exhaustion {
+        /** The time budget was used up. */
+        Time,
+        /** The maximum number of expanded states was reached. */
+        ExpandedStates,
+        /** The maximum number of solver invocations was reached. */
+        SolverInvocations,
+    }
+
+    /** The deadline, in {@link System#nanoTime()} nanoseconds; or {@link Long#MAX_VALUE} when there is none. */
+    private final long deadlineNanos;
+    private final long maxExpandedStates;
+    private final long maxSolverInvocations;
+    private final AtomicLong expandedStates = new AtomicLong();
+    private final AtomicLong solverInvocations = new AtomicLong();
+    /** The reason the budget was exhausted; or {@code null} when it is not exhausted. */
+    private final AtomicReference<@Nullable Exhaustion> exhaustion = new AtomicReference<>();
+
+    /**
+     * Initializes a new instance of the {@link SearchBudget} class.
+     *
+     * The time budget starts when the instance is created.
+     *
+     * @param timeBudgetMillis the time budget, in milliseconds; or {@link Long#MAX_VALUE} for no time budget
+     * @param maxExpandedStates the maximum number of expanded states; or {@link Long#MAX_VALUE} for no maximum
+     * @param maxSolverInvocations the maximum number of solver invocations; or {@link Long#MAX_VALUE} for no maximum
+     */
+    public SearchBudget(long timeBudgetMillis, long maxExpandedStates, long maxSolverInvocations) {
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("'timeBudgetMillis' must be greater than or equal to 0.");
+        if (maxExpandedStates < 0) throw new IllegalArgumentException("'maxExpandedStates' must be greater than or equal to 0.");
+        if (maxSolverInvocations < 0) throw new IllegalArgumentException("'maxSolverInvocations' must be greater than or equal to 0.");
+        final long timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        final long now = System.nanoTime();
+        this.deadlineNanos = timeBudgetNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeBudgetNanos;
+        this.maxExpandedStates = maxExpandedStates;
+        this.maxSolverInvocations = maxSolverInvocations;
+    }
+
+    /**
+     * Creates a budget that is never exhausted.
+     *
+     * @return the budget
+     */
+    public static SearchBudget unlimited() {
+        return new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes one expanded state from the budget.
+     *
+     * @return {@code true} when the state may be expanded;
+     * otherwise, {@code false} when the budget is exhausted
+     */
+    public boolean tryExpandState() {
+        if (isExhausted()) return false;
+        if (expandedStates.incrementAndGet() > maxExpandedStates) {
+            exhaust(Exhaustion.ExpandedStates);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes one solver invocation from the budget.
+     *
+     * @return {@code true} when the solver may be invoked;
+     * otherwise, {@code false} when the budget is exhausted
+     */
+    public boolean trySolverInvocation() {
+        if (isExhausted()) return false;
+        if (solverInvocations.incrementAndGet() > maxSolverInvocations) {
+            exhaust(Exhaustion.SolverInvocations);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether the budget is exhausted.
+     *
+     * @return {@code true} when the budget is exhausted; otherwise, {@code false}
+     */
+    public boolean isExhausted() {
+        if (exhaustion.get() != null) return true;
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+            exhaust(Exhaustion.Time);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the reason why the budget is exhausted.
+     *
+     * This does not check the time budget; call {@link #isExhausted()} for that.
+     *
+     * @return the reason; or {@code null} when the budget was not exhausted
+     */
+    public @Nullable Exhaustion getExhaustion() {
+        return exhaustion.get();
+    }
+
+    /** Gets the number of states expanded so far. */
+    public long getExpandedStates() {
+        return Math.min(expandedStates.get(), maxExpandedStates);
+    }
+
+    /** Gets the number of solver invocations so far. */
+    public long getSolverInvocations() {
+        return Math.min(solverInvocations.get(), maxSolverInvocations);
+    }
+
+    private void exhaust(Exhaustion reason) {
+        // Only the first reason is recorded
+        exhaustion.compareAndSet(null, reason);
+    }
+
+    @Override public String toString() {
+        return "SearchBudget{" +
+            "expandedStates=" + getExpandedStates() +
+            ", solverInvocations=" + getSolverInvocations() +
+            ", exhaustion=" + exhaustion.get() +
+            '}';
+    }
+}
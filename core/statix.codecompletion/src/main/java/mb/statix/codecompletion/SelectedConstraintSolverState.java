@@ -48,6 +48,8 @@ public final class SelectedConstraintSolverState<C extends IConstraint> extends
 
     private final C selected;
     private final Set.Immutable<IConstraint> unselected;
+    /** The cached hash code; or 0 when not yet computed. */
+    private int hashCode = 0;
 
     /**
      * Initializes a new instance of the {@link SolverState} class.
@@ -235,10 +237,16 @@ public final class SelectedConstraintSolverState<C extends IConstraint> extends
 
     @Override
     public int hashCode() {
-        return Objects.hash(
-            this.selected,
-            super.hashCode()
-        );
+        // The state is immutable, so the hash code is computed once.
+        int result = this.hashCode;
+        if(result == 0) {
+            result = Objects.hash(
+                this.selected,
+                super.hashCode()
+            );
+            this.hashCode = result;
+        }
+        return result;
     }
 
     @Override
@@ -9,30 +9,67 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * The context in which the search is performed.
  */
 public final class SolverContext {
 
+    /** The default maximum number of entries in a new data well-formedness cache. */
+    public static final int DEFAULT_DATA_WF_CACHE_SIZE = 10_000;
+
     private final @Nullable ITermVar focusVar;
     private final Collection<Map.Entry<IConstraint, IMessage>> allowedErrors;
     private final Strategy<ITerm, @Nullable ITerm> isInjPredicate;
     private final boolean completeDeterministic;
+    private final SearchBudget budget;
+    private final DataWFCache dataWFCache;
+    private final @Nullable Executor queryExpansionExecutor;
 
     /**
-     * Initializes a new instance of the {@link SolverContext} class.
+     * Initializes a new instance of the {@link SolverContext} class
+     * with a budget that is never exhausted and a new data well-formedness cache.
      */
     public SolverContext(
         @Nullable ITermVar focusVar,
         Collection<Map.Entry<IConstraint, IMessage>> allowedErrors,
         Strategy<ITerm, @Nullable ITerm> isInjPredicate,
         boolean completeDeterministic
+    ) {
+        this(focusVar, allowedErrors, isInjPredicate, completeDeterministic, SearchBudget.unlimited(), new DataWFCache(DEFAULT_DATA_WF_CACHE_SIZE));
+    }
+
+    /**
+     * Initializes a new instance of the {@link SolverContext} class.
+     */
+    public SolverContext(
+        @Nullable ITermVar focusVar,
+        Collection<Map.Entry<IConstraint, IMessage>> allowedErrors,
+        Strategy<ITerm, @Nullable ITerm> isInjPredicate,
+        boolean completeDeterministic,
+        SearchBudget budget,
+        DataWFCache dataWFCache
+    ) {
+        this(focusVar, allowedErrors, isInjPredicate, completeDeterministic, budget, dataWFCache, null);
+    }
+
+    private SolverContext(
+        @Nullable ITermVar focusVar,
+        Collection<Map.Entry<IConstraint, IMessage>> allowedErrors,
+        Strategy<ITerm, @Nullable ITerm> isInjPredicate,
+        boolean completeDeterministic,
+        SearchBudget budget,
+        DataWFCache dataWFCache,
+        @Nullable Executor queryExpansionExecutor
     ) {
         this.focusVar = focusVar;
         this.allowedErrors = allowedErrors;
         this.isInjPredicate = isInjPredicate;
         this.completeDeterministic = completeDeterministic;
+        this.budget = budget;
+        this.dataWFCache = dataWFCache;
+        this.queryExpansionExecutor = queryExpansionExecutor;
     }
 
     /**
@@ -53,7 +90,7 @@ public final class SolverContext {
      * @return the modified copy of the {@link SolverContext}
      */
     public SolverContext withFocusVar(@Nullable ITermVar focusVar) {
-        return new SolverContext(focusVar, allowedErrors, isInjPredicate, completeDeterministic);
+        return new SolverContext(focusVar, allowedErrors, isInjPredicate, completeDeterministic, budget, dataWFCache, queryExpansionExecutor);
     }
 
     /**
@@ -74,7 +111,7 @@ public final class SolverContext {
      * @return the modified copy of the {@link SolverContext}
      */
     public SolverContext withAllowedErrors(Collection<Map.Entry<IConstraint, IMessage>> allowedErrors) {
-        return new SolverContext(focusVar, allowedErrors, isInjPredicate, completeDeterministic);
+        return new SolverContext(focusVar, allowedErrors, isInjPredicate, completeDeterministic, budget, dataWFCache, queryExpansionExecutor);
     }
 
     /**
@@ -95,4 +132,49 @@ public final class SolverContext {
         return completeDeterministic;
     }
 
+    /**
+     * The budget of the search.
+     *
+     * The budget is shared by all copies of this context.
+     *
+     * @return the budget
+     */
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * The cache of data well-formedness results, used when expanding queries.
+     *
+     * The cache is shared by all copies of this context.
+     *
+     * @return the cache
+     */
+    public DataWFCache getDataWFCache() {
+        return dataWFCache;
+    }
+
+    /**
+     * The executor on which the declarations of a query are expanded in parallel.
+     *
+     * @return the executor; or {@code null} to expand the declarations sequentially
+     */
+    public @Nullable Executor getQueryExpansionExecutor() {
+        return queryExpansionExecutor;
+    }
+
+    /**
+     * Creates a copy of this {@link SolverContext} with the specified query expansion executor.
+     *
+     * The strategies that run on the executor share the search budget and data well-formedness cache,
+     * which are thread-safe.
+     *
+     * @param queryExpansionExecutor the executor on which the declarations of a query are expanded in parallel;
+     *                               or {@code null} to expand the declarations sequentially
+     * @return the modified copy of the {@link SolverContext}
+     */
+    public SolverContext withQueryExpansionExecutor(@Nullable Executor queryExpansionExecutor) {
+        return new SolverContext(focusVar, allowedErrors, isInjPredicate, completeDeterministic, budget, dataWFCache, queryExpansionExecutor);
+    }
+
 }
@@ -117,6 +117,13 @@ public class SolverState implements ISolverState {
     protected final Map.Immutable<IConstraint, IMessage> messages;
     protected final Set.Immutable<String> expanded;
     protected final SolutionMeta meta;
+    /**
+     * A cheap summary of the state, computed at construction, used to quickly reject unequal states.
+     * Equal states always have the same fingerprint.
+     */
+    private final int fingerprint;
+    /** The cached hash code; or 0 when not yet computed. */
+    private int hashCode = 0;
 
     /**
      * Initializes a new instance of the {@link SolverState} class.
@@ -151,6 +158,26 @@ public class SolverState implements ISolverState {
         this.completeness = completeness;
         this.expanded = expanded;
         this.meta = meta;
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Computes the fingerprint of this state.
+     *
+     * The fingerprint only uses the sizes of the collections, and the hash codes of the persistent collections,
+     * which are maintained incrementally and therefore cheap to get.
+     *
+     * @return the fingerprint
+     */
+    private int computeFingerprint() {
+        int result = constraints.size();
+        result = 31 * result + delays.size();
+        result = 31 * result + messages.size();
+        result = 31 * result + expanded.size();
+        result = 31 * result + state.vars().size();
+        result = 31 * result + constraints.hashCode();
+        result = 31 * result + delays.hashCode();
+        return result;
     }
 
     @Override public Spec getSpec() {
@@ -393,32 +420,43 @@ public class SolverState implements ISolverState {
      * otherwise, {@code false}
      */
     protected boolean safeEquals(SolverState that) {
+        // Quickly reject states with different fingerprints or different hash codes
+        if(this.fingerprint != that.fingerprint) return false;
+        if(this.hashCode != 0 && that.hashCode != 0 && this.hashCode != that.hashCode) return false;
         // NOTE: For the purposes of equality, we ignore the metadata
+        // NOTE: The fields are compared from cheapest to most expensive
         // @formatter:off
-        return Objects.equals(this.spec, that.spec)
-            && Objects.equals(this.state, that.state)
+        return (this.spec == that.spec || Objects.equals(this.spec, that.spec))
+            && Objects.equals(this.expanded, that.expanded)
             && Objects.equals(this.constraints, that.constraints)
             && Objects.equals(this.delays, that.delays)
+            && Objects.equals(this.messages, that.messages)
             && Objects.equals(this.existentials, that.existentials)
             && Objects.equals(this.completeness, that.completeness)
-            && Objects.equals(this.messages, that.messages)
-            && Objects.equals(this.expanded, that.expanded);
+            && Objects.equals(this.state, that.state);
         // @formatter:on
     }
 
     @Override
     public int hashCode() {
-        // NOTE: For the purposes of equality, we ignore the metadata
-        return Objects.hash(
-            this.spec,
-            this.state,
-            this.constraints,
-            this.delays,
-            this.existentials,
-            this.completeness,
-            this.messages,
-            this.expanded
-        );
+        // The state is immutable, so the hash code is computed once.
+        // This races benignly: concurrent threads compute the same value.
+        int result = this.hashCode;
+        if(result == 0) {
+            // NOTE: For the purposes of equality, we ignore the metadata
+            result = Objects.hash(
+                this.spec,
+                this.state,
+                this.constraints,
+                this.delays,
+                this.existentials,
+                this.completeness,
+                this.messages,
+                this.expanded
+            );
+            this.hashCode = result;
+        }
+        return result;
     }
 
     @Override public String toString() {
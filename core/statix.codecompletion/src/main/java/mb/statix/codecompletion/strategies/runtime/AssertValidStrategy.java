@@ -48,6 +48,8 @@ public final class AssertValidStrategy extends NamedStrategy2<SolverContext, ITe
 //        final DelayStuckQueriesStrategy delayStuckQueries = DelayStuckQueriesStrategy.getInstance();
         final NotStrategy<SolverState, SolverState> not = NotStrategy.getInstance();
 
+        // Each inference invokes the solver, which is taken from the search budget
+        if (!ctx.getBudget().trySolverInvocation()) return null;
         final @Nullable SolverState r1 = engine.eval(infer, input);
         if (r1 == null) return null;
 
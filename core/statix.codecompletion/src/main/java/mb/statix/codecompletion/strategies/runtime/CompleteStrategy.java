@@ -14,6 +14,10 @@ import java.util.Set;
 
 /**
  * The main entry point strategy for code completion.
+ *
+ * The search is bounded by the {@link mb.statix.codecompletion.SearchBudget} of the context.
+ * When the budget is exhausted, the expansion strategies stop expanding,
+ * and only the states that were found so far are returned.
  */
 public final class CompleteStrategy extends NamedStrategy3<SolverContext, ITermVar, Set<String>, SolverState, Seq<SolverState>> {
 
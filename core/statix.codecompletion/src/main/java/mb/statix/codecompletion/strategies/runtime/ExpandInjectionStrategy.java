@@ -42,6 +42,9 @@ public final class ExpandInjectionStrategy extends NamedStrategy3<SolverContext,
         Set<String> visitedInjections,
         SolverState input
     ) {
+        // Don't expand when the search budget is exhausted
+        if (ctx.getBudget().isExhausted()) return Seq.of();
+
         final CompleteStrategy complete = CompleteStrategy.getInstance();
 
         // Project the term
@@ -3,6 +3,7 @@ package mb.statix.codecompletion.strategies.runtime;
 import com.google.common.collect.ImmutableList;
 import io.usethesource.capsule.Set;
 import mb.nabl2.terms.ITermVar;
+import mb.statix.codecompletion.SearchBudget;
 import mb.statix.codecompletion.SelectedConstraintSolverState;
 import mb.statix.codecompletion.SolverContext;
 import mb.statix.codecompletion.SolverState;
@@ -53,6 +54,8 @@ public final class ExpandPredicateStrategy extends NamedStrategy2<SolverContext,
     }
 
     public static Seq<SolverState> eval(TegoEngine engine, SolverContext ctx, @Nullable ITermVar focus, SelectedConstraintSolverState<CUser> input) {
+        // Don't expand when the search budget is exhausted
+        if (ctx.getBudget().isExhausted()) return Seq.of();
         final CUser selected = input.getSelected();
         // Get the rules for the given predicate constraint
         final ImmutableList<Rule> rules = input.getSpec().rules().getOrderIndependentRules(selected.name()).asList();
@@ -65,7 +68,7 @@ public final class ExpandPredicateStrategy extends NamedStrategy2<SolverContext,
             .withExpanded(addToSet(input.getExpanded(), selected.name()))
             .withMeta(input.getMeta().withExpandedRulesIncremented());
 
-        return applyAllLazy(rules, selected, newState);
+        return applyAllLazy(rules, selected, newState, ctx.getBudget());
     }
 
     /**
@@ -105,16 +108,21 @@ public final class ExpandPredicateStrategy extends NamedStrategy2<SolverContext,
     /**
      * Applies the given rules to the arguments of the selected constraint, lazily.
      *
+     * Each new state is taken from the search budget. The sequence ends early when the budget is exhausted,
+     * which is checked before each rule is applied.
+     *
      * @param rules the rules to apply
      * @param selected the selected constraint
      * @param state the initial state
+     * @param budget the search budget
      * @return a sequence of new states
      */
     @SuppressWarnings("unused")
     private static Seq<SolverState> applyAllLazy(
         List<Rule> rules,
         CUser selected,
-        SolverState state
+        SolverState state,
+        SearchBudget budget
     ) {
         return new SeqBase<SolverState>() {
             private int index = 0;
@@ -122,7 +130,7 @@ public final class ExpandPredicateStrategy extends NamedStrategy2<SolverContext,
             protected void computeNext() {
                 @Nullable ApplyResult result;
                 do {
-                    if (index >= rules.size()) {
+                    if (index >= rules.size() || budget.isExhausted()) {
                         yieldBreak();
                         return;
                     }
@@ -131,6 +139,10 @@ public final class ExpandPredicateStrategy extends NamedStrategy2<SolverContext,
                         ApplyMode.RELAXED, ApplyMode.Safety.UNSAFE).orElse(null);
                     index += 1;
                 } while (result == null);
+                if (!budget.tryExpandState()) {
+                    yieldBreak();
+                    return;
+                }
                 final SolverState resultState = state.withApplyResult(result, selected);
                 this.yield(resultState);
             }
@@ -26,6 +26,8 @@ import mb.scopegraph.oopsla20.reference.RegExpLabelWF;
 import mb.scopegraph.oopsla20.reference.RelationLabelOrder;
 import mb.scopegraph.oopsla20.reference.ResolutionException;
 import mb.scopegraph.oopsla20.terms.newPath.ResolutionPath;
+import mb.statix.codecompletion.DataWFCache;
+import mb.statix.codecompletion.SearchBudget;
 import mb.statix.codecompletion.SelectedConstraintSolverState;
 import mb.statix.codecompletion.SolverContext;
 import mb.statix.codecompletion.SolverState;
@@ -55,7 +57,10 @@ import mb.statix.spec.Rule;
 import mb.statix.spec.RuleUtil;
 import mb.statix.spec.Spec;
 import mb.statix.spoofax.StatixTerms;
+import mb.tego.sequences.InterruptibleFunction;
+import mb.tego.sequences.ParallelFlatMapSeq;
 import mb.tego.sequences.Seq;
+import mb.tego.sequences.SeqBase;
 import mb.tego.strategies.NamedStrategy2;
 import mb.tego.strategies.runtime.TegoEngine;
 import mb.tego.utils.StreamUtils;
@@ -74,9 +79,12 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -144,6 +152,10 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         final IUniDisunifier.Immutable unifier = state.unifier();
         engine.log(instance, "Expand query: {}", query);
 
+        // Don't expand when the search budget is exhausted
+        final SearchBudget budget = ctx.getBudget();
+        if (budget.isExhausted()) return Seq.of();
+
         // Find the scope. If it is not ground, delay the query.
         if(!unifier.isGround(query.scopeTerm())) {
             // Delay
@@ -166,7 +178,7 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         }
 
         //final List<SolverState> output = expandQuerySlow(query, unifier, state, isAlways, scope, engine, input);
-        final List<SolverState> output = expandQueryFast(query, unifier, state, isAlways, scope, engine, input);
+        final List<SolverState> output = expandQueryFast(query, unifier, state, isAlways, scope, engine, input, budget, ctx.getDataWFCache(), ctx.getQueryExpansionExecutor());
 
         @Nullable final ITermVar focusVar = ctx.getFocusVar();
         if (focusVar != null && engine.isLogEnabled(instance)) {
@@ -178,9 +190,6 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         return Seq.from(output);
     }
 
-    private static int cached = 0;
-    private static int uncached = 0;
-
     // Old algorithm
     private static List<SolverState> expandQuerySlow(
         CResolveQuery query,
@@ -241,7 +250,10 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         @Nullable Boolean isAlways,
         Scope scope,
         TegoEngine engine,
-        SelectedConstraintSolverState<CResolveQuery> input
+        SelectedConstraintSolverState<CResolveQuery> input,
+        SearchBudget budget,
+        DataWFCache cache,
+        @Nullable Executor executor
     ) {
 
         final ICompleteness.Immutable completeness = input.getCompleteness();
@@ -252,22 +264,25 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         final IsComplete isComplete3 =
             (s, l, st) -> isComplete2.test(s, l);
         final ConstraintQueries constraintQueries = new ConstraintQueries(input.getSpec(), state, isComplete3);
-
-        final HashMap<ITerm, Optional<SolverResult>> cache = new HashMap<>();
+        // The solver results of applying the dataWF in this state, which are only valid in this state
+        final ConcurrentHashMap<ITerm, Optional<SolverResult>> results = new ConcurrentHashMap<>();
 
         final FastNameResolution<Scope, ITerm, ITerm> nameResolution = FastNameResolution.<Scope, ITerm, ITerm>builder()
             .withLabelWF(labelWF)
             .withLabelOrder(labelOrd)
             .withDataWF(t ->
+                // Don't apply the dataWF when the search budget is exhausted, since no declarations will be expanded
+                !budget.isExhausted()
                 // Assert that we can apply the dataWF to the input
-                applyDataWFCached(cache, query.filter().getDataWF(), t, state, unifier, completeness, input.getSpec()).isPresent()
+                && applyDataWFCached(cache, results, query.filter().getDataWF(), t, state, unifier, completeness, input.getSpec())
             )
             .withDataEquiv(new DataLeq<ITerm>() {
                 @Override public boolean leq(ITerm d1, ITerm d2)throws ResolutionException, InterruptedException {
                     // Apply the dataWF to each of the inputs. This should result in two solver results
                     // If this is not the case, this would already have failed the lambda in withDataWF().
-                    final SolverResult result1 = applyDataWFCached(cache, query.filter().getDataWF(), d1, state, unifier,  completeness, input.getSpec() ).get();
-                    final SolverResult result2 = applyDataWFCached(cache, query.filter().getDataWF(), d2, state, unifier,  completeness, input.getSpec() ).get();
+                    @Nullable final SolverResult result1 = applyDataWFLocal(results, query.filter().getDataWF(), d1, state, unifier, completeness, input.getSpec()).orElse(null);
+                    @Nullable final SolverResult result2 = applyDataWFLocal(results, query.filter().getDataWF(), d2, state, unifier, completeness, input.getSpec()).orElse(null);
+                    if (result1 == null || result2 == null) return false;
 
                     // For each free variable in the query body...
                     final Set.Immutable<ITermVar> varsToCompare = query.filter().getDataWF().body().freeVars();
@@ -322,6 +337,11 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
             .withIsComplete(isComplete2)
             .build(state.scopeGraph(),input.getSpec().allLabels() );
 
+        if (executor != null) {
+            // Apply the dataWF to all candidate data in parallel, so the name resolution below finds their results
+            applyDataWFInParallel(query, unifier, state, scope, input, budget, cache, results, labelWF, labelOrd, isComplete2, executor);
+        }
+
         // Now, if we apply this name resolution,
         // we will end up with an environment with _all_ possible resolution paths.
         final Env<Scope, ITerm, ITerm> env;
@@ -353,37 +373,213 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
         engine.log(instance, "  ▶ found {} declarations", declarationCount);
 
         // For each declaration:
-        final ArrayList<SolverState> output = new ArrayList<>();
-        for(ResolutionPath<Scope, ITerm, ITerm> path : env) {
-            final SolverState newState = updateSolverState(
+        final SolverState inputState = input.withoutSelected();
+        final List<SolverState> output = expandEach(env, budget, executor, path -> {
+            @Nullable final SolverState newState = updateSolverState(
                 Collections.singletonList(path),
                 input.getSpec(),
                 query,
-                input.withoutSelected(),
+                inputState,
                 unifier,
                 completeness,
-                cache
+                results
             );
-            output.add(newState);
-        }
+            return newState != null ? Collections.singletonList(newState) : Collections.emptyList();
+        });
         engine.log(instance, "▶ expanded {} declarations into {} possible states", declarationCount, output.size());
-        engine.log(instance, "Applied dataWF {} times + cached {} times", uncached, cached);
-        uncached = 0;
-        cached = 0;
+        if (engine.isLogEnabled(instance)) {
+            engine.log(instance, "Data WF cache: {}", cache.getStats());
+        }
         return output;
     }
 
-    private static Optional<SolverResult> applyDataWFCached(HashMap<ITerm, Optional<SolverResult>> cache, Rule dataWF, ITerm d, IState.Immutable state, IUniDisunifier.Immutable unifier, ICompleteness.Immutable completeness, Spec spec) {
-        return cache.compute(d, (k, term) -> {
-            if (term == null) {
-                // Assert that we can apply the dataWF to the input
-                uncached += 1;
-                return applyDataWF(dataWF, d, state, unifier, completeness, spec);
-            } else {
-                cached += 1;
-                return term;
+    /**
+     * Applies the dataWF to all data that are reachable from the scope, in parallel.
+     *
+     * The name resolution applies the dataWF to each datum that it visits, and compares the solver results
+     * to determine shadowing, one datum after the other. Since the resolution itself is sequential,
+     * this first finds the candidate data by resolving without the dataWF and without shadowing,
+     * which only traverses the scope graph, and then applies the dataWF to each candidate on the executor.
+     * The results are stored in the data WF cache and the solver results of the current state,
+     * where the subsequent name resolution finds them.
+     *
+     * When the candidate data cannot be determined, for example because the scope graph is incomplete,
+     * nothing is applied, and the name resolution applies the dataWF sequentially.
+     *
+     * @param query        the query
+     * @param unifier      the unifier of the context
+     * @param state        the current state
+     * @param scope        the scope in which to resolve
+     * @param input        the input solver state
+     * @param budget       the search budget
+     * @param cache        the data WF cache
+     * @param results      the solver results of applying the dataWF in the current state
+     * @param labelWF      the label well-formedness
+     * @param labelOrd     the label order
+     * @param isComplete   the completeness predicate
+     * @param executor     the executor on which to apply the dataWF
+     */
+    private static void applyDataWFInParallel(
+        CResolveQuery query,
+        IUniDisunifier.Immutable unifier,
+        IState.Immutable state,
+        Scope scope,
+        SelectedConstraintSolverState<CResolveQuery> input,
+        SearchBudget budget,
+        DataWFCache cache,
+        ConcurrentHashMap<ITerm, Optional<SolverResult>> results,
+        LabelWF<ITerm> labelWF,
+        LabelOrder<ITerm> labelOrd,
+        Predicate2<Scope, EdgeOrData<ITerm>> isComplete,
+        Executor executor
+    ) {
+        final FastNameResolution<Scope, ITerm, ITerm> candidateResolution = FastNameResolution.<Scope, ITerm, ITerm>builder()
+            .withLabelWF(labelWF)
+            .withLabelOrder(labelOrd)
+            .withDataWF(t -> true)
+            .withDataEquiv(new DataLeq<ITerm>() {
+                @Override public boolean leq(ITerm d1, ITerm d2) {
+                    // No shadowing, so all candidates are found.
+                    return false;
+                }
+
+                @Override public boolean alwaysTrue() {
+                    return false;
+                }
+            })
+            .withIsComplete(isComplete)
+            .build(state.scopeGraph(), input.getSpec().allLabels());
+        final Env<Scope, ITerm, ITerm> candidates;
+        try {
+            candidates = candidateResolution.resolve(scope, new NullCancel());
+        } catch(ResolutionException e) {
+            // Leave it to the name resolution, which reports or delays as appropriate.
+            return;
+        } catch(InterruptedException e) {
+            throw new RuntimeException("Unexpected InterruptedException: " + e.getMessage(), e);
+        }
+        final LinkedHashSet<ITerm> data = new LinkedHashSet<>();
+        for (ResolutionPath<Scope, ITerm, ITerm> path : candidates) {
+            data.add(path.getDatum());
+        }
+        if (data.size() < 2) return;
+
+        final Rule dataWF = query.filter().getDataWF();
+        final ICompleteness.Immutable completeness = input.getCompleteness();
+        try (final Seq<Boolean> verdicts = new ParallelFlatMapSeq<ITerm, Boolean>(
+            Seq.from(data),
+            d -> Seq.of(!budget.isExhausted() && applyDataWFCached(cache, results, dataWF, d, state, unifier, completeness, input.getSpec())),
+            executor,
+            Integer.MAX_VALUE
+        )) {
+            while (verdicts.next()) {
+                // Only the side effects on the cache and the solver results are needed.
             }
-        });
+        } catch(InterruptedException e) {
+            throw new RuntimeException("Unexpected InterruptedException: " + e.getMessage(), e);
+        } catch(RuntimeException e) {
+            throw e;
+        } catch(Exception e) {
+            throw new RuntimeException("Unexpected " + e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Expands each of the declarations, and concatenates the resulting states in the order of the declarations.
+     *
+     * Each declaration is taken from the search budget before it is expanded. When the budget is exhausted,
+     * the remaining declarations are not expanded.
+     *
+     * When an executor is given, the declarations are expanded in parallel. Each expansion works
+     * on the same immutable input state, and the shared search budget, data WF cache, and solver results are thread-safe.
+     * A declaration whose expansion has not been started by the executor by the time its results are needed
+     * is expanded on the calling thread, so this does not deadlock when the executor's threads are all busy.
+     *
+     * @param declarations the declarations to expand
+     * @param budget the search budget
+     * @param executor the executor on which to expand the declarations; or {@code null} to expand them sequentially
+     * @param expand the function that expands a single declaration
+     * @param <D> the type of declarations
+     * @return the resulting states
+     */
+    static <D> List<SolverState> expandEach(
+        Iterable<D> declarations,
+        SearchBudget budget,
+        @Nullable Executor executor,
+        InterruptibleFunction<D, List<SolverState>> expand
+    ) {
+        try {
+            if (executor == null) {
+                final ArrayList<SolverState> output = new ArrayList<>();
+                for (D declaration : declarations) {
+                    if (!budget.tryExpandState()) break;
+                    output.addAll(expand.apply(declaration));
+                }
+                return output;
+            }
+            // The declarations are pulled on this thread, and taken from the budget before they are submitted
+            final Iterator<D> iterator = declarations.iterator();
+            final Seq<D> budgetedDeclarations = new SeqBase<D>() {
+                @Override
+                protected void computeNext() {
+                    if (iterator.hasNext() && budget.tryExpandState()) {
+                        this.yield(iterator.next());
+                    } else {
+                        yieldBreak();
+                    }
+                }
+            };
+            try (final Seq<SolverState> output = new ParallelFlatMapSeq<>(
+                budgetedDeclarations, d -> Seq.from(expand.apply(d)), executor, Integer.MAX_VALUE
+            )) {
+                return output.toList();
+            }
+        } catch(InterruptedException e) {
+            throw new RuntimeException("Unexpected InterruptedException: " + e.getMessage(), e);
+        } catch(RuntimeException e) {
+            throw e;
+        } catch(Exception e) {
+            throw new RuntimeException("Unexpected " + e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Determines whether the dataWF can be applied to the specified datum, or gets the verdict from the cache.
+     *
+     * @param cache        the data WF cache
+     * @param results      the solver results of applying the dataWF in the current state
+     * @param dataWF       the data WF predicate
+     * @param d            the datum
+     * @param state        the current state
+     * @param unifier      the unifier of the context
+     * @param completeness the completeness of the context
+     * @param spec         the Statix specification
+     * @return {@code true} when the {@code dataWF} could be applied to the given datum; otherwise, {@code false}
+     */
+    private static boolean applyDataWFCached(DataWFCache cache, ConcurrentHashMap<ITerm, Optional<SolverResult>> results, Rule dataWF, ITerm d, IState.Immutable state, IUniDisunifier.Immutable unifier, ICompleteness.Immutable completeness, Spec spec) {
+        return cache.getOrCompute(spec, dataWF, d, state, completeness, () -> applyDataWFLocal(results, dataWF, d, state, unifier, completeness, spec).isPresent());
+    }
+
+    /**
+     * Applies the dataWF to the specified datum, or gets the result of an earlier application in the current state.
+     *
+     * @param results      the solver results of applying the dataWF in the current state
+     * @param dataWF       the data WF predicate
+     * @param d            the datum
+     * @param state        the current state
+     * @param unifier      the unifier of the context
+     * @param completeness the completeness of the context
+     * @param spec         the Statix specification
+     * @return either a {@link SolverResult} with the result of applying the {@code dataWF} to the given datum;
+     * otherwise, nothing if the {@code dataWF} could not be applied
+     */
+    private static Optional<SolverResult> applyDataWFLocal(ConcurrentHashMap<ITerm, Optional<SolverResult>> results, Rule dataWF, ITerm d, IState.Immutable state, IUniDisunifier.Immutable unifier, ICompleteness.Immutable completeness, Spec spec) {
+        @Nullable final Optional<SolverResult> cachedResult = results.get(d);
+        if (cachedResult != null) return cachedResult;
+        // Applied outside the map's lock; when two threads apply it at the same time, the first result is kept
+        final Optional<SolverResult> result = applyDataWF(dataWF, d, state, unifier, completeness, spec);
+        @Nullable final Optional<SolverResult> existingResult = results.putIfAbsent(d, result);
+        return existingResult != null ? existingResult : result;
     }
 
 
@@ -739,22 +935,23 @@ public final class ExpandQueryStrategy extends NamedStrategy2<SolverContext, ITe
      * @param state        the input state
      * @param unifier
      * @param completeness
-     * @param cache
-     * @return the new solver state
+     * @param results      the solver results of applying the dataWF in the input state
+     * @return the new solver state; or {@code null} when the dataWF could not be applied to one of the paths
      */
-    private static SolverState updateSolverState(
+    private static @Nullable SolverState updateSolverState(
         Iterable<ResolutionPath<Scope, ITerm, ITerm>> paths,
         Spec spec,
         CResolveQuery query,
         SolverState state,
         IUniDisunifier.Immutable unifier, ICompleteness.Immutable completeness,
-        HashMap<ITerm, Optional<SolverResult>> cache
+        ConcurrentHashMap<ITerm, Optional<SolverResult>> results
     ) {
         final ArrayList<ITerm> pathTerms = new ArrayList<>();
         final ArrayList<CEqual> eqs = new ArrayList<>();
         for (ResolutionPath<Scope, ITerm, ITerm> path : paths) {
             pathTerms.add(StatixTerms.pathToTerm(path, spec.dataLabels()));
-            final SolverResult solverResult = applyDataWFCached(cache, query.filter().getDataWF(), path.getDatum(), state.getState(), unifier, completeness, spec).get();
+            @Nullable final SolverResult solverResult = applyDataWFLocal(results, query.filter().getDataWF(), path.getDatum(), state.getState(), unifier, completeness, spec).orElse(null);
+            if (solverResult == null) return null;
             for (ITermVar v : solverResult.updatedVars()) {
                 eqs.add(new CEqual(v, solverResult.state().unifier().findRecursive(v)));
             }
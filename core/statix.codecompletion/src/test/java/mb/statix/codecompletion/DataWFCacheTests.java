@@ -0,0 +1,91 @@
+package mb.statix.codecompletion;
+
+import mb.nabl2.terms.ITerm;
+import mb.nabl2.terms.ITermVar;
+import mb.statix.constraints.CEqual;
+import mb.statix.solver.IState;
+import mb.statix.solver.completeness.Completeness;
+import mb.statix.solver.completeness.ICompleteness;
+import mb.statix.solver.persistent.State;
+import mb.statix.spec.Rule;
+import mb.statix.spec.Spec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static mb.nabl2.terms.build.TermBuild.B;
+import static mb.nabl2.terms.matching.TermPattern.P;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link DataWFCache} class.
+ */
+public final class DataWFCacheTests {
+
+    private final Spec spec = Spec.of();
+    private final IState.Immutable state = State.of();
+    private final ICompleteness.Immutable completeness = Completeness.Transient.of().freeze();
+    private final ITermVar d = B.newVar("", "d");
+    /** The data well-formedness predicate {@code { d :- d == "x" }}. */
+    private final Rule dataWF = Rule.of("", Collections.singletonList(P.newVar(d)), new CEqual(d, B.newString("x")));
+
+    @Test
+    public void shouldReturnCachedVerdict_whenQueryIsRepeatedOnSameState() {
+        // Arrange
+        final DataWFCache cache = new DataWFCache(10);
+        final AtomicInteger calls = new AtomicInteger();
+        final ITerm datum = B.newString("x");
+
+        // Act
+        final boolean result1 = cache.getOrCompute(spec, dataWF, datum, state, completeness, () -> { calls.incrementAndGet(); return true; });
+        final boolean result2 = cache.getOrCompute(spec, dataWF, B.newString("x"), state, completeness, () -> { calls.incrementAndGet(); return true; });
+
+        // Assert
+        assertTrue(result1);
+        assertTrue(result2);
+        assertEquals(1, calls.get());
+        final DataWFCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void shouldComputeVerdict_whenDatumDiffers() {
+        // Arrange
+        final DataWFCache cache = new DataWFCache(10);
+        final AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        final boolean result1 = cache.getOrCompute(spec, dataWF, B.newString("x"), state, completeness, () -> { calls.incrementAndGet(); return true; });
+        final boolean result2 = cache.getOrCompute(spec, dataWF, B.newString("y"), state, completeness, () -> { calls.incrementAndGet(); return false; });
+
+        // Assert
+        assertTrue(result1);
+        assertFalse(result2);
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.getStats().getHitCount());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedVerdict_whenMaximumSizeIsExceeded() {
+        // Arrange
+        final DataWFCache cache = new DataWFCache(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        cache.getOrCompute(spec, dataWF, B.newString("x"), state, completeness, () -> { calls.incrementAndGet(); return true; });
+        cache.getOrCompute(spec, dataWF, B.newString("y"), state, completeness, () -> { calls.incrementAndGet(); return false; });
+        cache.getOrCompute(spec, dataWF, B.newString("x"), state, completeness, () -> { calls.incrementAndGet(); return true; });
+
+        // Assert
+        assertEquals(3, calls.get());
+        final DataWFCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getEvictionCount());
+        assertEquals(1, stats.getSize());
+    }
+
+}
@@ -0,0 +1,85 @@
+package mb.statix.codecompletion.strategies.runtime;
+
+import io.usethesource.capsule.Set;
+import mb.statix.codecompletion.SearchBudget;
+import mb.statix.codecompletion.SolutionMeta;
+import mb.statix.codecompletion.SolverState;
+import mb.statix.constraints.CEqual;
+import mb.statix.solver.IState;
+import mb.statix.solver.persistent.State;
+import mb.statix.spec.Spec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static mb.nabl2.terms.build.TermBuild.B;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link ExpandQueryStrategy} class.
+ */
+public final class ExpandQueryStrategyTests {
+
+    private final Spec spec = Spec.of();
+    private final IState.Immutable state = State.of();
+
+    @Test
+    public void shouldReturnSameOrderedStates_whenDeclarationsAreExpandedInParallel() {
+        // Arrange
+        final List<Integer> declarations = declarations(20);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // Act
+            final List<SolverState> sequential = ExpandQueryStrategy.expandEach(declarations, SearchBudget.unlimited(), null, this::expand);
+            final List<SolverState> parallel = ExpandQueryStrategy.expandEach(declarations, SearchBudget.unlimited(), pool, this::expand);
+
+            // Assert
+            assertEquals(20, sequential.size());
+            assertEquals(sequential, parallel);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnSameOrderedStates_whenBudgetIsExhaustedDuringParallelExpansion() {
+        // Arrange
+        final List<Integer> declarations = declarations(20);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // Act
+            final List<SolverState> sequential = ExpandQueryStrategy.expandEach(declarations, new SearchBudget(Long.MAX_VALUE, 7, Long.MAX_VALUE), null, this::expand);
+            final List<SolverState> parallel = ExpandQueryStrategy.expandEach(declarations, new SearchBudget(Long.MAX_VALUE, 7, Long.MAX_VALUE), pool, this::expand);
+
+            // Assert
+            assertEquals(7, sequential.size());
+            assertEquals(sequential, parallel);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<Integer> declarations(int count) {
+        final ArrayList<Integer> declarations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            declarations.add(i);
+        }
+        return declarations;
+    }
+
+    /**
+     * Expands a declaration into a distinct state. The earlier declarations take longer to expand,
+     * so that in parallel they complete after the later declarations.
+     */
+    private List<SolverState> expand(Integer declaration) throws InterruptedException {
+        Thread.sleep(20 - declaration);
+        final CEqual constraint = new CEqual(B.newString("d"), B.newInt(declaration));
+        return Collections.singletonList(SolverState.of(spec, state, Collections.singletonList(constraint), Set.Immutable.of(), new SolutionMeta()));
+    }
+
+}
@@ -0,0 +1,39 @@
+plugins {
+  id("org.metaborg.gradle.config.java-application")
+}
+
+application {
+  mainClass.set("org.openjdk.jmh.Main")
+}
+
+dependencies {
+  implementation(platform(project(":spoofax.depconstraints")))
+  annotationProcessor(platform(project(":spoofax.depconstraints")))
+
+  implementation(project(":tego.runtime"))
+  implementation("org.openjdk.jmh:jmh-core")
+
+  compileOnly("org.checkerframework:checker-qual-android")
+
+  annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess")
+}
+
+// Runs the benchmarks and writes the results as JSON to `build/reports/jmh/results.json`,
+// such that they can be tracked between releases.
+// Pass `-Pjmh.include=<regex>` to only run the matching benchmarks.
+val jmh by tasks.registering(JavaExec::class) {
+  group = "benchmark"
+  description = "Runs the JMH benchmarks."
+  val resultsFile = project.buildDir.resolve("reports/jmh/results.json")
+  classpath = sourceSets.main.get().runtimeClasspath
+  mainClass.set("org.openjdk.jmh.Main")
+  outputs.file(resultsFile)
+  outputs.upToDateWhen { false }
+  doFirst {
+    resultsFile.parentFile.mkdirs()
+  }
+  args("-rf", "json", "-rff", resultsFile.absolutePath)
+  if(project.hasProperty("jmh.include")) {
+    args(project.property("jmh.include").toString())
+  }
+}
@@ -0,0 +1,84 @@
+package mb.tego.bench;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.runtime.Strategies;
+import mb.tego.strategies.runtime.TegoRuntime;
+import mb.tego.strategies.runtime.TegoRuntimeBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fix-set expansion over synthetic graphs.
+ *
+ * The graph has {@link #nodes} nodes, each with {@link #degree} outgoing edges to random nodes
+ * with a lower index, such that node 0 is a sink. The fix-set strategy starts at the last node
+ * and expands the edges until it reaches the nodes without outgoing edges.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixSetBenchmark {
+
+    @Param({"1000", "10000"})
+    public int nodes;
+
+    @Param({"2", "8"})
+    public int degree;
+
+    private TegoRuntime runtime;
+    private Strategy<Integer, Seq<Integer>> fixSetStrategy;
+    private Strategy<Integer, @Nullable Seq<Integer>> distinctStrategy;
+
+    @Setup
+    public void setup() {
+        this.runtime = new TegoRuntimeBuilder(null).build();
+
+        final Random random = new Random(42);
+        final Integer[][] edges = new Integer[nodes][];
+        edges[0] = new Integer[0];
+        for (int i = 1; i < nodes; i++) {
+            edges[i] = new Integer[degree];
+            for (int j = 0; j < degree; j++) {
+                edges[i][j] = random.nextInt(i);
+            }
+        }
+        final Strategy<Integer, Seq<Integer>> successors = (engine, input) -> Seq.of(edges[input]);
+
+        this.fixSetStrategy = Strategies.fixSet(successors);
+        this.distinctStrategy = Strategies.distinct(Strategies.fixSet(successors));
+    }
+
+    @Benchmark
+    public void fixSet(Blackhole bh) throws InterruptedException {
+        final @Nullable Seq<Integer> seq = runtime.eval(fixSetStrategy, nodes - 1);
+        while (seq != null && seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    @Benchmark
+    public void distinctFixSet(Blackhole bh) throws InterruptedException {
+        final @Nullable Seq<Integer> seq = runtime.eval(distinctStrategy, nodes - 1);
+        while (seq != null && seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+}
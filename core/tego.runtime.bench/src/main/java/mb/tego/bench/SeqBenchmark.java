@@ -0,0 +1,98 @@
+package mb.tego.bench;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.runtime.FlatMapStrategy;
+import mb.tego.strategies.runtime.ProductionTegoRuntimeImpl;
+import mb.tego.strategies.runtime.TegoEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-element overhead of the {@link Seq} operations.
+ *
+ * Each benchmark drains a fresh sequence of {@link #size} elements,
+ * so the score divided by the size is the cost per element.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeqBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Integer> elements;
+    private TegoEngine engine;
+    private Strategy<Integer, Seq<Integer>> pairStrategy;
+
+    @Setup
+    public void setup() {
+        this.elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(i);
+        }
+        this.engine = new ProductionTegoRuntimeImpl(null, null);
+        this.pairStrategy = (engine, input) -> Seq.of(input, input + 1);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) throws InterruptedException {
+        final Seq<Integer> seq = Seq.from(elements);
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    @Benchmark
+    public void map(Blackhole bh) throws InterruptedException {
+        final Seq<Integer> seq = Seq.from(elements).map(x -> x + 1);
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    @Benchmark
+    public void filter(Blackhole bh) throws InterruptedException {
+        final Seq<Integer> seq = Seq.from(elements).filter(x -> (x & 1) == 0);
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    @Benchmark
+    public void mapFilterMap(Blackhole bh) throws InterruptedException {
+        final Seq<Integer> seq = Seq.from(elements)
+            .map(x -> x + 1)
+            .filter(x -> (x & 1) == 0)
+            .map(x -> x * 2);
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    @Benchmark
+    public void flatMap(Blackhole bh) throws InterruptedException {
+        final Seq<Integer> seq = FlatMapStrategy.eval(engine, pairStrategy, Seq.from(elements));
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+}
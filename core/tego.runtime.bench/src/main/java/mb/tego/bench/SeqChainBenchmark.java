@@ -0,0 +1,125 @@
+package mb.tego.bench;
+
+import mb.tego.sequences.Seq;
+import mb.tego.sequences.SeqBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-element cost of chains of {@link Seq} operations, by chain depth.
+ *
+ * The {@code fused} benchmarks use the {@link Seq} operations, which are fused into a single loop.
+ * The {@code nested} benchmark wraps one sequence per operation, as a baseline
+ * where each element passes through one {@code next()} call per layer.
+ * The score is the time per element. For the fused chains, the difference between depths
+ * is only the cost of the functions of the operations themselves, and the stack depth is constant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeqChainBenchmark {
+
+    private static final int SIZE = 10_000;
+
+    @Param({"1", "4", "16", "64"})
+    public int depth;
+
+    private List<Integer> elements;
+
+    @Setup
+    public void setup() {
+        this.elements = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            elements.add(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void fusedMapFilter(Blackhole bh) throws InterruptedException {
+        Seq<Integer> seq = Seq.from(elements);
+        for (int i = 0; i < depth; i++) {
+            seq = (i & 1) == 0 ? seq.map(x -> x + 1) : seq.filter(x -> x >= 0);
+        }
+        drain(seq, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void fusedFlatMap(Blackhole bh) throws InterruptedException {
+        Seq<Integer> seq = Seq.from(elements);
+        for (int i = 0; i < depth; i++) {
+            seq = seq.flatMap(x -> Seq.of(x));
+        }
+        drain(seq, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void nestedMapFilter(Blackhole bh) throws InterruptedException {
+        Seq<Integer> seq = Seq.from(elements);
+        for (int i = 0; i < depth; i++) {
+            seq = (i & 1) == 0 ? new NestedMapSeq(seq) : new NestedFilterSeq(seq);
+        }
+        drain(seq, bh);
+    }
+
+    private static void drain(Seq<Integer> seq, Blackhole bh) throws InterruptedException {
+        while (seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+
+    /** Unfused map layer, which adds one to each element. */
+    private static final class NestedMapSeq extends SeqBase<Integer> {
+        private final Seq<Integer> seq;
+
+        NestedMapSeq(Seq<Integer> seq) { this.seq = seq; }
+
+        @Override
+        protected void computeNext() throws InterruptedException {
+            if (seq.next()) {
+                this.yield(seq.getCurrent() + 1);
+            } else {
+                yieldBreak();
+            }
+        }
+    }
+
+    /** Unfused filter layer, which keeps the non-negative elements. */
+    private static final class NestedFilterSeq extends SeqBase<Integer> {
+        private final Seq<Integer> seq;
+
+        NestedFilterSeq(Seq<Integer> seq) { this.seq = seq; }
+
+        @Override
+        protected void computeNext() throws InterruptedException {
+            while (seq.next()) {
+                final Integer value = seq.getCurrent();
+                if (value >= 0) {
+                    this.yield(value);
+                    return;
+                }
+            }
+            yieldBreak();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package mb.tego.bench;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.runtime.Strategies;
+import mb.tego.strategies.runtime.TegoRuntime;
+import mb.tego.strategies.runtime.TegoRuntimeBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of evaluating deeply nested strategies through {@link TegoRuntime#eval}.
+ *
+ * The {@code seq} benchmark nests {@link #depth} sequential compositions of a trivial strategy,
+ * and the {@code or} benchmark nests {@link #depth} disjunctions of which only the innermost succeeds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyNestingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    private TegoRuntime runtime;
+    private Strategy<Integer, @Nullable Integer> seqStrategy;
+    private Strategy<Integer, Seq<Integer>> orStrategy;
+
+    @Setup
+    public void setup() {
+        this.runtime = new TegoRuntimeBuilder(null).build();
+
+        final Strategy<Integer, @Nullable Integer> inc = (engine, input) -> input + 1;
+        Strategy<Integer, @Nullable Integer> seqStrategy = inc;
+        for (int i = 1; i < depth; i++) {
+            seqStrategy = Strategies.seq(seqStrategy).$(inc).$();
+        }
+        this.seqStrategy = seqStrategy;
+
+        final Strategy<Integer, Seq<Integer>> fail = (engine, input) -> Seq.of();
+        Strategy<Integer, Seq<Integer>> orStrategy = (engine, input) -> Seq.of(input);
+        for (int i = 1; i < depth; i++) {
+            orStrategy = Strategies.or(fail, orStrategy);
+        }
+        this.orStrategy = orStrategy;
+    }
+
+    @Benchmark
+    public @Nullable Integer seq() {
+        return runtime.eval(seqStrategy, 0);
+    }
+
+    @Benchmark
+    public void or(Blackhole bh) throws InterruptedException {
+        final @Nullable Seq<Integer> seq = runtime.eval(orStrategy, 0);
+        while (seq != null && seq.next()) {
+            bh.consume(seq.getCurrent());
+        }
+    }
+}
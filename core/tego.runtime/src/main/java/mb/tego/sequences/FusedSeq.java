@@ -0,0 +1,176 @@
+package mb.tego.sequences;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A sequence that applies a chain of map, filter, and flat-map stages to a source sequence.
+ *
+ * Appending a stage to a fused sequence that has not yet been iterated
+ * returns a new fused sequence over the same source with the additional stage,
+ * instead of wrapping the sequence. As a result, a chain of stages is executed
+ * in a single loop, regardless of its length.
+ *
+ * The sequences returned by flat-map stages are kept on an explicit stack of frames,
+ * together with the index of the stage that receives their elements. This trampoline
+ * ensures that nested flat-maps do not recurse one Java stack frame per layer.
+ *
+ * @param <R> the type of elements in the result (contravariant)
+ */
+/* package private */ final class FusedSeq<R> extends SeqBase<R> {
+
+    /** Maps an element using an {@link InterruptibleFunction}. */
+    private static final int MAP = 0;
+    /** Keeps an element when it matches an {@link InterruptiblePredicate}. */
+    private static final int FILTER = 1;
+    /** Maps an element using an {@link InterruptibleFunction}, and keeps it when it is not {@code null}. */
+    private static final int MAP_NOT_NULL = 2;
+    /** Maps an element to a sequence using an {@link InterruptibleFunction}, and flattens it. */
+    private static final int FLAT_MAP = 3;
+
+    /**
+     * A stage in the chain.
+     */
+    private static final class Stage {
+        final int kind;
+        final Object function;
+
+        Stage(int kind, Object function) {
+            this.kind = kind;
+            this.function = function;
+        }
+    }
+
+    /** The source sequence. */
+    private final Seq<?> source;
+    /** The stages, in the order in which they are applied. */
+    private final Stage[] stages;
+    /** The stack of sequences that are being iterated; the first frame is the source sequence. */
+    private @Nullable Seq<?>[] frameSeqs;
+    /** For each frame, the index of the stage that receives the elements of the sequence. */
+    private int[] frameStages;
+    /** The index of the top frame; or -1 when the iteration has not started. */
+    private int top = -1;
+
+    private FusedSeq(Seq<?> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+        this.frameSeqs = new Seq<?>[1];
+        this.frameStages = new int[1];
+    }
+
+    static <T, R> Seq<R> map(Seq<T> seq, InterruptibleFunction<T, R> transform) {
+        return append(seq, MAP, transform);
+    }
+
+    static <T> Seq<T> filter(Seq<T> seq, InterruptiblePredicate<T> predicate) {
+        return append(seq, FILTER, predicate);
+    }
+
+    static <T, R> Seq<R> mapNotNull(Seq<T> seq, InterruptibleFunction<T, @Nullable R> transform) {
+        return append(seq, MAP_NOT_NULL, transform);
+    }
+
+    static <T, R> Seq<R> flatMap(Seq<T> seq, InterruptibleFunction<T, @Nullable Seq<R>> transform) {
+        return append(seq, FLAT_MAP, transform);
+    }
+
+    /**
+     * Appends a stage to the specified sequence.
+     *
+     * @param seq the sequence
+     * @param kind the kind of stage
+     * @param function the function of the stage
+     * @param <R> the type of elements in the result (contravariant)
+     * @return the fused sequence
+     */
+    private static <R> Seq<R> append(Seq<?> seq, int kind, Object function) {
+        final Stage stage = new Stage(kind, function);
+        if (seq instanceof FusedSeq && ((FusedSeq<?>)seq).top < 0) {
+            // Fuse with the existing stages
+            final FusedSeq<?> fused = (FusedSeq<?>)seq;
+            final Stage[] stages = Arrays.copyOf(fused.stages, fused.stages.length + 1);
+            stages[fused.stages.length] = stage;
+            return new FusedSeq<>(fused.source, stages);
+        }
+        return new FusedSeq<>(seq, new Stage[]{ stage });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void computeNext() throws InterruptedException {
+        if (top < 0) {
+            frameSeqs[0] = source;
+            frameStages[0] = 0;
+            top = 0;
+        }
+        elements:
+        while (true) {
+            @Nullable final Seq<?> seq = frameSeqs[top];
+            assert seq != null;
+            if (!seq.next()) {
+                if (top == 0) {
+                    // We're done. The source sequence is closed when this sequence is closed.
+                    yieldBreak();
+                    return;
+                }
+                // The inner sequence is finished, continue with the sequence below it
+                frameSeqs[top] = null;
+                top -= 1;
+                continue;
+            }
+            @Nullable Object value = seq.getCurrent();
+            for (int i = frameStages[top]; i < stages.length; i++) {
+                final Stage stage = stages[i];
+                switch (stage.kind) {
+                    case MAP:
+                        value = ((InterruptibleFunction<Object, Object>)stage.function).apply(value);
+                        break;
+                    case FILTER:
+                        if (!((InterruptiblePredicate<Object>)stage.function).test(value)) continue elements;
+                        break;
+                    case MAP_NOT_NULL:
+                        value = ((InterruptibleFunction<Object, Object>)stage.function).apply(value);
+                        if (value == null) continue elements;
+                        break;
+                    case FLAT_MAP:
+                        @Nullable final Seq<?> inner = ((InterruptibleFunction<Object, @Nullable Seq<?>>)stage.function).apply(value);
+                        if (inner != null) push(inner, i + 1);
+                        continue elements;
+                    default:
+                        throw new IllegalStateException("Illegal stage: " + stage.kind);
+                }
+            }
+            this.yield((R)value);
+            return;
+        }
+    }
+
+    /**
+     * Pushes a frame on the stack.
+     *
+     * @param seq the sequence to iterate
+     * @param stage the index of the stage that receives the elements of the sequence
+     */
+    private void push(Seq<?> seq, int stage) {
+        top += 1;
+        if (top == frameSeqs.length) {
+            frameSeqs = Arrays.copyOf(frameSeqs, top * 2);
+            frameStages = Arrays.copyOf(frameStages, top * 2);
+        }
+        frameSeqs[top] = seq;
+        frameStages[top] = stage;
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Close the inner sequences, then the source sequence
+        for (int i = top; i > 0; i--) {
+            @Nullable final Seq<?> seq = frameSeqs[i];
+            frameSeqs[i] = null;
+            if (seq != null) seq.close();
+        }
+        source.close();
+    }
+}
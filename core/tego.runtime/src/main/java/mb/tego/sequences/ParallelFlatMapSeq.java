@@ -0,0 +1,325 @@
+package mb.tego.sequences;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Flat-maps a sequence, computing the sequences of multiple elements in parallel.
+ *
+ * The elements of the input sequence are pulled on the thread that iterates this sequence.
+ * For each input element, a branch is submitted to the executor that applies the transform function
+ * and streams the elements of the resulting sequence into a buffer of at most {@code bufferSize} elements.
+ * At most {@code lookAhead} branches are pending at any time. The results are returned in the order
+ * of the input elements, as if the sequence was flat-mapped sequentially.
+ *
+ * A branch stops pulling elements from its sequence when its buffer is full, releasing its thread, and is
+ * resubmitted to the executor when this sequence has taken elements from the buffer. Therefore, an infinite
+ * or very large sequence of a branch is computed only as far as this sequence is iterated.
+ *
+ * When a branch is not running by the time its results are needed, its elements are pulled
+ * on the thread that iterates this sequence. This ensures progress
+ * when the executor's threads are all blocked on other parallel sequences.
+ *
+ * When the iterating thread is interrupted, or a branch fails, all pending branches are cancelled
+ * and the exception is propagated. Closing the sequence also cancels all pending branches,
+ * interrupting the branches that are running and closing their sequences.
+ *
+ * @param <T> the type of elements in the input sequence (covariant)
+ * @param <R> the type of elements in the result (contravariant)
+ */
+public final class ParallelFlatMapSeq<T, R> extends SeqBase<R> {
+
+    /** The default maximum number of elements that a branch computes in advance. */
+    public static final int DEFAULT_BUFFER_SIZE = 64;
+
+    private final Seq<T> input;
+    private final InterruptibleFunction<T, @Nullable Seq<R>> transform;
+    private final Executor executor;
+    private final int lookAhead;
+    private final int bufferSize;
+    /** The branches that are submitted, in the order of the input elements. Only accessed by the iterating thread. */
+    private final ArrayDeque<Branch> pending = new ArrayDeque<>();
+    /** Guards the state of all branches. */
+    private final Object lock = new Object();
+    /** Whether the input sequence is finished. */
+    private boolean inputFinished = false;
+
+    /**
+     * Initializes a new instance of the {@link ParallelFlatMapSeq} class.
+     *
+     * @param input the input sequence
+     * @param transform the transform function, which returns a sequence; or {@code null} when there are no results
+     * @param executor the executor on which to run the transform function and compute the resulting sequences
+     * @param lookAhead the maximum number of input elements for which the results are computed in advance
+     * @param bufferSize the maximum number of elements of the sequence of a single input element that are computed in advance
+     */
+    public ParallelFlatMapSeq(
+        Seq<T> input,
+        InterruptibleFunction<T, @Nullable Seq<R>> transform,
+        Executor executor,
+        int lookAhead,
+        int bufferSize
+    ) {
+        if (lookAhead < 1) throw new IllegalArgumentException("'lookAhead' must be greater than or equal to 1.");
+        if (bufferSize < 1) throw new IllegalArgumentException("'bufferSize' must be greater than or equal to 1.");
+        this.input = input;
+        this.transform = transform;
+        this.executor = executor;
+        this.lookAhead = lookAhead;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ParallelFlatMapSeq} class
+     * with the {@link #DEFAULT_BUFFER_SIZE default buffer size}.
+     *
+     * @param input the input sequence
+     * @param transform the transform function, which returns a sequence; or {@code null} when there are no results
+     * @param executor the executor on which to run the transform function and compute the resulting sequences
+     * @param lookAhead the maximum number of input elements for which the results are computed in advance
+     */
+    public ParallelFlatMapSeq(
+        Seq<T> input,
+        InterruptibleFunction<T, @Nullable Seq<R>> transform,
+        Executor executor,
+        int lookAhead
+    ) {
+        this(input, transform, executor, lookAhead, DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    protected void computeNext() throws InterruptedException {
+        while (true) {
+            submitBranches();
+            @Nullable final Branch branch = pending.peek();
+            if (branch == null) {
+                yieldBreak();
+                return;
+            }
+            if (take(branch)) return;
+            pending.poll();
+        }
+    }
+
+    /**
+     * Submits branches for the next input elements, until the look-ahead is reached.
+     */
+    private void submitBranches() throws InterruptedException {
+        while (!inputFinished && pending.size() < lookAhead) {
+            if (!input.next()) {
+                inputFinished = true;
+                return;
+            }
+            final Branch branch = new Branch(input.getCurrent());
+            pending.add(branch);
+            synchronized (lock) {
+                branch.schedule();
+            }
+        }
+    }
+
+    /**
+     * Takes the next element of the given branch, and yields it.
+     *
+     * @param branch the branch
+     * @return {@code true} when an element was yielded; otherwise, {@code false} when the branch has no more elements
+     * @throws InterruptedException if the operation was interrupted
+     */
+    private boolean take(Branch branch) throws InterruptedException {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (branch.buffer.isEmpty() && !branch.finished && branch.running) {
+                        lock.wait();
+                    }
+                    if (!branch.buffer.isEmpty()) {
+                        final R element = branch.buffer.poll();
+                        if (!branch.finished && !branch.running) {
+                            branch.schedule();
+                        }
+                        this.yield(element);
+                        return true;
+                    }
+                    if (branch.failure != null) {
+                        throw branch.failure;
+                    }
+                    if (branch.finished) {
+                        return false;
+                    }
+                    // The branch is not running, so pull its next element on this thread.
+                    branch.running = true;
+                }
+                branch.pull(1);
+            }
+        } catch (InterruptedException | RuntimeException | Error ex) {
+            cancelBranches();
+            throw ex;
+        } catch (Throwable ex) {
+            cancelBranches();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Cancels all pending branches.
+     */
+    private void cancelBranches() {
+        for (Branch branch : pending) {
+            branch.cancel();
+        }
+        pending.clear();
+    }
+
+    @Override
+    public void close() throws Exception {
+        cancelBranches();
+        input.close();
+    }
+
+    /**
+     * The computation of the sequence of a single input element.
+     */
+    private final class Branch implements Runnable {
+        /** The input element. */
+        private final T element;
+        /** The elements that are computed and not yet taken. Guarded by {@link #lock}. */
+        private final ArrayDeque<R> buffer = new ArrayDeque<>();
+        /** The sequence of the input element; or {@code null} when it is not yet computed or closed. */
+        @Nullable private Seq<R> seq = null;
+        /** Whether the transform function has been applied. */
+        private boolean started = false;
+        /** Whether the branch is submitted to the executor and not yet running. Guarded by {@link #lock}. */
+        private boolean scheduled = false;
+        /** Whether a thread is pulling elements of the branch. Guarded by {@link #lock}. */
+        private boolean running = false;
+        /** The executor thread that is pulling elements of the branch; or {@code null}. Guarded by {@link #lock}. */
+        @Nullable private Thread runner = null;
+        /** Whether the branch has no more elements. Guarded by {@link #lock}. */
+        private boolean finished = false;
+        /** Whether the branch is cancelled. Guarded by {@link #lock}. */
+        private boolean cancelled = false;
+        /** The exception with which the branch failed; or {@code null}. Guarded by {@link #lock}. */
+        @Nullable private Throwable failure = null;
+
+        private Branch(T element) {
+            this.element = element;
+        }
+
+        /**
+         * Submits the branch to the executor, unless it is already submitted. Must be called while holding {@link #lock}.
+         */
+        private void schedule() {
+            if (scheduled || cancelled) return;
+            scheduled = true;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                // The elements will be pulled on the iterating thread when they are needed.
+                scheduled = false;
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                scheduled = false;
+                if (running || finished || cancelled) return;
+                running = true;
+                runner = Thread.currentThread();
+            }
+            try {
+                pull(bufferSize);
+            } finally {
+                // Clears an interrupt from cancelling this branch, which must not leak to the next task of the thread.
+                // The interrupt can only arrive while this branch was running, and running is reset by pull().
+                Thread.interrupted();
+            }
+        }
+
+        /**
+         * Pulls elements of the sequence into the buffer, until the given number of elements are pulled,
+         * the buffer is full, or the sequence is finished.
+         * Must only be called by the thread that set {@link #running}, and resets it.
+         *
+         * @param count the maximum number of elements to pull
+         */
+        private void pull(int count) {
+            @Nullable Throwable failure = null;
+            boolean finished = false;
+            try {
+                if (!started) {
+                    started = true;
+                    seq = transform.apply(element);
+                }
+                for (int i = 0; i < count; i++) {
+                    synchronized (lock) {
+                        if (cancelled || buffer.size() >= bufferSize) break;
+                    }
+                    if (seq == null || !seq.next()) {
+                        finished = true;
+                        break;
+                    }
+                    final R result = seq.getCurrent();
+                    synchronized (lock) {
+                        buffer.add(result);
+                        lock.notifyAll();
+                    }
+                }
+            } catch (Throwable ex) {
+                failure = ex;
+                finished = true;
+            }
+            final boolean close;
+            synchronized (lock) {
+                running = false;
+                runner = null;
+                if (failure != null && !cancelled) {
+                    this.failure = failure;
+                }
+                if (finished) {
+                    this.finished = true;
+                }
+                close = this.finished || cancelled;
+                lock.notifyAll();
+            }
+            if (close) closeSeq();
+        }
+
+        /**
+         * Cancels the branch, interrupting the executor thread that is pulling its elements.
+         */
+        private void cancel() {
+            final boolean close;
+            synchronized (lock) {
+                if (cancelled) return;
+                cancelled = true;
+                buffer.clear();
+                if (runner != null) runner.interrupt();
+                // When the branch is running, its thread closes the sequence.
+                close = !running;
+                lock.notifyAll();
+            }
+            if (close) closeSeq();
+        }
+
+        /**
+         * Closes the sequence of the branch. Must only be called when no thread is pulling elements of the branch.
+         */
+        private void closeSeq() {
+            @Nullable final Seq<R> seq;
+            synchronized (lock) {
+                seq = this.seq;
+                this.seq = null;
+            }
+            if (seq == null) return;
+            try {
+                seq.close();
+            } catch (Exception ex) {
+                // Ignored, as the elements of the sequence are no longer needed.
+            }
+        }
+    }
+}
@@ -24,6 +24,9 @@ import java.util.stream.Collectors;
  *
  * The iterator should be closed when done, to release any resources it holds.
  *
+ * Chains of the {@link #map}, {@link #mapNotNull}, {@link #filter}, and {@link #flatMap} intermediate operations
+ * are fused: they are executed in a single loop that does not recurse per operation.
+ *
  * @param <T> the type of values in the sequence (covariant)
  */
 public interface Seq<T> extends AutoCloseable {
@@ -245,7 +248,7 @@ public interface Seq<T> extends AutoCloseable {
     default Seq<T> filter(InterruptiblePredicate<T> predicate) {
         Objects.requireNonNull(predicate, "'predicate' must not be null.");
 
-        return new FilterSeq<>(this, predicate);
+        return FusedSeq.filter(this, predicate);
     }
 
     /**
@@ -264,7 +267,8 @@ public interface Seq<T> extends AutoCloseable {
     default <R> Seq<R> filterIsInstance(Class<R> cls) {
         Objects.requireNonNull(cls, "'cls' must not be null.");
 
-        return new FilterIsInstanceSeq<>(this, cls);
+        //noinspection unchecked
+        return (Seq<R>)FusedSeq.filter(this, e -> cls.isAssignableFrom(e.getClass()));
     }
 
     /**
@@ -304,7 +308,28 @@ public interface Seq<T> extends AutoCloseable {
     default <R> Seq<R> map(InterruptibleFunction<T, R> transform) {
         Objects.requireNonNull(transform, "'transform' must not be null.");
 
-        return new MapSeq<>(this, transform);
+        return FusedSeq.map(this, transform);
+    }
+
+    /**
+     * Returns a sequence with the elements of the sequences that result from
+     * applying a transform function to each of the original elements.
+     *
+     * This is an intermediate operation.
+     *
+     * Note that if this sequence has been (partially) iterated,
+     * the resulting sequence starts at that point in this sequence.
+     * If this sequence is being iterated in between calls
+     * to the resulting sequence, the results are undefined.
+     *
+     * @param transform the transform function, which may return {@code null} when there are no results
+     * @param <R> the type of results
+     * @return the new sequence
+     */
+    default <R> Seq<R> flatMap(InterruptibleFunction<T, @Nullable Seq<R>> transform) {
+        Objects.requireNonNull(transform, "'transform' must not be null.");
+
+        return FusedSeq.flatMap(this, transform);
     }
 
     /**
@@ -325,7 +350,7 @@ public interface Seq<T> extends AutoCloseable {
     default <R> Seq<R> mapNotNull(InterruptibleFunction<T, @Nullable R> transform) {
         Objects.requireNonNull(transform, "'transform' must not be null.");
 
-        return new MapNotNullSeq<>(this, transform);
+        return FusedSeq.mapNotNull(this, transform);
     }
 
     /**
@@ -465,152 +490,6 @@ final class ArraySeq<T> implements Seq<T> {
     }
 }
 
-/**
- * Filters a sequence.
- *
- * @param <T> the type of elements in the sequence (covariant)
- */
-final class FilterSeq<T> extends SeqBase<T> {
-    private final Seq<T> seq;
-    private final InterruptiblePredicate<T> predicate;
-
-    public FilterSeq(Seq<T> seq, InterruptiblePredicate<T> predicate) {
-        this.seq = seq;
-        this.predicate = predicate;
-    }
-
-    @Override
-    protected void computeNext() throws InterruptedException {
-        // Return elements that match the predicate
-        while(seq.next()) {
-            T value = seq.getCurrent();
-            if(predicate.test(value)) {
-                this.yield(value);
-                return;
-            }
-        }
-
-        // We're done
-        yieldBreak();
-    }
-
-    @Override
-    public void close() throws Exception {
-        seq.close();
-    }
-}
-
-/**
- * Filters a sequence based on the type of the elements.
- *
- * @param <T> the type of elements in the sequence (covariant)
- * @param <R> the type of elements in the result (contravariant)
- */
-final class FilterIsInstanceSeq<T, R> extends SeqBase<R> {
-    private final Seq<T> seq;
-    private final Class<R> cls;
-
-    public FilterIsInstanceSeq(Seq<T> seq, Class<R> cls) {
-        this.seq = seq;
-        this.cls = cls;
-    }
-
-    @SuppressWarnings("unchecked")
-    @Override
-    protected void computeNext() throws InterruptedException {
-        // Return elements that match the predicate
-        while(seq.next()) {
-            T value = seq.getCurrent();
-            if (cls.isAssignableFrom(value.getClass())) {
-                this.yield((R)value);
-                return;
-            }
-        }
-
-        // We're done
-        yieldBreak();
-    }
-
-    @Override
-    public void close() throws Exception {
-        seq.close();
-    }
-}
-
-/**
- * Maps a sequence.
- *
- * @param <T> the type of elements in the sequence (covariant)
- * @param <R> the type of elements in the result (contravariant)
- */
-final class MapSeq<T, R> extends SeqBase<R> {
-    private final Seq<T> seq;
-    private final InterruptibleFunction<T, R> transform;
-
-    public MapSeq(
-        Seq<T> seq,
-        InterruptibleFunction<T, R> transform
-    ) {
-        this.seq = seq;
-        this.transform = transform;
-    }
-
-    @Override
-    protected void computeNext() throws InterruptedException {
-        if (seq.next()) {
-            T value = seq.getCurrent();
-            R newValue = transform.apply(value);
-            this.yield(newValue);
-            return;
-        }
-
-        yieldBreak();
-    }
-
-    @Override
-    public void close() throws Exception {
-        seq.close();
-    }
-}
-
-/**
- * Maps a sequence, filters to keep only the results that are not null.
- *
- * @param <T> the type of elements in the sequence (covariant)
- * @param <R> the type of elements in the result (contravariant)
- */
-final class MapNotNullSeq<T, R> extends SeqBase<R> {
-    private final Seq<T> seq;
-    private final InterruptibleFunction<T, @Nullable R> transform;
-
-    public MapNotNullSeq(
-        Seq<T> seq,
-        InterruptibleFunction<T, @Nullable R> transform
-    ) {
-        this.seq = seq;
-        this.transform = transform;
-    }
-
-    @Override
-    protected void computeNext() throws InterruptedException {
-        while(seq.next()) {
-            T value = seq.getCurrent();
-            @Nullable R newValue = transform.apply(value);
-            if(newValue != null) {
-                this.yield(newValue);
-                return;
-            }
-        }
-
-        yieldBreak();
-    }
-
-    @Override
-    public void close() throws Exception {
-        seq.close();
-    }
-}
-
 /**
  * Wraps a supplier.
  *
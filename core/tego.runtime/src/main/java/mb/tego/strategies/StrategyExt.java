@@ -1,6 +1,8 @@
 package mb.tego.strategies;
 
 import mb.tego.functions.Function3;
+import mb.tego.strategies.runtime.MemoStrategy;
+import mb.tego.strategies.runtime.StrategyCache;
 import mb.tego.strategies.runtime.TegoEngine;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -485,6 +487,176 @@ public final class StrategyExt {
         };
     }
 
+    /**
+     * Memoizes the results of a strategy.
+     *
+     * Only memoize strategies that are pure functions of their input.
+     *
+     * @param s the strategy to memoize
+     * @param cache the cache in which to store the results
+     * @param <T> the type of input (contravariant)
+     * @param <R> the type of output (covariant)
+     * @return the memoizing strategy
+     * @see MemoStrategy
+     */
+    public static <T, R> Strategy<T, R> memo(Strategy<T, R> s, StrategyCache cache) {
+        return MemoStrategy.<T, R>getInstance().apply(s, cache);
+    }
+
+    /**
+     * Memoizes the results of a strategy in a new least-recently-used cache.
+     *
+     * Only memoize strategies that are pure functions of their input.
+     *
+     * @param s the strategy to memoize
+     * @param maximumSize the maximum number of results to cache
+     * @param <T> the type of input (contravariant)
+     * @param <R> the type of output (covariant)
+     * @return the memoizing strategy
+     * @see MemoStrategy
+     */
+    public static <T, R> Strategy<T, R> memo(Strategy<T, R> s, long maximumSize) {
+        return memo(s, new StrategyCache(maximumSize));
+    }
+
+    /**
+     * Memoizes the results of a strategy with one argument.
+     *
+     * Only memoize strategies that are pure functions of their arguments and input.
+     *
+     * @param s the strategy to memoize
+     * @param cache the cache in which to store the results
+     * @param <A1> the type of the first argument (contravariant)
+     * @param <T> the type of input (contravariant)
+     * @param <R> the type of output (covariant)
+     * @return the memoizing strategy
+     * @see MemoStrategy
+     */
+    public static <A1, T, R> Strategy1<A1, T, R> memo(Strategy1<A1, T, R> s, StrategyCache cache) {
+        return new Strategy1<A1, T, R>() {
+            @Override
+            public String getName() {
+                return "memo(" + s.getName() + ")";
+            }
+
+            @Override
+            public String getParamName(int index) {
+                return s.getParamName(index);
+            }
+
+            @Override
+            public @Nullable R evalInternal(TegoEngine engine, A1 arg1, T input) {
+                return MemoStrategy.memoize(cache, s, new Object[]{ arg1, input }, () -> engine.eval(s, arg1, input));
+            }
+
+            @Override
+            public StringBuilder writeTo(StringBuilder sb) {
+                sb.append("memo(");
+                s.writeTo(sb);
+                sb.append(')');
+                return sb;
+            }
+
+            @Override
+            public String toString() {
+                return writeTo(new StringBuilder()).toString();
+            }
+        };
+    }
+
+    /**
+     * Memoizes the results of a strategy with two arguments.
+     *
+     * Only memoize strategies that are pure functions of their arguments and input.
+     *
+     * @param s the strategy to memoize
+     * @param cache the cache in which to store the results
+     * @param <A1> the type of the first argument (contravariant)
+     * @param <A2> the type of the second argument (contravariant)
+     * @param <T> the type of input (contravariant)
+     * @param <R> the type of output (covariant)
+     * @return the memoizing strategy
+     * @see MemoStrategy
+     */
+    public static <A1, A2, T, R> Strategy2<A1, A2, T, R> memo(Strategy2<A1, A2, T, R> s, StrategyCache cache) {
+        return new Strategy2<A1, A2, T, R>() {
+            @Override
+            public String getName() {
+                return "memo(" + s.getName() + ")";
+            }
+
+            @Override
+            public String getParamName(int index) {
+                return s.getParamName(index);
+            }
+
+            @Override
+            public @Nullable R evalInternal(TegoEngine engine, A1 arg1, A2 arg2, T input) {
+                return MemoStrategy.memoize(cache, s, new Object[]{ arg1, arg2, input }, () -> engine.eval(s, arg1, arg2, input));
+            }
+
+            @Override
+            public StringBuilder writeTo(StringBuilder sb) {
+                sb.append("memo(");
+                s.writeTo(sb);
+                sb.append(')');
+                return sb;
+            }
+
+            @Override
+            public String toString() {
+                return writeTo(new StringBuilder()).toString();
+            }
+        };
+    }
+
+    /**
+     * Memoizes the results of a strategy with three arguments.
+     *
+     * Only memoize strategies that are pure functions of their arguments and input.
+     *
+     * @param s the strategy to memoize
+     * @param cache the cache in which to store the results
+     * @param <A1> the type of the first argument (contravariant)
+     * @param <A2> the type of the second argument (contravariant)
+     * @param <A3> the type of the third argument (contravariant)
+     * @param <T> the type of input (contravariant)
+     * @param <R> the type of output (covariant)
+     * @return the memoizing strategy
+     * @see MemoStrategy
+     */
+    public static <A1, A2, A3, T, R> Strategy3<A1, A2, A3, T, R> memo(Strategy3<A1, A2, A3, T, R> s, StrategyCache cache) {
+        return new Strategy3<A1, A2, A3, T, R>() {
+            @Override
+            public String getName() {
+                return "memo(" + s.getName() + ")";
+            }
+
+            @Override
+            public String getParamName(int index) {
+                return s.getParamName(index);
+            }
+
+            @Override
+            public @Nullable R evalInternal(TegoEngine engine, A1 arg1, A2 arg2, A3 arg3, T input) {
+                return MemoStrategy.memoize(cache, s, new Object[]{ arg1, arg2, arg3, input }, () -> engine.eval(s, arg1, arg2, arg3, input));
+            }
+
+            @Override
+            public StringBuilder writeTo(StringBuilder sb) {
+                sb.append("memo(");
+                s.writeTo(sb);
+                sb.append(')');
+                return sb;
+            }
+
+            @Override
+            public String toString() {
+                return writeTo(new StringBuilder()).toString();
+            }
+        };
+    }
+
     /**
      * Asserts that the value is not null.
      *
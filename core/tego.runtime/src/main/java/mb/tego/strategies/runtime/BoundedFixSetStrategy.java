@@ -0,0 +1,49 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.NamedStrategy2;
+import mb.tego.strategies.Strategy;
+
+/**
+ * Bounded fix-set strategy.
+ *
+ * This is the same as the {@link FixSetStrategy}, except that the strategy is applied
+ * at most the specified number of times in succession. When this maximum depth is reached,
+ * the strategy is not applied to the element, and the element is returned as if the strategy failed.
+ * This bounds the memory used by the strategy on deep or infinite search spaces,
+ * at the cost of returning elements that are not fixed points.
+ *
+ * @param <T> the type of input and output (invariant)
+ */
+public final class BoundedFixSetStrategy<T> extends NamedStrategy2<Strategy<T, Seq<T>>, Integer, T, Seq<T>> {
+
+    @SuppressWarnings({"rawtypes", "RedundantSuppression"})
+    private static final BoundedFixSetStrategy instance = new BoundedFixSetStrategy();
+    @SuppressWarnings({"unchecked", "unused", "RedundantCast", "RedundantSuppression"})
+    public static <T> BoundedFixSetStrategy<T> getInstance() { return (BoundedFixSetStrategy<T>)instance; }
+
+    private BoundedFixSetStrategy() { /* Prevent instantiation. Use getInstance(). */ }
+
+    public static <T> Seq<T> eval(TegoEngine engine, Strategy<T, Seq<T>> s, Integer maxDepth, T input) {
+        return FixSetStrategy.eval(engine, s, (int)maxDepth, input);
+    }
+
+    @Override
+    public Seq<T> evalInternal(TegoEngine engine, Strategy<T, Seq<T>> s, Integer maxDepth, T input) {
+        return eval(engine, s, maxDepth, input);
+    }
+
+    @Override
+    public String getName() {
+        return "boundedFixSet";
+    }
+
+    @Override
+    public String getParamName(int index) {
+        switch (index) {
+            case 0: return "s";
+            case 1: return "maxDepth";
+            default: return super.getParamName(index);
+        }
+    }
+}
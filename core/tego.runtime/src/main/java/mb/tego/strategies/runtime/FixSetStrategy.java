@@ -9,7 +9,6 @@ import mb.tego.utils.ExcludeFromJacocoGeneratedReport;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
 
 /**
  * Fix-set strategy.
@@ -20,6 +19,11 @@ import java.util.HashSet;
  * if {@code <s> X} fails, X is returned. Otherwise, if {@code <s> X} returns X among its results,
  * it is returned. In both cases, the strategy is no longer applied to any future X.
  *
+ * The visited and yielded elements are tracked in a single open-addressing table,
+ * which computes the hash of each element only once per lookup.
+ *
+ * Use {@link BoundedFixSetStrategy} to bound the number of times the strategy is applied in succession.
+ *
  * @param <T> the type of input and output (invariant)
  */
 public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>, T, Seq<T>> {
@@ -32,6 +36,22 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
     private FixSetStrategy() { /* Prevent instantiation. Use getInstance(). */ }
 
     public static <T> Seq<T> eval(TegoEngine engine, Strategy<T, Seq<T>> s, T input) {
+        return eval(engine, s, Integer.MAX_VALUE, input);
+    }
+
+    /**
+     * Evaluates the fix-set strategy with a maximum depth.
+     *
+     * @param engine the Tego engine
+     * @param s the strategy to apply
+     * @param maxDepth the maximum number of times the strategy is applied in succession to reach an element;
+     *                 elements at this depth are treated as if the strategy failed on them
+     * @param input the input
+     * @param <T> the type of input and output (invariant)
+     * @return the resulting sequence
+     */
+    /* package private */ static <T> Seq<T> eval(TegoEngine engine, Strategy<T, Seq<T>> s, int maxDepth, T input) {
+        if (maxDepth < 0) throw new IllegalArgumentException("'maxDepth' must be greater than or equal to 0.");
         return new SeqBase<T>() {
             // Implementation if `yield` and `yieldBreak` could actually suspend computation
             @SuppressWarnings("unused")
@@ -43,8 +63,7 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
                 // is pushed on the stack. As long as the sequence is not iterated,
                 // no computations will be done.
                 // 0:
-                final HashSet<T> visited = new HashSet<>();
-                final HashSet<T> yielded = new HashSet<>();
+                final FixSetTable<T> table = new FixSetTable<>();
                 final ArrayDeque<Seq<T>> stack = new ArrayDeque<>();
                 stack.push(Seq.of(input));
                 // 1:
@@ -58,24 +77,25 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
                         continue;
                     }
                     final T element = seq.getCurrent();
-                    if(visited.contains(element)) {
-                        if (!yielded.contains(element)){
+                    // Marks the element visited, or yielded when it was already visited
+                    final byte tag = table.advance(element);
+                    if (tag != FixSetTable.ABSENT) {
+                        if (tag == FixSetTable.VISITED) {
                             // We have previously handled this element
                             // so we're going to yield it and not yield it again
-                            yielded.add(element);
                             this.yield(element);
                         }
                     } else {
                         // 5:
                         // We have not previously handled this element,
-                        // so we mark it visited and not handle it again
-                        visited.add(element);
+                        // and it is now marked visited so we do not handle it again.
+                        // When the maximum depth is reached, we do not apply the strategy, and treat it as failed.
                         // We make the sequence peekable, so we can check whether it is empty
-                        @Nullable final Seq<T> resultSeq = engine.eval(s, element);
+                        @Nullable final Seq<T> resultSeq = stack.size() <= maxDepth ? engine.eval(s, element) : null;
                         @Nullable final PeekableSeq<T> result = resultSeq != null ? resultSeq.peekable() : null;
                         if(result == null || !result.peek()) {
                             // The strategy failed. Yield the element itself.
-                            yielded.add(element);
+                            table.advance(element);
                             this.yield(element);
                             // 6:
                         } else {
@@ -93,8 +113,7 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
             // STATE MACHINE
             private int state = 0;
             // LOCAL VARIABLES
-            private final HashSet<T> visited = new HashSet<>();
-            private final HashSet<T> yielded = new HashSet<>();
+            private final FixSetTable<T> table = new FixSetTable<>();
             private final ArrayDeque<Seq<T>> stack = new ArrayDeque<>();
 
             @Override
@@ -122,11 +141,12 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
                                 continue;
                             }
                             final T element = seq.getCurrent();
-                            if (visited.contains(element)) {
-                                if (!yielded.contains(element)){
+                            // Marks the element visited, or yielded when it was already visited
+                            final byte tag = table.advance(element);
+                            if (tag != FixSetTable.ABSENT) {
+                                if (tag == FixSetTable.VISITED) {
                                     // We have previously handled this element
                                     // so we're going to yield it and not yield it again
-                                    yielded.add(element);
                                     this.yield(element);
                                     this.state = 10;
                                     return;
@@ -135,13 +155,14 @@ public final class FixSetStrategy<T> extends NamedStrategy1<Strategy<T, Seq<T>>,
                                 continue;
                             }
                             // We have not previously handled this element,
-                            // so we mark it visited and not handle it again
-                            visited.add(element);
-                            @Nullable final Seq<T> resultSeq = engine.eval(s, element);
+                            // and it is now marked visited so we do not handle it again.
+                            // When the maximum depth is reached, we do not apply the strategy, and treat it as failed.
+                            // The stack holds one sequence per depth, starting with the input at depth 0.
+                            @Nullable final Seq<T> resultSeq = stack.size() <= maxDepth ? engine.eval(s, element) : null;
                             @Nullable final PeekableSeq<T> result = resultSeq != null ? resultSeq.peekable() : null;
                             if (result == null || !result.peek()) {
                                 // The strategy failed. Yield the element itself.
-                                yielded.add(element);
+                                table.advance(element);
                                 this.yield(element);
                                 this.state = 6;
                                 return;
@@ -0,0 +1,104 @@
+package mb.tego.strategies.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Objects;
+
+/**
+ * The table of elements encountered by the {@link FixSetStrategy}.
+ *
+ * This is an open-addressing hash table with linear probing that tags each element
+ * as either visited or yielded. The hash of each element is computed once per lookup
+ * and stored in the table, so that elements with different hashes are never compared
+ * with {@link Object#equals}, and the table can grow without recomputing any hashes.
+ *
+ * @param <T> the type of elements
+ */
+/* package private */ final class FixSetTable<T> {
+
+    /** The element is not in the table. */
+    static final byte ABSENT = 0;
+    /** The element has been visited, but not yielded. */
+    static final byte VISITED = 1;
+    /** The element has been visited and yielded. */
+    static final byte YIELDED = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private @Nullable Object[] elements = new Object[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    /** The tags of the slots, where {@link #ABSENT} indicates an empty slot. */
+    private byte[] tags = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Advances the tag of the specified element.
+     *
+     * An absent element is added and tagged visited; a visited element is tagged yielded;
+     * and a yielded element remains yielded.
+     *
+     * @param element the element
+     * @return the tag of the element before this call
+     */
+    byte advance(@Nullable T element) {
+        final int hash = hash(element);
+        final int mask = tags.length - 1;
+        int slot = hash & mask;
+        while (tags[slot] != ABSENT) {
+            if (hashes[slot] == hash && Objects.equals(elements[slot], element)) {
+                final byte tag = tags[slot];
+                tags[slot] = YIELDED;
+                return tag;
+            }
+            slot = (slot + 1) & mask;
+        }
+        elements[slot] = element;
+        hashes[slot] = hash;
+        tags[slot] = VISITED;
+        size += 1;
+        // Keep the load factor at most 1/2
+        if (size * 2 > tags.length) grow();
+        return ABSENT;
+    }
+
+    /**
+     * Gets the number of elements in the table.
+     *
+     * @return the number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        final @Nullable Object[] oldElements = this.elements;
+        final int[] oldHashes = this.hashes;
+        final byte[] oldTags = this.tags;
+        final int newCapacity = oldTags.length * 2;
+        this.elements = new Object[newCapacity];
+        this.hashes = new int[newCapacity];
+        this.tags = new byte[newCapacity];
+        final int mask = newCapacity - 1;
+        for (int i = 0; i < oldTags.length; i++) {
+            if (oldTags[i] == ABSENT) continue;
+            int slot = oldHashes[i] & mask;
+            while (tags[slot] != ABSENT) {
+                slot = (slot + 1) & mask;
+            }
+            elements[slot] = oldElements[i];
+            hashes[slot] = oldHashes[i];
+            tags[slot] = oldTags[i];
+        }
+    }
+
+    /**
+     * Computes the hash of an element, spreading the higher bits to the lower bits.
+     *
+     * @param element the element
+     * @return the hash
+     */
+    private static int hash(@Nullable Object element) {
+        final int h = element != null ? element.hashCode() : 0;
+        return h ^ (h >>> 16);
+    }
+}
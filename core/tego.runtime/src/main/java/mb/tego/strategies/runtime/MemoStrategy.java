@@ -0,0 +1,165 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.sequences.SeqBase;
+import mb.tego.strategies.NamedStrategy2;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.StrategyDecl;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Memoizing strategy.
+ *
+ * This returns the results of the strategy, caching them in a {@link StrategyCache}
+ * by the strategy, its arguments, and its input. A strategy failure is cached as well.
+ * When the strategy returns a lazy sequence, the elements are cached only once the sequence
+ * has been iterated completely; subsequent evaluations return a new sequence over the cached elements.
+ *
+ * Only memoize strategies that are pure functions of their arguments and input,
+ * whose arguments and input have efficient {@link Object#equals} and {@link Object#hashCode} implementations.
+ *
+ * Use {@link mb.tego.strategies.StrategyExt#memo} to memoize strategies with arguments.
+ *
+ * @param <T> the type of input (contravariant)
+ * @param <R> the type of output (covariant)
+ */
+public final class MemoStrategy<T, R> extends NamedStrategy2<Strategy<T, R>, StrategyCache, T, R> {
+
+    @SuppressWarnings({"rawtypes", "RedundantSuppression"})
+    private static final MemoStrategy instance = new MemoStrategy();
+    @SuppressWarnings({"unchecked", "unused", "RedundantCast", "RedundantSuppression"})
+    public static <T, R> MemoStrategy<T, R> getInstance() { return (MemoStrategy<T, R>)instance; }
+
+    private MemoStrategy() { /* Prevent instantiation. Use getInstance(). */ }
+
+    public static <T, R> @Nullable R eval(TegoEngine engine, Strategy<T, R> s, StrategyCache cache, T input) {
+        return memoize(cache, s, new Object[]{ input }, () -> engine.eval(s, input));
+    }
+
+    /**
+     * Returns the cached result of a strategy, or evaluates the strategy and caches its result.
+     *
+     * @param cache the cache
+     * @param strategy the strategy being memoized
+     * @param args the arguments and the input of the strategy
+     * @param evaluator evaluates the strategy when the result is not cached
+     * @param <R> the type of output (covariant)
+     * @return the result; or {@code null} if the strategy failed
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> @Nullable R memoize(StrategyCache cache, StrategyDecl strategy, Object[] args, Supplier<@Nullable R> evaluator) {
+        final Key key = new Key(strategy, args);
+        @Nullable final StrategyCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.result instanceof CachedSeq) {
+                return (R)Seq.from((CachedSeq)entry.result);
+            }
+            return (R)entry.result;
+        }
+        final @Nullable R result = evaluator.get();
+        if (result instanceof Seq) {
+            return (R)new RecordingSeq<>((Seq<Object>)result, cache, key);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    @Override
+    public @Nullable R evalInternal(TegoEngine engine, Strategy<T, R> s, StrategyCache cache, T input) {
+        return eval(engine, s, cache, input);
+    }
+
+    @Override
+    public String getName() {
+        return "memo";
+    }
+
+    @Override
+    public String getParamName(int index) {
+        switch (index) {
+            case 0: return "s";
+            case 1: return "cache";
+            default: return super.getParamName(index);
+        }
+    }
+
+    /**
+     * The key of a memoized strategy result.
+     */
+    private static final class Key {
+        private final StrategyDecl strategy;
+        private final Object[] args;
+        private final int hashCode;
+
+        Key(StrategyDecl strategy, Object[] args) {
+            this.strategy = strategy;
+            this.args = args;
+            this.hashCode = 31 * System.identityHashCode(strategy) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            final Key that = (Key)obj;
+            return this.hashCode == that.hashCode
+                && this.strategy == that.strategy
+                && Arrays.equals(this.args, that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The cached elements of a sequence.
+     */
+    private static final class CachedSeq extends ArrayList<Object> {
+        CachedSeq(List<Object> elements) {
+            super(elements);
+        }
+    }
+
+    /**
+     * Sequence that records the elements of the wrapped sequence,
+     * and caches them when the wrapped sequence is finished.
+     *
+     * @param <T> the type of elements in the sequence
+     */
+    private static final class RecordingSeq<T> extends SeqBase<T> {
+        private final Seq<T> seq;
+        private final StrategyCache cache;
+        private final Key key;
+        private final ArrayList<Object> elements = new ArrayList<>();
+
+        RecordingSeq(Seq<T> seq, StrategyCache cache, Key key) {
+            this.seq = seq;
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        protected void computeNext() throws InterruptedException {
+            if (seq.next()) {
+                final T element = seq.getCurrent();
+                elements.add(element);
+                this.yield(element);
+            } else {
+                cache.put(key, new CachedSeq(elements));
+                yieldBreak();
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            seq.close();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package mb.tego.strategies.runtime;
 
+import mb.tego.sequences.ParallelFlatMapSeq;
 import mb.tego.sequences.Seq;
 import mb.tego.sequences.SeqBase;
 import mb.tego.strategies.NamedStrategy2;
@@ -26,6 +27,11 @@ public final class OrStrategy<T, R> extends NamedStrategy2<Strategy<T, Seq<R>>,
     private OrStrategy() { /* Prevent instantiation. Use getInstance(). */ }
 
     public static <T, R> Seq<R> eval(TegoEngine engine, Strategy<T, Seq<R>> s1, Strategy<T, Seq<R>> s2, T input) {
+        final @Nullable TegoParallelism parallelism = engine.getParallelism();
+        if (parallelism != null) {
+            // Evaluate both branches in parallel, but return the results of s1 before those of s2
+            return new ParallelFlatMapSeq<>(Seq.of(s1, s2), s -> engine.eval(s, input), parallelism.getExecutor(), 2);
+        }
         return new SeqBase<R>() {
 
             // Implementation if `yield` and `yieldBreak` could actually suspend computation
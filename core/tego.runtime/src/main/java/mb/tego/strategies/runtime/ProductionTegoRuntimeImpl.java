@@ -0,0 +1,192 @@
+package mb.tego.strategies.runtime;
+
+import mb.log.api.Level;
+import mb.log.api.Logger;
+import mb.log.api.LoggerFactory;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.Strategy1;
+import mb.tego.strategies.Strategy2;
+import mb.tego.strategies.Strategy3;
+import mb.tego.strategies.StrategyDecl;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements the {@link TegoRuntime} for production use.
+ *
+ * Unlike {@link TegoRuntimeImpl}, this runtime does not trace the evaluation of strategies.
+ * Its {@code eval} methods directly evaluate the strategy, unless a {@link TegoRuntimeListener} is attached.
+ * This runtime is thread-safe if the attached listener (if any) is thread-safe.
+ *
+ * Use {@link TegoRuntimeBuilder} to create an instance of this runtime.
+ */
+public final class ProductionTegoRuntimeImpl implements TegoRuntime, TegoEngine {
+
+    @Nullable private final LoggerFactory loggerFactory;
+    @Nullable private final TegoRuntimeListener listener;
+    @Nullable private final TegoParallelism parallelism;
+    private final Level strategyLogLevel = Level.Trace;
+    /** Caches the loggers by strategy name. */
+    private final ConcurrentHashMap<String, Logger> loggers = new ConcurrentHashMap<>();
+
+    /**
+     * Initializes a new instance of the {@link ProductionTegoRuntimeImpl} class.
+     *
+     * @param loggerFactory the logger factory; or {@code null} to not log
+     * @param listener the listener to notify of strategy evaluations; or {@code null} to not notify
+     * @param parallelism the parallelism configuration; or {@code null} to evaluate strategies sequentially
+     */
+    public ProductionTegoRuntimeImpl(
+        @Nullable LoggerFactory loggerFactory,
+        @Nullable TegoRuntimeListener listener,
+        @Nullable TegoParallelism parallelism
+    ) {
+        this.loggerFactory = loggerFactory;
+        this.listener = listener;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ProductionTegoRuntimeImpl} class
+     * that evaluates strategies sequentially.
+     *
+     * @param loggerFactory the logger factory; or {@code null} to not log
+     * @param listener the listener to notify of strategy evaluations; or {@code null} to not notify
+     */
+    public ProductionTegoRuntimeImpl(
+        @Nullable LoggerFactory loggerFactory,
+        @Nullable TegoRuntimeListener listener
+    ) {
+        this(loggerFactory, listener, null);
+    }
+
+    @Override
+    public @Nullable TegoParallelism getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public @Nullable Object eval(StrategyDecl strategy, Object[] args, Object input) {
+        final @Nullable TegoRuntimeListener listener = this.listener;
+        if (listener == null) return strategy.evalInternal(this, args, input);
+        listener.enterStrategy(strategy);
+        final @Nullable Object result;
+        try {
+            result = strategy.evalInternal(this, args, input);
+        } catch (Throwable ex) {
+            listener.exitStrategy(strategy, null);
+            throw ex;
+        }
+        return listener.exitStrategy(strategy, result);
+    }
+
+    @Override
+    public <T, R> @Nullable R eval(Strategy<T, R> strategy, T input) {
+        final @Nullable TegoRuntimeListener listener = this.listener;
+        if (listener == null) return strategy.evalInternal(this, input);
+        listener.enterStrategy(strategy);
+        final @Nullable R result;
+        try {
+            result = strategy.evalInternal(this, input);
+        } catch (Throwable ex) {
+            listener.exitStrategy(strategy, null);
+            throw ex;
+        }
+        return listener.exitStrategy(strategy, result);
+    }
+
+    @Override
+    public <A1, T, R> @Nullable R eval(Strategy1<A1, T, R> strategy, A1 arg1, T input) {
+        final @Nullable TegoRuntimeListener listener = this.listener;
+        if (listener == null) return strategy.evalInternal(this, arg1, input);
+        listener.enterStrategy(strategy);
+        final @Nullable R result;
+        try {
+            result = strategy.evalInternal(this, arg1, input);
+        } catch (Throwable ex) {
+            listener.exitStrategy(strategy, null);
+            throw ex;
+        }
+        return listener.exitStrategy(strategy, result);
+    }
+
+    @Override
+    public <A1, A2, T, R> @Nullable R eval(Strategy2<A1, A2, T, R> strategy, A1 arg1, A2 arg2, T input) {
+        final @Nullable TegoRuntimeListener listener = this.listener;
+        if (listener == null) return strategy.evalInternal(this, arg1, arg2, input);
+        listener.enterStrategy(strategy);
+        final @Nullable R result;
+        try {
+            result = strategy.evalInternal(this, arg1, arg2, input);
+        } catch (Throwable ex) {
+            listener.exitStrategy(strategy, null);
+            throw ex;
+        }
+        return listener.exitStrategy(strategy, result);
+    }
+
+    @Override
+    public <A1, A2, A3, T, R> @Nullable R eval(Strategy3<A1, A2, A3, T, R> strategy, A1 arg1, A2 arg2, A3 arg3, T input) {
+        final @Nullable TegoRuntimeListener listener = this.listener;
+        if (listener == null) return strategy.evalInternal(this, arg1, arg2, arg3, input);
+        listener.enterStrategy(strategy);
+        final @Nullable R result;
+        try {
+            result = strategy.evalInternal(this, arg1, arg2, arg3, input);
+        } catch (Throwable ex) {
+            listener.exitStrategy(strategy, null);
+            throw ex;
+        }
+        return listener.exitStrategy(strategy, result);
+    }
+
+    @Override
+    public boolean isLogEnabled(StrategyDecl strategy) {
+        @Nullable final Logger logger = getLogger(strategy);
+        if (logger == null) return false;
+        return logger.isEnabled(strategyLogLevel);
+    }
+
+    @Override
+    public void log(StrategyDecl strategy, String message) {
+        @Nullable final Logger logger = getLogger(strategy);
+        if (logger == null) return;
+        logger.log(strategyLogLevel, message);
+    }
+
+    @Override
+    public void log(StrategyDecl strategy, String message, Throwable cause) {
+        @Nullable final Logger logger = getLogger(strategy);
+        if (logger == null) return;
+        logger.log(strategyLogLevel, message, cause);
+    }
+
+    @Override
+    public void log(StrategyDecl strategy, String message, Object... args) {
+        @Nullable final Logger logger = getLogger(strategy);
+        if (logger == null) return;
+        logger.log(strategyLogLevel, message, args);
+    }
+
+    @Override
+    public void log(StrategyDecl strategy, String message, Throwable cause, Object... args) {
+        @Nullable final Logger logger = getLogger(strategy);
+        if (logger == null) return;
+        logger.log(strategyLogLevel, message, cause, args);
+    }
+
+    /**
+     * Gets a logger for the given strategy.
+     *
+     * @param strategy the strategy to get the logger for
+     * @return the logger; or {@code null} if no logger will be available
+     */
+    @Nullable private Logger getLogger(StrategyDecl strategy) {
+        @Nullable final LoggerFactory loggerFactory = this.loggerFactory;
+        if (loggerFactory == null) return null;
+        // We separate the strategy name from the prefix with "::.", such that you
+        // can filter logs on a dot-prefix or colon-colon-prefix.
+        return loggers.computeIfAbsent(strategy.getName(), name -> loggerFactory.create("tego::." + name));
+    }
+}
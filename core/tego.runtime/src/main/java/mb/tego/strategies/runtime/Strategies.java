@@ -80,6 +80,13 @@ public final class Strategies {
         return FixSetStrategy.<T>getInstance().apply(s);
     }
 
+    public static <T> Strategy<T, Seq<T>> fixSet(
+        Strategy<T, Seq<T>> s,
+        int maxDepth
+    ) {
+        return BoundedFixSetStrategy.<T>getInstance().apply(s, maxDepth);
+    }
+
     public static <T, R> Strategy<T, Seq<R>> ntl(
         Strategy<T, @Nullable R> s
     ) {
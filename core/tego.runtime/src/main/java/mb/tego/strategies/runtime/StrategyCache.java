@@ -0,0 +1,215 @@
+package mb.tego.strategies.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A thread-safe cache of strategy results, used by memoized strategies.
+ *
+ * The cache evicts the least recently used entries when it holds more than the maximum number of entries,
+ * or when the total weight of its entries exceeds the maximum weight.
+ *
+ * A single cache can be shared by multiple memoized strategies.
+ *
+ * @see mb.tego.strategies.StrategyExt#memo
+ */
+public final class StrategyCache {
+
+    /**
+     * Determines the weight of a cached strategy result.
+     */
+    @FunctionalInterface
+    public interface Weigher {
+        /**
+         * Determines the weight of a cached strategy result.
+         *
+         * @param result the result; or {@code null} when the strategy failed;
+         *               or a {@link List} of the elements when the strategy returned a sequence
+         * @return the weight of the result, which must be zero or more
+         */
+        long weigh(@Nullable Object result);
+    }
+
+    /**
+     * The default weigher, which weighs sequences by the number of elements, and other results as 1.
+     */
+    public static final Weigher defaultWeigher = result -> result instanceof List ? ((List<?>)result).size() + 1 : 1;
+
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final Weigher weigher;
+    /** The entries, in access order. Guarded by {@code this}. */
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** The total weight of the entries. Guarded by {@code this}. */
+    private long totalWeight = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Initializes a new instance of the {@link StrategyCache} class.
+     *
+     * @param maximumSize the maximum number of entries in the cache
+     * @param maximumWeight the maximum total weight of the entries in the cache
+     * @param weigher the weigher that determines the weight of each entry
+     */
+    public StrategyCache(long maximumSize, long maximumWeight, Weigher weigher) {
+        if (maximumSize < 0) throw new IllegalArgumentException("'maximumSize' must be greater than or equal to 0.");
+        if (maximumWeight < 0) throw new IllegalArgumentException("'maximumWeight' must be greater than or equal to 0.");
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Initializes a new instance of the {@link StrategyCache} class
+     * that is only bounded by the number of entries.
+     *
+     * @param maximumSize the maximum number of entries in the cache
+     */
+    public StrategyCache(long maximumSize) {
+        this(maximumSize, Long.MAX_VALUE, defaultWeigher);
+    }
+
+    /**
+     * Gets the cached result for the specified key.
+     *
+     * @param key the key
+     * @return the cached entry; or {@code null} when the key is not in the cache
+     */
+    /* package private */ synchronized @Nullable Entry get(Object key) {
+        @Nullable final Entry entry = entries.get(key);
+        if (entry != null) {
+            hitCount += 1;
+        } else {
+            missCount += 1;
+        }
+        return entry;
+    }
+
+    /**
+     * Puts a result in the cache.
+     *
+     * @param key the key
+     * @param result the result; or {@code null} when the strategy failed;
+     *               or a {@link List} of the elements when the strategy returned a sequence
+     */
+    /* package private */ synchronized void put(Object key, @Nullable Object result) {
+        final long weight = weigher.weigh(result);
+        if (weight > maximumWeight || maximumSize == 0) return;
+        @Nullable final Entry previous = entries.put(key, new Entry(result, weight));
+        if (previous != null) totalWeight -= previous.weight;
+        totalWeight += weight;
+        evict();
+    }
+
+    /**
+     * Evicts the least recently used entries, until the cache is within its bounds.
+     */
+    private void evict() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maximumSize || totalWeight > maximumWeight) && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            iterator.remove();
+            totalWeight -= entry.weight;
+            evictionCount += 1;
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     *
+     * This does not reset the statistics.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, entries.size(), totalWeight);
+    }
+
+    /**
+     * A cached strategy result.
+     */
+    /* package private */ static final class Entry {
+        /** The result; or {@code null} when the strategy failed; or a {@link List} when it returned a sequence. */
+        @Nullable final Object result;
+        final long weight;
+
+        Entry(@Nullable Object result, long weight) {
+            this.result = result;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * The statistics of a {@link StrategyCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+        private final long weight;
+
+        /* package private */ Stats(long hitCount, long missCount, long evictionCount, long size, long weight) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        /** Gets the number of lookups that found a cached result. */
+        public long getHitCount() { return hitCount; }
+
+        /** Gets the number of lookups that did not find a cached result. */
+        public long getMissCount() { return missCount; }
+
+        /** Gets the number of entries that were evicted. */
+        public long getEvictionCount() { return evictionCount; }
+
+        /** Gets the number of entries in the cache. */
+        public long getSize() { return size; }
+
+        /** Gets the total weight of the entries in the cache. */
+        public long getWeight() { return weight; }
+
+        /** Gets the ratio of lookups that found a cached result; or 1.0 if there were no lookups. */
+        public double getHitRate() {
+            final long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+        }
+
+        @Override public String toString() {
+            return "{" +
+                "hits: " + hitCount +
+                ", misses: " + missCount +
+                ", evictions: " + evictionCount +
+                ", size: " + size +
+                ", weight: " + weight +
+                " }";
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package mb.tego.strategies.runtime;
 
 import mb.tego.strategies.StrategyDecl;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * The Tego engine.
@@ -9,6 +10,15 @@ import mb.tego.strategies.StrategyDecl;
  */
 public interface TegoEngine extends TegoRuntime {
 
+    /**
+     * Gets the configuration for the parallel evaluation of strategies.
+     *
+     * @return the parallelism configuration; or {@code null} to evaluate strategies sequentially
+     */
+    default @Nullable TegoParallelism getParallelism() {
+        return null;
+    }
+
     /**
      * Whether logging is enabled for the given strategy.
      *
@@ -0,0 +1,48 @@
+package mb.tego.strategies.runtime;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Configures the parallel evaluation of strategies.
+ *
+ * When a Tego engine has a parallelism configuration, the branches of
+ * {@link OrStrategy} and {@link FlatMapStrategy} are evaluated in parallel on the executor.
+ * Their results are still returned in the same order as when they are evaluated sequentially.
+ * However, the branches are evaluated ahead of the consumer, so all strategies involved must be thread-safe.
+ * Each branch computes a bounded number of results in advance, and is cancelled when its sequence is closed.
+ */
+public final class TegoParallelism {
+
+    private final Executor executor;
+    private final int lookAhead;
+
+    /**
+     * Initializes a new instance of the {@link TegoParallelism} class.
+     *
+     * @param executor the executor on which to evaluate the branches, usually a {@link java.util.concurrent.ForkJoinPool}
+     * @param lookAhead the maximum number of branches of a single {@link FlatMapStrategy} that are evaluated in advance
+     */
+    public TegoParallelism(Executor executor, int lookAhead) {
+        if (lookAhead < 1) throw new IllegalArgumentException("'lookAhead' must be greater than or equal to 1.");
+        this.executor = executor;
+        this.lookAhead = lookAhead;
+    }
+
+    /**
+     * Gets the executor on which to evaluate the branches.
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the maximum number of branches of a single {@link FlatMapStrategy} that are evaluated in advance.
+     *
+     * @return the look-ahead
+     */
+    public int getLookAhead() {
+        return lookAhead;
+    }
+}
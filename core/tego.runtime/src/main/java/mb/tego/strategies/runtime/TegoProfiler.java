@@ -0,0 +1,384 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.sequences.SeqBase;
+import mb.tego.strategies.StrategyDecl;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Profiles the evaluation of named strategies.
+ *
+ * Attach the profiler to a runtime using {@link TegoRuntimeBuilder#withListener}.
+ * The profiler can be used by multiple threads at the same time: each thread keeps its own stack of
+ * strategy invocations in primitive arrays, and the measurements are accumulated in striped counters.
+ *
+ * For each named strategy, the profiler measures:
+ * <ul>
+ *     <li>the number of calls;</li>
+ *     <li>the inclusive time, spent evaluating the strategy, including nested strategies;</li>
+ *     <li>the result time, spent computing elements of the lazy sequence returned by the strategy,
+ *     including nested strategies;</li>
+ *     <li>the self time, spent evaluating the strategy or computing its results,
+ *     excluding nested named strategies; and</li>
+ *     <li>an estimate of the number of bytes allocated in the self time, if supported by the JVM.</li>
+ * </ul>
+ * Anonymous strategies are attributed to the named strategy that invokes them.
+ * Note that the inclusive time of a recursive strategy includes its recursive invocations.
+ *
+ * The self times can be exported as collapsed stacks using {@link #writeCollapsedStacks},
+ * which can be rendered as a flame graph.
+ */
+public final class TegoProfiler implements TegoRuntimeListener {
+
+    /** Gets the number of bytes allocated by a thread, given its ID; or {@code null} when not supported. */
+    @Nullable private static final MethodHandle threadAllocatedBytes = findThreadAllocatedBytes();
+
+    private final boolean measureAllocations;
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final CallTreeNode root = new CallTreeNode("", null);
+    private final ThreadLocal<FrameStack> frames = ThreadLocal.withInitial(FrameStack::new);
+
+    /**
+     * Initializes a new instance of the {@link TegoProfiler} class.
+     *
+     * @param measureAllocations whether to estimate the allocated bytes; this is ignored when the JVM does not support it
+     */
+    public TegoProfiler(boolean measureAllocations) {
+        this.measureAllocations = measureAllocations && threadAllocatedBytes != null;
+    }
+
+    /**
+     * Initializes a new instance of the {@link TegoProfiler} class
+     * that does not estimate the allocated bytes.
+     */
+    public TegoProfiler() {
+        this(false);
+    }
+
+    @Override
+    public void enterStrategy(StrategyDecl strategy) {
+        // Only measure named strategies
+        if (strategy.isAnonymous()) return;
+        final FrameStack stack = frames.get();
+        stack.push(stack.top(root).getChild(strategy.getName()), false);
+    }
+
+    @Override
+    public <R> @Nullable R exitStrategy(StrategyDecl strategy, @Nullable R result) {
+        // Only measure named strategies
+        if (strategy.isAnonymous()) return result;
+        final FrameStack stack = frames.get();
+        if (stack.depth == 0) return result;
+        final CallTreeNode node = stack.pop();
+        if (result instanceof Seq) {
+            //noinspection unchecked
+            return (R)new ProfilingSeq<>((Seq<Object>)result, node.name);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the measurements of the strategies profiled so far.
+     *
+     * @return a map from strategy name to profile, ordered from highest to lowest self time
+     */
+    public Map<String, StrategyProfile> getProfiles() {
+        final List<StrategyProfile> profiles = new ArrayList<>(counters.size());
+        counters.forEach((name, c) -> profiles.add(c.toProfile(name)));
+        profiles.sort(Comparator.comparingLong(StrategyProfile::getSelfTime).reversed());
+        final LinkedHashMap<String, StrategyProfile> result = new LinkedHashMap<>();
+        for (StrategyProfile profile : profiles) {
+            result.put(profile.getName(), profile);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Writes the self time of each strategy call stack in the collapsed stack format,
+     * as used by flame graph tools.
+     *
+     * Each line consists of the names of the strategies in the call stack, separated by semicolons,
+     * followed by a space and the self time of the top-most strategy in microseconds.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if an I/O exception occurred
+     */
+    public void writeCollapsedStacks(Writer writer) throws IOException {
+        final StringBuilder path = new StringBuilder();
+        for (CallTreeNode child : root.children.values()) {
+            writeCollapsedStacks(writer, child, path);
+        }
+        writer.flush();
+    }
+
+    private void writeCollapsedStacks(Writer writer, CallTreeNode node, StringBuilder path) throws IOException {
+        final int length = path.length();
+        if (length > 0) path.append(';');
+        path.append(node.name);
+        final long selfTimeMicros = node.selfTime.sum() / 1000;
+        if (selfTimeMicros > 0) {
+            writer.append(path).append(' ').append(Long.toString(selfTimeMicros)).append('\n');
+        }
+        for (CallTreeNode child : node.children.values()) {
+            writeCollapsedStacks(writer, child, path);
+        }
+        path.setLength(length);
+    }
+
+    /**
+     * Discards all measurements.
+     *
+     * This should not be called while strategies are being profiled.
+     */
+    public void reset() {
+        counters.clear();
+        root.children.clear();
+    }
+
+    /**
+     * Gets the counters for the strategy with the specified name.
+     *
+     * @param name the strategy name
+     * @return the counters
+     */
+    private Counters getCounters(String name) {
+        @Nullable final Counters c = counters.get(name);
+        if (c != null) return c;
+        return counters.computeIfAbsent(name, n -> new Counters());
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far.
+     *
+     * @return the number of allocated bytes; or 0 if not measured
+     */
+    private long allocatedBytes() {
+        if (!measureAllocations) return 0;
+        try {
+            //noinspection ConstantConditions
+            return (long)threadAllocatedBytes.invokeExact(Thread.currentThread().getId());
+        } catch(Throwable ex) {
+            return 0;
+        }
+    }
+
+    @Nullable private static MethodHandle findThreadAllocatedBytes() {
+        // The com.sun.management.ThreadMXBean interface is not available on all JVMs,
+        // so we look it up reflectively.
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            final Class<?> cls = Class.forName("com.sun.management.ThreadMXBean");
+            if (!cls.isInstance(bean)) return null;
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final boolean supported = (boolean)lookup.findVirtual(cls, "isThreadAllocatedMemorySupported", MethodType.methodType(boolean.class)).invoke(bean);
+            if (!supported) return null;
+            return lookup.findVirtual(cls, "getThreadAllocatedBytes", MethodType.methodType(long.class, long.class)).bindTo(bean);
+        } catch(Throwable ex) {
+            return null;
+        }
+    }
+
+    /**
+     * The profile of a strategy.
+     */
+    public static final class StrategyProfile {
+        private final String name;
+        private final long callCount;
+        private final long selfTime;
+        private final long inclusiveTime;
+        private final long resultTime;
+        private final long allocatedBytes;
+
+        /* package private */ StrategyProfile(String name, long callCount, long selfTime, long inclusiveTime, long resultTime, long allocatedBytes) {
+            this.name = name;
+            this.callCount = callCount;
+            this.selfTime = selfTime;
+            this.inclusiveTime = inclusiveTime;
+            this.resultTime = resultTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /** Gets the name of the strategy. */
+        public String getName() { return name; }
+
+        /** Gets the number of times the strategy was evaluated. */
+        public long getCallCount() { return callCount; }
+
+        /** Gets the time spent in the strategy and its results, excluding nested named strategies, in nanoseconds. */
+        public long getSelfTime() { return selfTime; }
+
+        /** Gets the time spent evaluating the strategy, including nested strategies, in nanoseconds. */
+        public long getInclusiveTime() { return inclusiveTime; }
+
+        /** Gets the time spent computing the results of the strategy, including nested strategies, in nanoseconds. */
+        public long getResultTime() { return resultTime; }
+
+        /** Gets the estimated number of bytes allocated in the self time; or 0 if not measured. */
+        public long getAllocatedBytes() { return allocatedBytes; }
+
+        @Override public String toString() {
+            return "{" +
+                "calls: " + callCount +
+                ", self: " + (selfTime / 1000000.0) +
+                " ms, inclusive: " + (inclusiveTime / 1000000.0) +
+                " ms, result: " + (resultTime / 1000000.0) +
+                " ms, allocated: " + allocatedBytes +
+                " B }";
+        }
+    }
+
+    /**
+     * The accumulated measurements of a strategy.
+     */
+    private static final class Counters {
+        final LongAdder callCount = new LongAdder();
+        final LongAdder selfTime = new LongAdder();
+        final LongAdder inclusiveTime = new LongAdder();
+        final LongAdder resultTime = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+
+        StrategyProfile toProfile(String name) {
+            return new StrategyProfile(name, callCount.sum(), selfTime.sum(), inclusiveTime.sum(), resultTime.sum(), allocatedBytes.sum());
+        }
+    }
+
+    /**
+     * A node in the call tree, which represents a unique stack of strategy calls.
+     */
+    private final class CallTreeNode {
+        final String name;
+        @Nullable final Counters counters;
+        final LongAdder selfTime = new LongAdder();
+        final ConcurrentHashMap<String, CallTreeNode> children = new ConcurrentHashMap<>();
+
+        CallTreeNode(String name, @Nullable Counters counters) {
+            this.name = name;
+            this.counters = counters;
+        }
+
+        CallTreeNode getChild(String name) {
+            @Nullable final CallTreeNode child = children.get(name);
+            if (child != null) return child;
+            return children.computeIfAbsent(name, n -> new CallTreeNode(n, getCounters(n)));
+        }
+    }
+
+    /**
+     * The per-thread stack of strategy frames.
+     */
+    private final class FrameStack {
+        int depth = 0;
+        CallTreeNode[] nodes = new CallTreeNode[64];
+        boolean[] isResult = new boolean[64];
+        long[] startTimes = new long[64];
+        long[] childTimes = new long[64];
+        long[] startAllocations = new long[64];
+        long[] childAllocations = new long[64];
+
+        CallTreeNode top(CallTreeNode root) {
+            return depth > 0 ? nodes[depth - 1] : root;
+        }
+
+        void push(CallTreeNode node, boolean isResult) {
+            if (depth == nodes.length) grow();
+            final int d = depth;
+            this.nodes[d] = node;
+            this.isResult[d] = isResult;
+            this.childTimes[d] = 0;
+            this.childAllocations[d] = 0;
+            this.startAllocations[d] = allocatedBytes();
+            this.startTimes[d] = System.nanoTime();
+            this.depth = d + 1;
+        }
+
+        CallTreeNode pop() {
+            final long endTime = System.nanoTime();
+            final long endAllocation = allocatedBytes();
+            final int d = depth - 1;
+            this.depth = d;
+            final CallTreeNode node = nodes[d];
+            nodes[d] = null;
+            final long elapsedTime = endTime - startTimes[d];
+            final long allocated = endAllocation - startAllocations[d];
+            if (d > 0) {
+                childTimes[d - 1] += elapsedTime;
+                childAllocations[d - 1] += allocated;
+            }
+            final long selfTime = elapsedTime - childTimes[d];
+            node.selfTime.add(selfTime);
+            final Counters c = node.counters;
+            assert c != null;
+            c.selfTime.add(selfTime);
+            c.allocatedBytes.add(allocated - childAllocations[d]);
+            if (isResult[d]) {
+                c.resultTime.add(elapsedTime);
+            } else {
+                c.callCount.increment();
+                c.inclusiveTime.add(elapsedTime);
+            }
+            return node;
+        }
+
+        private void grow() {
+            final int newLength = nodes.length * 2;
+            this.nodes = Arrays.copyOf(nodes, newLength);
+            this.isResult = Arrays.copyOf(isResult, newLength);
+            this.startTimes = Arrays.copyOf(startTimes, newLength);
+            this.childTimes = Arrays.copyOf(childTimes, newLength);
+            this.startAllocations = Arrays.copyOf(startAllocations, newLength);
+            this.childAllocations = Arrays.copyOf(childAllocations, newLength);
+        }
+    }
+
+    /**
+     * Sequence that attributes the computation of its elements to the strategy that returned it.
+     *
+     * @param <T> the type of elements in the sequence
+     */
+    private final class ProfilingSeq<T> extends SeqBase<T> {
+        private final Seq<T> seq;
+        private final String name;
+
+        ProfilingSeq(Seq<T> seq, String name) {
+            this.seq = seq;
+            this.name = name;
+        }
+
+        @Override
+        protected void computeNext() throws InterruptedException {
+            final FrameStack stack = frames.get();
+            stack.push(stack.top(root).getChild(name), true);
+            try {
+                if (seq.next()) {
+                    this.yield(seq.getCurrent());
+                } else {
+                    yieldBreak();
+                }
+            } finally {
+                stack.pop();
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            seq.close();
+        }
+    }
+}
@@ -22,7 +22,7 @@ public interface TegoRuntime {
      * @return the Tego runtime
      */
     static TegoRuntime createRuntime(LoggerFactory loggerFactory) {
-        return new TegoRuntimeImpl(loggerFactory);
+        return new TegoRuntimeBuilder(loggerFactory).build();
     }
 
     /**
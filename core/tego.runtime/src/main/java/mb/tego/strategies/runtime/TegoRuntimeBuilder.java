@@ -1,26 +1,75 @@
 package mb.tego.strategies.runtime;
 
 import mb.log.api.LoggerFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Builds the Tego runtime.
+ *
+ * By default, this builds a {@link ProductionTegoRuntimeImpl} without a listener.
  */
 public final class TegoRuntimeBuilder {
 
-    private final LoggerFactory loggerFactory;
+    @Nullable private final LoggerFactory loggerFactory;
+    private boolean tracing = false;
+    @Nullable private TegoRuntimeListener listener = null;
+    @Nullable private TegoParallelism parallelism = null;
 
     public TegoRuntimeBuilder(
-        LoggerFactory loggerFactory
+        @Nullable LoggerFactory loggerFactory
     ) {
         this.loggerFactory = loggerFactory;
     }
 
+    /**
+     * Sets whether to build a runtime that traces the evaluation of strategies.
+     *
+     * A tracing runtime logs each strategy evaluation at the trace level, and is not thread-safe.
+     *
+     * @param tracing {@code true} to build a tracing runtime; otherwise, {@code false}
+     * @return this builder
+     */
+    public TegoRuntimeBuilder withTracing(boolean tracing) {
+        this.tracing = tracing;
+        return this;
+    }
+
+    /**
+     * Sets the listener to notify of strategy evaluations.
+     *
+     * This is ignored when building a tracing runtime.
+     *
+     * @param listener the listener; or {@code null} to not notify a listener
+     * @return this builder
+     */
+    public TegoRuntimeBuilder withListener(@Nullable TegoRuntimeListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the configuration for evaluating the branches of
+     * {@link OrStrategy} and {@link FlatMapStrategy} in parallel.
+     *
+     * This is ignored when building a tracing runtime.
+     *
+     * @param parallelism the parallelism configuration; or {@code null} to evaluate strategies sequentially
+     * @return this builder
+     */
+    public TegoRuntimeBuilder withParallelism(@Nullable TegoParallelism parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
     /**
      * Builds the Tego runtime.
      *
      * @return the built Tego runtime
      */
     public TegoRuntime build() {
-        return new TegoRuntimeImpl(loggerFactory);
+        if (tracing) {
+            return new TegoRuntimeImpl(loggerFactory);
+        }
+        return new ProductionTegoRuntimeImpl(loggerFactory, listener, parallelism);
     }
 }
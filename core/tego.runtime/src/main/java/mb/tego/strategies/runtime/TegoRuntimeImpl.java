@@ -17,6 +17,9 @@ import javax.inject.Inject;
 
 /**
  * Implements the {@link TegoRuntime}.
+ *
+ * This runtime traces the evaluation of strategies, and is not thread-safe.
+ * For production use, see {@link ProductionTegoRuntimeImpl}.
  */
 public /* open */ class TegoRuntimeImpl implements TegoRuntime, TegoEngine {
 
@@ -80,6 +83,7 @@ public /* open */ class TegoRuntimeImpl implements TegoRuntime, TegoEngine {
      */
     protected void enterStrategy(StrategyDecl strategy) {
         level += 1;
+        if (!log.isEnabled(Level.Trace)) return;
         log.trace(prefixString("→", level, " " + strategy.toString()));
     }
 
@@ -91,11 +95,13 @@ public /* open */ class TegoRuntimeImpl implements TegoRuntime, TegoEngine {
      * @return the (possibly modified) result of evaluating the strategy
      */
     protected <R> @Nullable R exitStrategy(StrategyDecl strategy, @Nullable R result) {
-        log.trace(prefixString(" ", level - 1, " " + strategy));
-        if (result != null) {
-            log.trace(prefixString(" ", level - 1, "← " + strategy.toString()));
-        } else {
-            log.trace(prefixString(" ", level - 1, "⨯ " + strategy.toString()));
+        if (log.isEnabled(Level.Trace)) {
+            log.trace(prefixString(" ", level - 1, " " + strategy));
+            if (result != null) {
+                log.trace(prefixString(" ", level - 1, "← " + strategy.toString()));
+            } else {
+                log.trace(prefixString(" ", level - 1, "⨯ " + strategy.toString()));
+            }
         }
         level -= 1;
         return result;
@@ -0,0 +1,33 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.strategies.StrategyDecl;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Listens to the evaluation of strategies by a Tego runtime.
+ *
+ * A listener may be called concurrently from multiple threads.
+ */
+public interface TegoRuntimeListener {
+
+    /**
+     * Called just before a strategy is evaluated.
+     *
+     * @param strategy the strategy that will be evaluated
+     */
+    void enterStrategy(StrategyDecl strategy);
+
+    /**
+     * Called just after a strategy is evaluated.
+     *
+     * This is also called when the evaluation threw an exception,
+     * in which case the result is {@code null} and the return value is ignored.
+     *
+     * @param strategy the strategy that was evaluated
+     * @param result the result of evaluating the strategy
+     * @param <R> the type of result
+     * @return the (possibly modified) result of evaluating the strategy
+     */
+    <R> @Nullable R exitStrategy(StrategyDecl strategy, @Nullable R result);
+
+}
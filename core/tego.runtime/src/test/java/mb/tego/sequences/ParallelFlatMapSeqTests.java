@@ -0,0 +1,222 @@
+package mb.tego.sequences;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link ParallelFlatMapSeq} class.
+ */
+public final class ParallelFlatMapSeqTests {
+
+    @Test
+    public void shouldReturnResultsInInputOrder() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final List<Integer> input = new ArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            input.add(i);
+            expected.add(i * 10);
+            expected.add(i * 10 + 1);
+        }
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.from(input), it -> {
+            // Later elements finish sooner
+            Thread.sleep((50 - it) / 10);
+            return Seq.of(it * 10, it * 10 + 1);
+        }, pool, 8);
+
+        // Act
+        final List<Integer> result = seq.toList();
+
+        // Assert
+        assertEquals(expected, result);
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldSkipFailedElements() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2, 3), it -> it == 2 ? null : Seq.of(it), pool, 2);
+
+        // Act
+        final List<Integer> result = seq.toList();
+
+        // Assert
+        assertEquals(Arrays.asList(1, 3), result);
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldNotComputeMoreThanLookAheadElementsInAdvance() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final AtomicInteger pulled = new AtomicInteger();
+        final Seq<Integer> input = Seq.from(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8)).map(it -> { pulled.incrementAndGet(); return it; });
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(input, Seq::of, pool, 3);
+
+        // Act
+        final boolean hasNext = seq.next();
+
+        // Assert
+        assertTrue(hasNext);
+        assertEquals(1, seq.getCurrent());
+        assertEquals(3, pulled.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldStreamInfiniteSequences() throws Exception {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2), it -> count(it * 100, new AtomicInteger()), pool, 2, 4);
+
+        // Act
+        final List<Integer> result = seq.limit(5).toList();
+        seq.close();
+
+        // Assert
+        assertEquals(Arrays.asList(100, 101, 102, 103, 104), result);
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldNotComputeMoreThanBufferSizeElementsInAdvance() throws Exception {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final AtomicInteger pulled = new AtomicInteger();
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2), it -> count(it * 100, pulled), pool, 2, 4);
+
+        // Act
+        final boolean hasNext = seq.next();
+        Thread.sleep(100);
+        final int pulledBeforeClose = pulled.get();
+        seq.close();
+
+        // Assert
+        assertTrue(hasNext);
+        assertEquals(100, seq.getCurrent());
+        // The first branch refills its buffer after the first element is taken, the second branch fills its buffer.
+        assertTrue(pulledBeforeClose <= 1 + 4 + 4, "Pulled " + pulledBeforeClose + " elements");
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldCloseBranchSequences_whenClosed() throws Exception {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2), it -> {
+            created.incrementAndGet();
+            return new SeqBase<Integer>() {
+                @Override protected void computeNext() { this.yield(it); }
+                @Override public void close() { closed.incrementAndGet(); }
+            };
+        }, pool, 2, 4);
+
+        // Act
+        seq.next();
+        seq.close();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(created.get() >= 1);
+        assertEquals(created.get(), closed.get());
+    }
+
+    @Test
+    public void shouldMakeProgress_whenExecutorIsBlocked() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try { release.await(); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+        });
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2, 3), Seq::of, pool, 2);
+
+        // Act
+        final List<Integer> result = seq.toList();
+
+        // Assert
+        assertEquals(Arrays.asList(1, 2, 3), result);
+        release.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldPropagateExceptions() {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2, 3), it -> {
+            if (it == 2) throw new IllegalStateException("Failed " + it);
+            return Seq.of(it);
+        }, pool, 2);
+
+        // Act/Assert
+        assertThrows(IllegalStateException.class, seq::toList);
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldThrowInterruptedException_whenInterrupted() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Seq<Integer> seq = new ParallelFlatMapSeq<>(Seq.of(1, 2), it -> {
+            started.countDown();
+            Thread.sleep(60_000);
+            return Seq.of(it);
+        }, pool, 2);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                seq.toList();
+            } catch (Throwable ex) {
+                thrown.set(ex);
+            }
+        });
+
+        // Act
+        thread.start();
+        started.await();
+        thread.interrupt();
+        thread.join(10_000);
+
+        // Assert
+        assertTrue(thrown.get() instanceof InterruptedException, String.valueOf(thrown.get()));
+        pool.shutdownNow();
+    }
+
+    /**
+     * Creates an infinite sequence of increasing integers.
+     *
+     * @param start the first integer
+     * @param pulled the counter to increment for each integer that is pulled
+     * @return the sequence
+     */
+    private static Seq<Integer> count(int start, AtomicInteger pulled) {
+        return new SeqBase<Integer>() {
+            private int next = start;
+
+            @Override
+            protected void computeNext() {
+                pulled.incrementAndGet();
+                this.yield(next++);
+            }
+        };
+    }
+}
@@ -637,6 +637,81 @@ public final class SeqTests {
         assertFalse(peekableSeq.next());
     }
 
+    @Test
+    public void flatMap_shouldReturnElementsOfResultingSequences() throws InterruptedException {
+        // Arrange
+        final Seq<Integer> seq = Seq.of(1, 2, 3);
+
+        // Act
+        final Seq<Integer> flatMappedSeq = seq.flatMap(i -> i == 2 ? null : Seq.of(i, i * 10));
+
+        // Assert
+        assertEquals(Arrays.asList(1, 10, 3, 30), flatMappedSeq.toList());
+    }
+
+    @Test
+    public void flatMap_shouldNotOverflowStack_whenChainIsDeep() throws InterruptedException {
+        // Arrange
+        Seq<Integer> seq = Seq.of(0, 1);
+        for (int i = 0; i < 100_000; i++) {
+            seq = i % 3 == 0 ? seq.flatMap(x -> Seq.of(x)) : seq.map(x -> x + 1).filter(x -> x >= 0);
+        }
+
+        // Act
+        final List<Integer> result = seq.toList();
+
+        // Assert
+        assertEquals(Arrays.asList(66_666, 66_667), result);
+    }
+
+    @Test
+    public void map_shouldContinueFromCurrentElement_whenSequenceWasPartiallyIterated() throws InterruptedException {
+        // Arrange
+        final Seq<Integer> seq = Seq.of(1, 2, 3).map(i -> i * 2);
+        assertTrue(seq.next());
+
+        // Act
+        final Seq<Integer> mappedSeq = seq.map(i -> i + 1);
+
+        // Assert
+        assertEquals(Arrays.asList(5, 7), mappedSeq.toList());
+    }
+
+    @Test
+    public void flatMap_shouldCloseInnerAndSourceSequences_whenClosed() throws Exception {
+        // Arrange
+        final AtomicInteger closeCalls = new AtomicInteger();
+        final Seq<Integer> source = new SeqBase<Integer>() {
+            @Override
+            protected void computeNext() {
+                this.yield(1);
+            }
+
+            @Override
+            public void close() {
+                closeCalls.incrementAndGet();
+            }
+        };
+        final Seq<Integer> seq = source.flatMap(i -> new SeqBase<Integer>() {
+            @Override
+            protected void computeNext() {
+                this.yield(i);
+            }
+
+            @Override
+            public void close() {
+                closeCalls.incrementAndGet();
+            }
+        });
+        assertTrue(seq.next());
+
+        // Act
+        seq.close();
+
+        // Assert
+        assertEquals(2, closeCalls.get());
+    }
+
     private interface CloseableSupplier<T> extends InterruptibleSupplier<T>, AutoCloseable { }
 
 }
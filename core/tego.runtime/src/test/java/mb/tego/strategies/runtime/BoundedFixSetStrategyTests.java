@@ -0,0 +1,71 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.TestListStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link BoundedFixSetStrategy} class.
+ */
+@SuppressWarnings({"ArraysAsListWithZeroOrOneArgument"})
+public final class BoundedFixSetStrategyTests {
+
+    @Test
+    public void shouldApplyStrategy_untilMaxDepthIsReached() throws InterruptedException {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final BoundedFixSetStrategy<String> strategy = BoundedFixSetStrategy.getInstance();
+        final TestListStrategy<String, String> s = new TestListStrategy<>(it -> it.length() < 5 ? Arrays.asList(it + "A", it + "B") : Arrays.asList());
+
+        // Act
+        final Seq<String> result = strategy.evalInternal(engine, s, 2, "A");
+
+        // Assert
+        assertEquals(Arrays.asList(
+            "AAA",
+            "AAB",
+            "ABA",
+            "ABB"
+        ), result.collect(Collectors.toList()));
+        assertEquals(3, s.evalCalls.get());
+    }
+
+    @Test
+    public void shouldReturnInput_whenMaxDepthIsZero() throws InterruptedException {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final BoundedFixSetStrategy<String> strategy = BoundedFixSetStrategy.getInstance();
+        final TestListStrategy<String, String> s = new TestListStrategy<>(it -> Arrays.asList(it + "A"));
+
+        // Act
+        final Seq<String> result = strategy.evalInternal(engine, s, 0, "A");
+
+        // Assert
+        assertEquals(Arrays.asList("A"), result.collect(Collectors.toList()));
+        assertEquals(0, s.evalCalls.get());
+    }
+
+    @Test
+    public void shouldBehaveAsFixSet_whenMaxDepthIsLargeEnough() throws InterruptedException {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final BoundedFixSetStrategy<String> strategy = BoundedFixSetStrategy.getInstance();
+        final TestListStrategy<String, String> s = new TestListStrategy<>(it -> it.length() < 3 ? Arrays.asList(it + "A", it + "B") : Arrays.asList(it));
+
+        // Act
+        final Seq<String> result = strategy.evalInternal(engine, s, 10, "A");
+
+        // Assert
+        assertEquals(Arrays.asList(
+            "AAA",
+            "AAB",
+            "ABA",
+            "ABB"
+        ), result.collect(Collectors.toList()));
+    }
+}
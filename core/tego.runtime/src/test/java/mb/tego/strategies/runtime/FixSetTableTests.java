@@ -0,0 +1,61 @@
+package mb.tego.strategies.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link FixSetTable} class.
+ */
+public final class FixSetTableTests {
+
+    /** An element whose hash code collides with other elements. */
+    private static final class CollidingElement {
+        private final int value;
+
+        CollidingElement(int value) { this.value = value; }
+
+        @Override public boolean equals(Object obj) {
+            return obj instanceof CollidingElement && ((CollidingElement)obj).value == value;
+        }
+
+        @Override public int hashCode() { return value % 3; }
+    }
+
+    @Test
+    public void shouldAdvanceTag_fromAbsentToVisitedToYielded() {
+        // Arrange
+        final FixSetTable<String> table = new FixSetTable<>();
+
+        // Act
+        final byte tag1 = table.advance("a");
+        final byte tag2 = table.advance("a");
+        final byte tag3 = table.advance("a");
+
+        // Assert
+        assertEquals(FixSetTable.ABSENT, tag1);
+        assertEquals(FixSetTable.VISITED, tag2);
+        assertEquals(FixSetTable.YIELDED, tag3);
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void shouldKeepTags_whenTableGrowsWithCollidingElements() {
+        // Arrange
+        final FixSetTable<CollidingElement> table = new FixSetTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.advance(new CollidingElement(i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            table.advance(new CollidingElement(i));
+        }
+
+        // Act/Assert
+        for (int i = 0; i < 100; i++) {
+            final byte expected = i % 2 == 0 ? FixSetTable.YIELDED : FixSetTable.VISITED;
+            assertEquals(expected, table.advance(new CollidingElement(i)));
+        }
+        assertEquals(FixSetTable.ABSENT, table.advance(null));
+        assertEquals(101, table.size());
+    }
+}
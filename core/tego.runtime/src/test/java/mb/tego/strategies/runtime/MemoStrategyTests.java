@@ -0,0 +1,157 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.MyTestStrategy1;
+import mb.tego.strategies.Strategy;
+import mb.tego.strategies.Strategy1;
+import mb.tego.strategies.StrategyExt;
+import mb.tego.strategies.TestListStrategy;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the {@link MemoStrategy} class.
+ */
+public final class MemoStrategyTests {
+
+    @Test
+    public void shouldReturnCachedResult_whenEvaluatedWithEqualInput() {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final StrategyCache cache = new StrategyCache(10);
+        final AtomicInteger calls = new AtomicInteger();
+        final Strategy<String, String> s = (e, input) -> { calls.incrementAndGet(); return input + "!"; };
+        final Strategy<String, String> strategy = StrategyExt.memo(s, cache);
+
+        // Act
+        final String result1 = engine.eval(strategy, "A");
+        final String result2 = engine.eval(strategy, new String("A"));
+        final String result3 = engine.eval(strategy, "B");
+
+        // Assert
+        assertEquals("A!", result1);
+        assertEquals("A!", result2);
+        assertEquals("B!", result3);
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void shouldCacheFailure() {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final AtomicInteger calls = new AtomicInteger();
+        final Strategy<String, @Nullable String> s = (e, input) -> { calls.incrementAndGet(); return null; };
+        final Strategy<String, @Nullable String> strategy = StrategyExt.memo(s, 10);
+
+        // Act
+        final @Nullable String result1 = engine.eval(strategy, "A");
+        final @Nullable String result2 = engine.eval(strategy, "A");
+
+        // Assert
+        assertNull(result1);
+        assertNull(result2);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shouldCacheSequence_onlyWhenCompletelyIterated() throws InterruptedException {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final TestListStrategy<Integer, Integer> s = new TestListStrategy<>(it -> Arrays.asList(it, it + 1, it + 2));
+        final Strategy<Integer, Seq<Integer>> strategy = StrategyExt.memo(s, 10);
+
+        // Act
+        final Seq<Integer> result1 = engine.eval(strategy, 1);
+        result1.next();
+        final List<Integer> result2 = engine.eval(strategy, 1).toList();
+        final List<Integer> result3 = engine.eval(strategy, 1).toList();
+
+        // Assert
+        assertEquals(Arrays.asList(1, 2, 3), result2);
+        assertEquals(Arrays.asList(1, 2, 3), result3);
+        assertEquals(2, s.evalCalls.get());
+    }
+
+    @Test
+    public void shouldCacheByArguments() {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final StrategyCache cache = new StrategyCache(10);
+        final AtomicInteger calls = new AtomicInteger();
+        final Strategy1<Integer, Integer, Integer> s = (e, arg1, input) -> { calls.incrementAndGet(); return arg1 + input; };
+        final Strategy1<Integer, Integer, Integer> strategy = StrategyExt.memo(s, cache);
+
+        // Act
+        final Integer result1 = engine.eval(strategy, 1, 10);
+        final Integer result2 = engine.eval(strategy, 2, 10);
+        final Integer result3 = engine.eval(strategy, 1, 10);
+
+        // Assert
+        assertEquals(11, result1);
+        assertEquals(12, result2);
+        assertEquals(11, result3);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void shouldNameMemoizedStrategy_afterWrappedStrategy() {
+        // Arrange
+        final StrategyCache cache = new StrategyCache(10);
+        final MyTestStrategy1 s = new MyTestStrategy1();
+
+        // Act
+        final Strategy1<String, String, Seq<String>> strategy = StrategyExt.memo(s, cache);
+
+        // Assert
+        assertEquals("memo(my-test-strategy-1)", strategy.getName());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResult() {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final StrategyCache cache = new StrategyCache(2);
+        final AtomicInteger calls = new AtomicInteger();
+        final Strategy<String, String> s = (e, input) -> { calls.incrementAndGet(); return input; };
+        final Strategy<String, String> strategy = StrategyExt.memo(s, cache);
+
+        // Act
+        engine.eval(strategy, "A");
+        engine.eval(strategy, "B");
+        engine.eval(strategy, "A");
+        engine.eval(strategy, "C");     // Evicts B
+        engine.eval(strategy, "A");
+        engine.eval(strategy, "B");
+
+        // Assert
+        assertEquals(4, calls.get());
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void shouldEvict_whenMaximumWeightIsExceeded() throws InterruptedException {
+        // Arrange
+        final TegoEngine engine = new TegoRuntimeImpl(null);
+        final StrategyCache cache = new StrategyCache(100, 5, StrategyCache.defaultWeigher);
+        final TestListStrategy<Integer, Integer> s = new TestListStrategy<>(it -> Arrays.asList(it, it + 1, it + 2));
+        final Strategy<Integer, Seq<Integer>> strategy = StrategyExt.memo(s, cache);
+
+        // Act
+        engine.eval(strategy, 1).toList();
+        engine.eval(strategy, 2).toList();
+
+        // Assert
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.getStats().getWeight());
+    }
+}
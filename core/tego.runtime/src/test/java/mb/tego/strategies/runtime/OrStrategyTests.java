@@ -5,6 +5,7 @@ import mb.tego.strategies.TestListStrategy;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,6 +32,23 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
         assertEquals(Arrays.asList(43, 44, 45, 42, 84, 126), result.collect(Collectors.toList()));
     }
 
+    @Test
+    public void shouldEvaluateFirstSequenceThenSecondSequence_whenEvaluatedInParallel() throws InterruptedException {
+        // Arrange
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final TegoEngine engine = new ProductionTegoRuntimeImpl(null, null, new TegoParallelism(pool, 4));
+        final OrStrategy<Integer, Integer> strategy = OrStrategy.getInstance();
+        final TestListStrategy<Integer, Integer> s1 = new TestListStrategy<>(it -> Arrays.asList(it + 1, it + 2, it + 3));
+        final TestListStrategy<Integer, Integer> s2 = new TestListStrategy<>(it -> Arrays.asList(it * 1, it * 2, it * 3));
+
+        // Act
+        final Seq<Integer> result = strategy.evalInternal(engine, s1, s2, 42);
+
+        // Assert
+        assertEquals(Arrays.asList(43, 44, 45, 42, 84, 126), result.collect(Collectors.toList()));
+        pool.shutdown();
+    }
+
     @Test
     public void shouldEvaluateFirstSequence_whenSecondSequenceIsEmpty() throws InterruptedException {
         // Arrange
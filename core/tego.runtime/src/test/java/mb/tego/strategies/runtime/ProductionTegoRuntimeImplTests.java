@@ -0,0 +1,60 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.StrategyDecl;
+import mb.tego.strategies.TestListStrategy;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link ProductionTegoRuntimeImpl} class.
+ */
+public final class ProductionTegoRuntimeImplTests {
+
+    @Test
+    public void shouldEvaluateStrategy_whenNoListenerIsAttached() throws InterruptedException {
+        // Arrange
+        final TegoRuntime runtime = new ProductionTegoRuntimeImpl(null, null);
+        final TestListStrategy<String, String> s = new TestListStrategy<>(it -> Arrays.asList(it + "A", it + "B"));
+
+        // Act
+        final Seq<String> result = runtime.eval(TryStrategy.<String>getInstance(), s, "A");
+
+        // Assert
+        assertEquals(Arrays.asList("AA", "AB"), result.toList());
+        assertEquals(1, s.evalCalls.get());
+    }
+
+    @Test
+    public void shouldNotifyListener_whenListenerIsAttached() throws InterruptedException {
+        // Arrange
+        final List<String> events = new ArrayList<>();
+        final TegoRuntimeListener listener = new TegoRuntimeListener() {
+            @Override
+            public void enterStrategy(StrategyDecl strategy) {
+                events.add("enter " + strategy.getName());
+            }
+
+            @Override
+            public <R> @Nullable R exitStrategy(StrategyDecl strategy, @Nullable R result) {
+                events.add("exit " + strategy.getName());
+                return result;
+            }
+        };
+        final TegoRuntime runtime = new ProductionTegoRuntimeImpl(null, listener);
+
+        // Act
+        final @Nullable String result = runtime.eval(IdStrategy.getInstance(), "A");
+
+        // Assert
+        assertEquals("A", result);
+        assertEquals(Arrays.asList("enter id", "exit id"), events);
+    }
+
+}
@@ -0,0 +1,110 @@
+package mb.tego.strategies.runtime;
+
+import mb.tego.sequences.Seq;
+import mb.tego.strategies.NamedStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link TegoProfiler} class.
+ */
+public final class TegoProfilerTests {
+
+    /** A named strategy that returns its input twice, after spinning for a while. */
+    private static final class TwiceStrategy extends NamedStrategy<String, Seq<String>> {
+        @Override
+        public Seq<String> evalInternal(TegoEngine engine, String input) {
+            spin();
+            return Seq.of(input, input).map(it -> { spin(); return it; });
+        }
+
+        @Override
+        public String getName() {
+            return "twice";
+        }
+    }
+
+    private static void spin() {
+        final long end = System.nanoTime() + 2_000_000;
+        //noinspection StatementWithEmptyBody
+        while (System.nanoTime() < end) { }
+    }
+
+    @Test
+    public void shouldCountCallsAndResults() throws InterruptedException {
+        // Arrange
+        final TegoProfiler profiler = new TegoProfiler(true);
+        final TegoRuntime runtime = new TegoRuntimeBuilder(null).withListener(profiler).build();
+
+        // Act
+        final Seq<String> result = runtime.eval(FlatMapStrategy.<String, String>getInstance(), new TwiceStrategy(), Seq.of("A", "B"));
+
+        // Assert
+        assertEquals(Arrays.asList("A", "A", "B", "B"), result.toList());
+        final Map<String, TegoProfiler.StrategyProfile> profiles = profiler.getProfiles();
+        final TegoProfiler.StrategyProfile twice = profiles.get("twice");
+        assertEquals(2, twice.getCallCount());
+        assertTrue(twice.getInclusiveTime() >= 2 * 2_000_000);
+        assertTrue(twice.getResultTime() >= 4 * 2_000_000);
+        assertTrue(twice.getSelfTime() >= 6 * 2_000_000);
+        assertEquals(1, profiles.get("seq").getCallCount());
+    }
+
+    @Test
+    public void shouldWriteCollapsedStacks() throws Exception {
+        // Arrange
+        final TegoProfiler profiler = new TegoProfiler();
+        final TegoRuntime runtime = new TegoRuntimeBuilder(null).withListener(profiler).build();
+        final Seq<String> result = runtime.eval(FlatMapStrategy.<String, String>getInstance(), new TwiceStrategy(), Seq.of("A"));
+        result.toList();
+
+        // Act
+        final StringWriter writer = new StringWriter();
+        profiler.writeCollapsedStacks(writer);
+
+        // Assert
+        final List<String> stacks = new ArrayList<>();
+        for (String line : writer.toString().split("\n")) {
+            stacks.add(line.substring(0, line.indexOf(' ')));
+        }
+        assertTrue(stacks.contains("seq;twice"), writer.toString());
+        assertFalse(stacks.contains("twice"), writer.toString());
+    }
+
+    @Test
+    public void shouldProfileConcurrentEvaluations() throws Exception {
+        // Arrange
+        final TegoProfiler profiler = new TegoProfiler();
+        final TegoRuntime runtime = new TegoRuntimeBuilder(null).withListener(profiler).build();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < 5; j++) {
+                        runtime.eval(FlatMapStrategy.<String, String>getInstance(), new TwiceStrategy(), Seq.of("A")).toList();
+                    }
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }));
+        }
+
+        // Act
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        // Assert
+        final Map<String, TegoProfiler.StrategyProfile> profiles = profiler.getProfiles();
+        assertEquals(20, profiles.get("seq").getCallCount());
+        assertEquals(20, profiles.get("twice").getCallCount());
+    }
+}
@@ -34,6 +34,15 @@ public class TigerParse extends JsglrParseTaskDef {
         @Nullable String startSymbol,
         @Nullable ResourceKey fileHint,
         @Nullable ResourcePath rootDirectoryHint
+    ) throws InterruptedException {
+        return parsePrefetchedOrParse(text, startSymbol, fileHint, rootDirectoryHint);
+    }
+
+    @Override protected Result<JsglrParseOutput, JsglrParseException> parseWithoutContext(
+        Text text,
+        @Nullable String startSymbol,
+        @Nullable ResourceKey fileHint,
+        @Nullable ResourcePath rootDirectoryHint
     ) throws InterruptedException {
         final TigerParser parser = parserProvider.get();
         try {
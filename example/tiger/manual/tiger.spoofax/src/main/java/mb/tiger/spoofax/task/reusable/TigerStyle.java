@@ -24,6 +24,6 @@ public class TigerStyle implements TaskDef<Supplier<Option<JSGLRTokens>>, Option
 
     @Override
     public Option<Styling> exec(ExecContext context, Supplier<Option<JSGLRTokens>> tokens) throws IOException {
-        return context.require(tokens).map(t -> styler.style(t.tokens));
+        return context.require(tokens).map(t -> styler.style(t));
     }
 }
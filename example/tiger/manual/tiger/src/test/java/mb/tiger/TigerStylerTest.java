@@ -16,7 +16,7 @@ class TigerStylerTest extends TestBase {
     @Test void style() throws Exception {
         final JsglrParseOutput parsed = parse("1 + 21");
 
-        final Styling styling = style(parsed.tokens.tokens);
+        final Styling styling = style(parsed.tokens);
         final ArrayList<TokenStyle> stylePerToken = styling.getStylePerToken();
         assertEquals(5, stylePerToken.size());
 
@@ -68,6 +68,14 @@ public interface CfgSdf3Config extends Serializable {
             ;
     }
 
+    default ResourcePath parseTableBinaryAtermOutputFile() {
+        // The binary ATerm file is written next to the ATerm file, with the same name suffixed with '.saf'.
+        return compileLanguageShared().generatedResourcesDirectory()
+            .appendRelativePath(compileLanguageShared().languageProject().packagePath())
+            .appendRelativePath(parseTableAtermFileRelativePath() + ".saf")
+            ;
+    }
+
     @Value.Default default String parseTablePersistedFileRelativePath() {
         return "sdf.bin";
     }
@@ -12,16 +12,31 @@ import mb.sdf3.Sdf3Scope;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.metaborg.sdf2table.io.ParseTableIO;
 import org.metaborg.sdf2table.parsetable.ParseTable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.terms.io.binary.SAFWriter;
 
 import javax.inject.Inject;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.Set;
 
+/**
+ * Writes a parse table to its ATerm file, to a binary ATerm file next to it, and to its persisted file.
+ *
+ * The binary ATerm file is written in the Streaming ATerm Format (SAF), which is several times smaller and faster to
+ * read than the textual ATerm format. Parse tables are loaded from the binary ATerm file when it exists, falling back to
+ * the textual ATerm file otherwise.
+ */
 @Sdf3Scope
 public class Sdf3ParseTableToFile implements TaskDef<Sdf3ParseTableToFile.Input, Result<None, ?>> {
+    /**
+     * The suffix appended to the name of the ATerm file of a parse table, to get the name of its binary ATerm file.
+     */
+    public static final String BINARY_ATERM_FILE_SUFFIX = ".saf";
+
     public static class Input implements Serializable {
         private final Supplier<? extends Result<ParseTable, ?>> parseTableSupplier;
         private final ResourcePath atermOutputFile;
@@ -106,11 +121,20 @@ public class Sdf3ParseTableToFile implements TaskDef<Sdf3ParseTableToFile.Input,
     @Override public Result<None, ?> exec(ExecContext context, Input input) throws IOException {
         return context.require(input.parseTableSupplier)
             .mapCatching(parseTable -> {
+                final IStrategoTerm parseTableTerm = ParseTableIO.generateATerm(parseTable);
                 final HierarchicalResource atermOutputFile = context.getHierarchicalResource(input.atermOutputFile);
                 atermOutputFile.ensureFileExists();
-                atermOutputFile.writeString(ParseTableIO.generateATerm(parseTable).toString(), StandardCharsets.UTF_8);
+                atermOutputFile.writeString(parseTableTerm.toString(), StandardCharsets.UTF_8);
                 context.provide(atermOutputFile);
 
+                final HierarchicalResource binaryAtermOutputFile = context.getHierarchicalResource(getBinaryAtermOutputFile(input.atermOutputFile));
+                binaryAtermOutputFile.ensureFileExists();
+                try(final OutputStream stream = binaryAtermOutputFile.openWriteBuffered()) {
+                    SAFWriter.writeTermToSAFStream(parseTableTerm, stream);
+                    stream.flush();
+                }
+                context.provide(binaryAtermOutputFile);
+
                 final HierarchicalResource persistedOutputFile = context.getHierarchicalResource(input.persistedOutputFile);
                 persistedOutputFile.ensureFileExists();
                 try(final ObjectOutputStream stream = new ObjectOutputStream(persistedOutputFile.openWrite())) {
@@ -121,6 +145,17 @@ public class Sdf3ParseTableToFile implements TaskDef<Sdf3ParseTableToFile.Input,
             });
     }
 
+    /**
+     * Gets the path of the binary ATerm file that is written next to given ATerm file of a parse table.
+     */
+    public static ResourcePath getBinaryAtermOutputFile(ResourcePath atermOutputFile) {
+        final @Nullable String leaf = atermOutputFile.getLeaf();
+        if(leaf == null) {
+            throw new IllegalArgumentException("Parse table ATerm output file '" + atermOutputFile + "' has no leaf segment");
+        }
+        return atermOutputFile.replaceLeaf(leaf + BINARY_ATERM_FILE_SUFFIX);
+    }
+
     @Override public boolean shouldExecWhenAffected(Input input, Set<?> tags) {
         return tags.isEmpty() || tags.contains(Interactivity.NonInteractive);
     }
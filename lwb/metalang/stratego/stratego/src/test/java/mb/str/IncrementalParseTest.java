@@ -0,0 +1,75 @@
+package mb.str;
+
+import mb.jsglr.common.AstFingerprint;
+import mb.jsglr.common.JsglrParseInput;
+import mb.jsglr.common.JsglrParseOutput;
+import mb.jsglr2.common.Jsglr2ParseForestCache;
+import mb.jsglr2.common.Jsglr2ParseTable;
+import mb.jsglr2.common.Jsglr2Parser;
+import mb.resource.classloader.ClassLoaderResourceRegistry;
+import mb.resource.fs.FSPath;
+import org.junit.jupiter.api.Test;
+import org.spoofax.jsglr2.JSGLR2Variant;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that incrementally reparsing an edited file with the JSGLR2 incremental parser produces the same output as a
+ * full parse of the file, using the JSGLR2 parse table of Stratego.
+ */
+class IncrementalParseTest {
+    private static final StrategoClassLoaderResources classLoaderResources = new StrategoClassLoaderResources(ClassLoaderResourceRegistry.defaultUrlResolver, ClassLoaderResourceRegistry.defaultToNativeResolver);
+
+    private final Jsglr2ParseTable parseTable = StrategoParseTable.fromDefinitionDir(classLoaderResources.definitionDirectory).parseTable;
+    private final Jsglr2Parser parser = new Jsglr2Parser(parseTable, JSGLR2Variant.Preset.incremental);
+    private final FSPath file = new FSPath(Paths.get("incremental.str2").toAbsolutePath());
+
+    private static final String original = "module incremental\n\nstrategies\n\n  f = id\n\n  g = fail\n";
+
+    @Test void testInsertion() throws Exception {
+        assertIncrementalParseEqualsFullParse(original, "module incremental\n\nstrategies\n\n  f = id; id\n\n  g = fail\n");
+    }
+
+    @Test void testInsertionOfDefinition() throws Exception {
+        assertIncrementalParseEqualsFullParse(original, "module incremental\n\nstrategies\n\n  f = id\n\n  h = f; g\n\n  g = fail\n");
+    }
+
+    @Test void testDeletion() throws Exception {
+        assertIncrementalParseEqualsFullParse(original, "module incremental\n\nstrategies\n\n  g = fail\n");
+    }
+
+    @Test void testReplacement() throws Exception {
+        assertIncrementalParseEqualsFullParse(original, "module incremental\n\nstrategies\n\n  f = fail\n\n  g = id\n");
+    }
+
+    @Test void testLayoutChange() throws Exception {
+        assertIncrementalParseEqualsFullParse(original, "module incremental\n\n// Comment\nstrategies\n\n    f = id\n\n  g = fail\n");
+    }
+
+    private void assertIncrementalParseEqualsFullParse(String before, String after) throws Exception {
+        // The parse forest cache belongs to the parse table, which is shared by all parsers of the process.
+        final Jsglr2ParseForestCache parseForestCache = parseTable.getParseForestCache();
+        parseForestCache.remove(file);
+        parser.parse(input(before));
+        final long hitCountBefore = parseForestCache.getStats().getHitCount();
+        final JsglrParseOutput incrementalOutput = parser.parse(input(after));
+        assertEquals(hitCountBefore + 1, parseForestCache.getStats().getHitCount(), "Expected the edit to be reparsed incrementally");
+
+        parseForestCache.remove(file);
+        final JsglrParseOutput fullOutput = parser.parse(input(after));
+
+        assertEquals(fullOutput.ast, incrementalOutput.ast);
+        // The fingerprints cover the regions of all terms in the ASTs.
+        assertEquals(AstFingerprint.compute(fullOutput.ast), AstFingerprint.compute(incrementalOutput.ast));
+        assertEquals(fullOutput.tokens, incrementalOutput.tokens);
+        assertEquals(fullOutput.messages, incrementalOutput.messages);
+        assertEquals(fullOutput.recovered, incrementalOutput.recovered);
+        assertEquals(fullOutput.ambiguous, incrementalOutput.ambiguous);
+    }
+
+    private JsglrParseInput input(String text) {
+        return new JsglrParseInput(text, "Module", file);
+    }
+}
@@ -208,6 +208,9 @@ class LanguagePluginInstance(
         sdf3Config.parseTableAtermOutputFile().tryAsLocal("SDF3 parse table ATerm output file") { file ->
           outputs.file(file)
         }
+        sdf3Config.parseTableBinaryAtermOutputFile().tryAsLocal("SDF3 parse table binary ATerm output file") { file ->
+          outputs.file(file)
+        }
         sdf3Config.parseTablePersistedOutputFile().tryAsLocal("SDF3 parse table persisted output file") { file ->
           outputs.file(file)
         }
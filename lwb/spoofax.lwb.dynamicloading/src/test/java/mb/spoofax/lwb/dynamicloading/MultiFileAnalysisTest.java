@@ -0,0 +1,79 @@
+package mb.spoofax.lwb.dynamicloading;
+
+import mb.common.editor.HoverResult;
+import mb.common.option.Option;
+import mb.common.region.Region;
+import mb.pie.api.MixedSession;
+import mb.pie.api.Task;
+import mb.pie.api.TopDownSession;
+import mb.pie.runtime.tracer.MetricsTracer;
+import mb.resource.WritableResource;
+import mb.resource.hierarchical.HierarchicalResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiFileAnalysisTest extends CharsTestBase {
+    HierarchicalResource otherCharsFile;
+
+    @BeforeEach void setup(@TempDir Path temporaryDirectoryPath) throws IOException {
+        super.setup(temporaryDirectoryPath);
+        final WritableResource configFile = rootDirectory.appendRelativePath("spoofaxc.cfg");
+        configFile.writeString(configFile.readString().replace("constraint-analyzer {}", "constraint-analyzer {\n  multi-file = true\n}"));
+        otherCharsFile = charsProject.appendSegment("other.chars").ensureFileExists();
+        otherCharsFile.writeString("hijklmn");
+    }
+
+    @AfterEach void teardown() throws Exception {
+        otherCharsFile = null;
+        super.teardown();
+    }
+
+    @Test void testHoverNotReExecutedWhenOtherFileChanges() throws Exception {
+        final DynamicLanguage dynamicLanguage;
+        try(final MixedSession session = newSession()) {
+            dynamicLanguage = requireDynamicLoad(session, rootDirectoryPath);
+        } catch(Exception e) {
+            printThrowable(e);
+            throw e;
+        }
+
+        final Task<Option<HoverResult>> hoverTask = dynamicLanguage.getLanguageComponent().getLanguageInstance()
+            .createHoverTask(charsProjectPath, charsFilePath, Region.atOffset(2));
+        try(final MixedSession session = dynamicLanguage.getPieComponent().newSession()) {
+            languageMetricsTracer.reset();
+            final Option<HoverResult> hoverResult = session.require(hoverTask);
+            assertTrue(hoverResult.isSome());
+            assertEquals("Type: \"Chars\"", hoverResult.get().getText());
+            final MetricsTracer.Report report = languageMetricsTracer.reportAndReset();
+            assertTrue(hasConstraintAnalysisTaskExecuted(report, dynamicLanguage));
+            assertTrue(hasHoverTaskExecuted(report, dynamicLanguage));
+        } catch(Exception e) {
+            printThrowable(e);
+            throw e;
+        }
+
+        // Change the regions of the other file, which changes its result, but not the result of the hovered file.
+        otherCharsFile.writeString("  hijklmn");
+        try(final MixedSession session = dynamicLanguage.getPieComponent().newSession()) {
+            languageMetricsTracer.reset();
+            final TopDownSession topDownSession = session.updateAffectedBy(Collections.singleton(otherCharsFile.getPath()));
+            final Option<HoverResult> hoverResult = topDownSession.require(hoverTask);
+            assertTrue(hoverResult.isSome());
+            assertEquals("Type: \"Chars\"", hoverResult.get().getText());
+            final MetricsTracer.Report report = languageMetricsTracer.reportAndReset();
+            assertTrue(hasConstraintAnalysisTaskExecuted(report, dynamicLanguage));
+            assertFalse(hasHoverTaskExecuted(report, dynamicLanguage));
+        } catch(Exception e) {
+            printThrowable(e);
+            throw e;
+        }
+    }
+}